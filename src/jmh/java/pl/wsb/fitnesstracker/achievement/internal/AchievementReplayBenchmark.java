@@ -0,0 +1,74 @@
+package pl.wsb.fitnesstracker.achievement.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.wsb.fitnesstracker.achievement.api.TrainingEvent;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays 10M synthetic trainings of a single user through the {@link AchievementEngine}, as a rebuild of the user's
+ * achievements does, to show that the cost of a training does not grow with the replayed history. The score is the
+ * number of replayed trainings per second.
+ * <p>
+ * The trainings are kept in primitive arrays and turned into events while replayed, like the samples read by a
+ * rebuild, so that 10M of them fit the default heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AchievementReplayBenchmark {
+
+    private static final Long USER_ID = 1L;
+    private static final int TRAINING_COUNT = 10_000_000;
+
+    private final AchievementEngine engine = new AchievementEngine(ZoneOffset.UTC);
+    private final ActivityType[] activityTypes = ActivityType.values();
+    private byte[] activityTypeOrdinals;
+    private double[] distances;
+    private long[] endTimes;
+
+    @Setup(Level.Trial)
+    public void generateTrainings() {
+        SplittableRandom random = new SplittableRandom(42);
+        activityTypeOrdinals = new byte[TRAINING_COUNT];
+        distances = new double[TRAINING_COUNT];
+        endTimes = new long[TRAINING_COUNT];
+        long endTime = Instant.parse("2000-01-01T00:00:00Z").getEpochSecond();
+        for (int i = 0; i < TRAINING_COUNT; i++) {
+            endTime += random.nextInt(1, 48 * 60) * 60L;
+            activityTypeOrdinals[i] = (byte) random.nextInt(activityTypes.length);
+            distances[i] = random.nextDouble(0, 50);
+            endTimes[i] = endTime;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TRAINING_COUNT)
+    public AchievementState replay() {
+        AchievementState state = new AchievementState(USER_ID);
+        for (int i = 0; i < TRAINING_COUNT; i++) {
+            engine.apply(state, new TrainingEvent(USER_ID, activityTypes[activityTypeOrdinals[i]], distances[i],
+                    Instant.ofEpochSecond(endTimes[i])));
+        }
+        return state;
+    }
+
+}
@@ -0,0 +1,121 @@
+package pl.wsb.fitnesstracker.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.FitnessTracker;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The application context of a benchmark trial, backed by an embedded H2 database of its own, migrated by Flyway and
+ * seeded with synthetic users and trainings.
+ * <p>
+ * User {@code i} (from {@code 1}) is named {@code first-(i % 100)} {@code last-(i % 1000)}, so a name matches
+ * {@code userCount / 1000} users. Its trainings take one day each, in consecutive days from {@link #FIRST_DAY},
+ * and cycle through the activity types; training {@code k} of user {@code i} has the ID
+ * {@code (i - 1) * trainingsPerUser + k + 1}.
+ */
+public final class BenchmarkDatabase implements AutoCloseable {
+
+    public static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int ACTIVITY_TYPES = 5;
+    /**
+     * The block of training IDs allocated at once; Hibernate takes the next sequence value as the last ID of a block.
+     */
+    private static final int TRAINING_ID_BLOCK = 50;
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkDatabase(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Starts the application without the web server and the sample data, and seeds its database.
+     *
+     * @param userCount        number of users to insert
+     * @param trainingsPerUser number of trainings to insert per user
+     * @return the started database
+     */
+    public static BenchmarkDatabase start(int userCount, int trainingsPerUser) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FitnessTracker.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID(),
+                        "--spring.profiles.active=benchmark",
+                        "--logging.level.root=WARN");
+        BenchmarkDatabase database = new BenchmarkDatabase(context);
+        database.seed(userCount, trainingsPerUser);
+        return database;
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public JdbcTemplate jdbc() {
+        return context.getBean(JdbcTemplate.class);
+    }
+
+    /**
+     * Drops the cached entities and query results, so that the next read goes to the database.
+     */
+    public void evictCaches() {
+        SessionFactory sessionFactory = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+
+    private void seed(int userCount, int trainingsPerUser) {
+        List<Object[]> users = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= userCount; i++) {
+            users.add(new Object[]{i, "first-" + i % 100, "last-" + i % 1000,
+                    Date.valueOf(FIRST_DAY.minusYears(20).minusDays(i % 10000)), "user-" + i + "@domain.com"});
+            if (users.size() == BATCH_SIZE || i == userCount) {
+                jdbc().batchUpdate("insert into users (id, first_name, last_name, birthdate, email) values (?, ?, ?, ?, ?)", users);
+                users.clear();
+            }
+        }
+        jdbc().execute("alter table users alter column id restart with " + (userCount + 1));
+
+        List<Object[]> trainings = new ArrayList<>(BATCH_SIZE);
+        long id = 0;
+        for (int i = 1; i <= userCount; i++) {
+            for (int k = 0; k < trainingsPerUser; k++) {
+                LocalDateTime start = FIRST_DAY.plusDays(k).atTime(8, 0);
+                trainings.add(new Object[]{++id, i, Timestamp.valueOf(start), Timestamp.valueOf(start.plusHours(1)),
+                        k % ACTIVITY_TYPES, 5.0 + k % 20, 10.0 + k % 5});
+                if (trainings.size() == BATCH_SIZE) {
+                    insertTrainings(trainings);
+                }
+            }
+        }
+        insertTrainings(trainings);
+        jdbc().execute("alter sequence trainings_seq restart with " + (id + TRAINING_ID_BLOCK));
+        jdbc().execute("analyze");
+    }
+
+    private void insertTrainings(List<Object[]> trainings) {
+        jdbc().batchUpdate("""
+                insert into trainings (id, user_id, start_time, end_time, activity_type, distance, average_speed)
+                values (?, ?, ?, ?, ?, ?, ?)
+                """, trainings);
+        trainings.clear();
+    }
+
+}
@@ -0,0 +1,93 @@
+package pl.wsb.fitnesstracker.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH result file with a baseline result file, both in the JMH JSON format, and exits with a non-zero
+ * status when any benchmark of the baseline regressed by more than the threshold.
+ * <p>
+ * A benchmark is identified by its name, mode and parameters. The baseline decides which benchmarks are tracked;
+ * tracked benchmarks missing from the result, e.g. excluded from the run, are reported but not checked. A higher
+ * score is better in the throughput mode, a lower one in the time modes. Without a baseline file there is nothing
+ * to check.
+ * <p>
+ * Usage: {@code RegressionCheck <result file> <baseline file> <threshold>}, the threshold being the maximal
+ * tolerated slowdown as a fraction of the baseline score.
+ */
+public final class RegressionCheck {
+
+    private static final String THROUGHPUT = "thrpt";
+
+    private RegressionCheck() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: RegressionCheck <result file> <baseline file> <threshold>");
+            System.exit(2);
+        }
+        Path baselineFile = Path.of(args[1]);
+        if (!Files.exists(baselineFile)) {
+            System.out.println("No benchmark baseline at " + baselineFile + ", skipping the regression check");
+            return;
+        }
+        List<String> regressions = check(read(Path.of(args[0])), read(baselineFile), Double.parseDouble(args[2]));
+        if (!regressions.isEmpty()) {
+            System.err.println("Benchmarks regressed past the threshold of " + args[2] + ":");
+            regressions.forEach(regression -> System.err.println("  " + regression));
+            System.exit(1);
+        }
+    }
+
+    static List<String> check(Map<String, JsonNode> results, Map<String, JsonNode> baseline, double threshold) {
+        List<String> regressions = new ArrayList<>();
+        baseline.forEach((key, tracked) -> {
+            JsonNode result = results.get(key);
+            if (result == null) {
+                System.out.println("Not run:    " + key);
+                return;
+            }
+            String unit = result.path("primaryMetric").path("scoreUnit").asText();
+            if (!unit.equals(tracked.path("primaryMetric").path("scoreUnit").asText())) {
+                regressions.add(key + ": unit changed to " + unit);
+                return;
+            }
+            double score = result.path("primaryMetric").path("score").asDouble();
+            double baselineScore = tracked.path("primaryMetric").path("score").asDouble();
+            double change = THROUGHPUT.equals(result.path("mode").asText())
+                    ? (baselineScore - score) / baselineScore
+                    : (score - baselineScore) / baselineScore;
+            String line = "%s: %.3f -> %.3f %s (%+.1f%% slower)".formatted(key, baselineScore, score, unit, change * 100);
+            System.out.println((change > threshold ? "Regressed:  " : "Within:     ") + line);
+            if (change > threshold) {
+                regressions.add(line);
+            }
+        });
+        return regressions;
+    }
+
+    private static Map<String, JsonNode> read(Path file) throws IOException {
+        Map<String, JsonNode> benchmarks = new TreeMap<>();
+        for (JsonNode benchmark : new ObjectMapper().readTree(file.toFile())) {
+            benchmarks.put(keyOf(benchmark), benchmark);
+        }
+        return benchmarks;
+    }
+
+    private static String keyOf(JsonNode benchmark) {
+        Map<String, String> params = new TreeMap<>();
+        benchmark.path("params").fields().forEachRemaining(param -> params.put(param.getKey(), param.getValue().asText()));
+        return benchmark.path("benchmark").asText() + " [" + benchmark.path("mode").asText() + "]"
+                + (params.isEmpty() ? "" : " " + params);
+    }
+
+}
@@ -0,0 +1,4 @@
+@NonNullByDefault
+package pl.wsb.fitnesstracker.benchmark;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
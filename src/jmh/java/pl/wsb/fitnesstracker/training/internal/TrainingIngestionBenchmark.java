@@ -0,0 +1,85 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.wsb.fitnesstracker.benchmark.BenchmarkDatabase;
+import pl.wsb.fitnesstracker.training.api.TrainingBatchResult;
+import pl.wsb.fitnesstracker.training.api.TrainingCreateDto;
+import pl.wsb.fitnesstracker.training.api.TrainingService;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares creating trainings one by one through {@link TrainingService#createTraining(TrainingCreateDto)}, each in
+ * a transaction of its own, with creating them at once through {@link TrainingService#createTrainings(List)}. The
+ * score is the number of created trainings per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrainingIngestionBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Param("1000")
+    private int userCount;
+
+    private BenchmarkDatabase database;
+    private TrainingService trainingService;
+    private List<TrainingCreateDto> trainings;
+    private long nextStart = Instant.parse("2030-01-01T00:00:00Z").toEpochMilli();
+
+    @Setup(Level.Trial)
+    public void startDatabase() {
+        database = BenchmarkDatabase.start(userCount, 0);
+        trainingService = database.getBean(TrainingService.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareTrainings() {
+        trainings = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            long userId = i % userCount + 1;
+            trainings.add(new TrainingCreateDto(userId, null, new Date(nextStart), new Date(nextStart + 3_600_000),
+                    ActivityType.values()[i % ActivityType.values().length], 10.0, 10.0));
+            nextStart += 60_000;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() {
+        database.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void single() {
+        trainings.forEach(trainingService::createTraining);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public TrainingBatchResult batch() {
+        return trainingService.createTrainings(trainings);
+    }
+
+}
@@ -0,0 +1,116 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.benchmark.BenchmarkDatabase;
+import pl.wsb.fitnesstracker.training.api.Training;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the strategies of looking up trainings by ID and by user: loading all trainings and filtering them in
+ * memory, as the former default method of {@link TrainingRepository#findById(Object)} did, the derived finders of the
+ * repository, and plain SQL over the same indexes without the mapping to entities.
+ * <p>
+ * The caches are dropped before every lookup, so that every strategy reads from the database. The table grows from
+ * 1k to 1M trainings, with ten trainings per user, to show that the latency of the indexed lookups stays flat while
+ * the filtering in memory grows with the table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrainingQueryBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    private int userCount;
+
+    @Param("10")
+    private int trainingsPerUser;
+
+    private BenchmarkDatabase database;
+    private TrainingRepository trainingRepository;
+    private TransactionTemplate transaction;
+    private Long userId;
+    private Long trainingId;
+
+    @Setup(Level.Trial)
+    public void startDatabase() {
+        database = BenchmarkDatabase.start(userCount, trainingsPerUser);
+        trainingRepository = database.getBean(TrainingRepository.class);
+        transaction = new TransactionTemplate(database.getBean(PlatformTransactionManager.class));
+        transaction.setReadOnly(true);
+        userId = (long) userCount / 2;
+        trainingId = (long) userCount * trainingsPerUser / 2;
+    }
+
+    @Setup(Level.Invocation)
+    public void evictCaches() {
+        database.evictCaches();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() {
+        database.close();
+    }
+
+    @Benchmark
+    public Optional<Training> byIdFindAllAndFilter() {
+        return transaction.execute(status -> trainingRepository.findAll().stream()
+                .filter(training -> Objects.equals(training.getId(), trainingId))
+                .findAny());
+    }
+
+    @Benchmark
+    public Optional<Training> byIdDerivedQuery() {
+        return transaction.execute(status -> trainingRepository.findById(trainingId));
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> byIdNativeSql() {
+        return database.jdbc().queryForList("""
+                select t.*, u.* from trainings t join users u on u.id = t.user_id
+                where t.id = ?
+                """, trainingId);
+    }
+
+    @Benchmark
+    public List<Training> byUserFindAllAndFilter() {
+        return transaction.execute(status -> trainingRepository.findAll().stream()
+                .filter(training -> Objects.equals(training.getUser().getId(), userId))
+                .toList());
+    }
+
+    @Benchmark
+    public List<Training> byUserDerivedQuery() {
+        return transaction.execute(status -> trainingRepository.findByUser_Id(userId));
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> byUserNativeSql() {
+        return database.jdbc().queryForList("""
+                select t.*, u.* from trainings t join users u on u.id = t.user_id
+                where t.user_id = ?
+                """, userId);
+    }
+
+}
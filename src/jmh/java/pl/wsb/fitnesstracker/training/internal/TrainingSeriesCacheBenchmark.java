@@ -0,0 +1,98 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.benchmark.BenchmarkDatabase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingSampleDto;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a 30 days window of the trainings of a user from the {@link TrainingSeriesCache}, as the
+ * dashboards do, with the former path of loading all trainings of the user as entities through
+ * {@link TrainingRepository#findByUser_Id(Long)} and filtering them in memory.
+ * <p>
+ * The entity and query caches are dropped before every read, so that the former path reads from the database; the
+ * series of the user stays cached once loaded, as it does between the writes of the user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrainingSeriesCacheBenchmark {
+
+    private static final int WINDOW_DAYS = 30;
+
+    @Param("1000")
+    private int userCount;
+
+    @Param({"100", "1000"})
+    private int trainingsPerUser;
+
+    private BenchmarkDatabase database;
+    private TrainingProvider trainingProvider;
+    private TrainingRepository trainingRepository;
+    private TransactionTemplate transaction;
+    private Long userId;
+    private Instant from;
+    private Instant to;
+
+    @Setup(Level.Trial)
+    public void startDatabase() {
+        database = BenchmarkDatabase.start(userCount, trainingsPerUser);
+        trainingProvider = database.getBean(TrainingProvider.class);
+        trainingRepository = database.getBean(TrainingRepository.class);
+        transaction = new TransactionTemplate(database.getBean(PlatformTransactionManager.class));
+        transaction.setReadOnly(true);
+        userId = (long) userCount / 2;
+        from = BenchmarkDatabase.FIRST_DAY.plusDays(trainingsPerUser / 2).atStartOfDay().toInstant(ZoneOffset.UTC);
+        to = from.plus(Duration.ofDays(WINDOW_DAYS));
+    }
+
+    @Setup(Level.Invocation)
+    public void evictCaches() {
+        database.evictCaches();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<TrainingSampleDto> seriesCache() {
+        return trainingProvider.findByUserIdInWindow(userId, from, to);
+    }
+
+    @Benchmark
+    public List<Training> findByUserAndFilter() {
+        Date fromDate = Date.from(from);
+        Date toDate = Date.from(to);
+        return transaction.execute(status -> trainingRepository.findByUser_Id(userId).stream()
+                .filter(training -> !training.getStartTime().before(fromDate) && training.getStartTime().before(toDate))
+                .toList());
+    }
+
+}
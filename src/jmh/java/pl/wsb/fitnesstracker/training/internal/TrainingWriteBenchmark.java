@@ -0,0 +1,140 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.benchmark.BenchmarkDatabase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingCreateDto;
+import pl.wsb.fitnesstracker.training.api.TrainingDto;
+import pl.wsb.fitnesstracker.training.api.TrainingService;
+import pl.wsb.fitnesstracker.training.api.TrainingUpdateDto;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways of writing a training: creating it with the user loaded, as the former
+ * {@link TrainingService#createTraining} did, or referenced only; and updating it as a loaded entity with its user
+ * loaded again, as the former {@link TrainingService#update} did, or with the locked read of its values and a single
+ * update statement, as the repository does now. The service methods are measured as well, to show the cost added
+ * by the statistics, achievements and caches updated after every write.
+ * <p>
+ * Every write targets a training or user picked at random, so that the caches do not hold it from the previous one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrainingWriteBenchmark {
+
+    @Param("10000")
+    private int userCount;
+
+    @Param("10")
+    private int trainingsPerUser;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+    private BenchmarkDatabase database;
+    private TrainingService trainingService;
+    private TrainingRepository trainingRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transaction;
+    private Long userId;
+    private Long trainingId;
+    private Date startTime;
+    private Date endTime;
+    private ActivityType activityType;
+
+    @Setup(Level.Trial)
+    public void startDatabase() {
+        database = BenchmarkDatabase.start(userCount, trainingsPerUser);
+        trainingService = database.getBean(TrainingService.class);
+        trainingRepository = database.getBean(TrainingRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(database.getBean(EntityManagerFactory.class));
+        transaction = new TransactionTemplate(database.getBean(PlatformTransactionManager.class));
+    }
+
+    @Setup(Level.Invocation)
+    public void pickTraining() {
+        int training = random.nextInt(userCount * trainingsPerUser);
+        trainingId = training + 1L;
+        userId = training / trainingsPerUser + 1L;
+        long start = Instant.parse("2030-01-01T00:00:00Z").plusSeconds(random.nextInt(365 * 24) * 3600L).toEpochMilli();
+        startTime = new Date(start);
+        endTime = new Date(start + 3_600_000);
+        activityType = ActivityType.values()[random.nextInt(ActivityType.values().length)];
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() {
+        database.close();
+    }
+
+    @Benchmark
+    public Training createLoadingUser() {
+        return transaction.execute(status -> trainingRepository.save(
+                new Training(entityManager.find(User.class, userId), startTime, endTime, activityType, 10.0, 10.0)));
+    }
+
+    @Benchmark
+    public Training createReferencingUser() {
+        return transaction.execute(status -> trainingRepository.saveAndFlush(
+                new Training(entityManager.getReference(User.class, userId), startTime, endTime, activityType, 10.0, 10.0)));
+    }
+
+    @Benchmark
+    public TrainingDto createThroughService() {
+        return trainingService.createTraining(
+                new TrainingCreateDto(userId, null, startTime, endTime, activityType, 10.0, 10.0));
+    }
+
+    @Benchmark
+    public Training updateLoadingTraining() {
+        return transaction.execute(status -> {
+            Training training = trainingRepository.findById(trainingId).orElseThrow();
+            training.setUser(entityManager.find(User.class, userId));
+            training.setStartTime(startTime);
+            training.setEndTime(endTime);
+            training.setActivityType(activityType);
+            training.setDistance(10.0);
+            training.setAverageSpeed(10.0);
+            return trainingRepository.save(training);
+        });
+    }
+
+    @Benchmark
+    public Integer updateSingleStatement() {
+        return transaction.execute(status -> {
+            trainingRepository.findSampleForUpdate(trainingId, userId).orElseThrow();
+            return trainingRepository.updateOwnedTraining(trainingId, userId, startTime, endTime, activityType, 10.0, 10.0);
+        });
+    }
+
+    @Benchmark
+    public TrainingDto updateThroughService() {
+        return trainingService.update(trainingId,
+                new TrainingUpdateDto(userId, null, startTime, endTime, activityType, 10.0, 10.0));
+    }
+
+}
@@ -0,0 +1,62 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Samples the latency of concurrent {@link UserCache} lookups, including the percentiles, over a key space larger
+ * than the cache, so that the lookups mix hits, misses and evictions. The loader returns a prepared user, which
+ * leaves the cost of the cache itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class UserCacheBenchmark {
+
+    @Param("10000")
+    private int cacheMaxSize;
+
+    @Param("20000")
+    private int userCount;
+
+    private UserCache userCache;
+    private Function<Long, Optional<User>> loader;
+
+    @Setup(Level.Trial)
+    public void createCache() {
+        UserProperties properties = new UserProperties(50, 500, 20, 100, 1000, 0.01, cacheMaxSize, Duration.ofMinutes(10));
+        userCache = new UserCache(properties, new SimpleMeterRegistry());
+        User user = new User("Emma", "Johnson", LocalDate.of(1990, 1, 1), "emma@domain.com");
+        loader = userId -> Optional.of(user);
+    }
+
+    @Benchmark
+    public Optional<User> get() {
+        return userCache.get(ThreadLocalRandom.current().nextLong(1, userCount + 1), loader);
+    }
+
+}
@@ -0,0 +1,15 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.springframework.data.repository.Repository;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.List;
+
+/**
+ * Derived-query equivalent of {@link UserRepository#findByName(String, String)}, declared for the benchmarks only.
+ */
+interface UserNameQueries extends Repository<User, Long> {
+
+    List<User> findByFirstNameAndLastName(String firstName, String lastName);
+
+}
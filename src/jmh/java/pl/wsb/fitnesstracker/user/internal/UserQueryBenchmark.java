@@ -0,0 +1,93 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.benchmark.BenchmarkDatabase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the strategies of looking up users by name: the {@link UserRepository#findByName(String, String)} default
+ * method, which loads all users and filters them in memory, the equivalent derived query, and plain SQL
+ * without the mapping to entities.
+ * <p>
+ * The users table has no index of the names; with {@code nameIndex} set, the benchmark database gets one, to show
+ * what it would buy the derived query and the SQL. The caches are dropped before every lookup, so that every
+ * strategy reads from the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserQueryBenchmark {
+
+    private static final String FIRST_NAME = "first-42";
+    private static final String LAST_NAME = "last-542";
+
+    @Param("10000")
+    private int userCount;
+
+    @Param({"false", "true"})
+    private boolean nameIndex;
+
+    private BenchmarkDatabase database;
+    private UserRepository userRepository;
+    private UserNameQueries userNameQueries;
+    private TransactionTemplate transaction;
+
+    @Setup(Level.Trial)
+    public void startDatabase() {
+        database = BenchmarkDatabase.start(userCount, 0);
+        if (nameIndex) {
+            database.jdbc().execute("create index users_name_idx on users (last_name, first_name)");
+        }
+        userRepository = database.getBean(UserRepository.class);
+        userNameQueries = database.getBean(UserNameQueries.class);
+        transaction = new TransactionTemplate(database.getBean(PlatformTransactionManager.class));
+        transaction.setReadOnly(true);
+    }
+
+    @Setup(Level.Invocation)
+    public void evictCaches() {
+        database.evictCaches();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopDatabase() {
+        database.close();
+    }
+
+    @Benchmark
+    public List<User> findAllAndFilter() {
+        return transaction.execute(status -> userRepository.findByName(FIRST_NAME, LAST_NAME));
+    }
+
+    @Benchmark
+    public List<User> derivedQuery() {
+        return transaction.execute(status -> userNameQueries.findByFirstNameAndLastName(FIRST_NAME, LAST_NAME));
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> nativeSql() {
+        return database.jdbc().queryForList("select * from users where last_name = ? and first_name = ?", LAST_NAME, FIRST_NAME);
+    }
+
+}
@@ -0,0 +1,77 @@
+package pl.wsb.fitnesstracker.web.internal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import pl.wsb.fitnesstracker.training.api.TrainingDto;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing a large training list in the JSON, CBOR and Smile representations negotiated by
+ * {@link BinaryFormatsConfig}, with mappers configured like the application ones. The size of each representation is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseFormatBenchmark {
+
+    @Param("100000")
+    private int trainingCount;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private List<TrainingDto> trainings;
+
+    @Setup(Level.Trial)
+    public void generateTrainings() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper = switch (format) {
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            default -> builder.build();
+        };
+        ActivityType[] activityTypes = ActivityType.values();
+        trainings = new ArrayList<>(trainingCount);
+        for (int i = 0; i < trainingCount; i++) {
+            User user = new User("first-" + i % 100, "last-" + i % 1000, LocalDate.of(1990, 1, 1), "user-" + i % 1000 + "@domain.com");
+            long start = 1_700_000_000_000L + i * 60_000L;
+            trainings.add(new TrainingDto((long) i, user, new Date(start), new Date(start + 3_600_000L),
+                    activityTypes[i % activityTypes.length], 5.0 + i % 20, 10.0 + i % 5));
+        }
+        System.out.printf("%n%s: %d bytes for %d trainings%n", format, write().length, trainingCount);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return objectMapper.writeValueAsBytes(trainings);
+    }
+
+}
@@ -0,0 +1,22 @@
+package pl.wsb.fitnesstracker.achievement.api;
+
+/**
+ * Achievements a user unlocks with their trainings. Once unlocked, an achievement is kept.
+ */
+public enum Achievement {
+
+    FIRST_100_KM_CYCLING("First 100 km of cycling"),
+    FIVE_RUNS_IN_7_DAYS("5 runs in 7 days"),
+    WEEK_STREAK("Trainings on 7 days in a row");
+
+    private final String displayName;
+
+    Achievement(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+}
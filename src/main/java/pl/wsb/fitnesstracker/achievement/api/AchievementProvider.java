@@ -0,0 +1,13 @@
+package pl.wsb.fitnesstracker.achievement.api;
+
+public interface AchievementProvider {
+
+    /**
+     * Retrieves the achievements of a user. A user without any evaluated training has no achievements.
+     *
+     * @param userId the ID of the user
+     * @return the user's {@link AchievementSummary}
+     */
+    AchievementSummary getAchievements(Long userId);
+
+}
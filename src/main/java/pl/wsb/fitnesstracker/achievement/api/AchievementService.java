@@ -0,0 +1,42 @@
+package pl.wsb.fitnesstracker.achievement.api;
+
+import java.util.List;
+
+/**
+ * Evaluates the achievement rules on the training writes.
+ * <p>
+ * Every rule keeps a small running state per user, which is updated by each training in constant time, so the
+ * evaluation never reads the user's previous trainings. The state is changed in the transaction of the training
+ * write that caused the change, and users are notified about newly unlocked achievements once it commits.
+ */
+public interface AchievementService {
+
+    /**
+     * Evaluates the rules on newly created trainings.
+     *
+     * @param trainings the created trainings
+     */
+    void recordTrainings(List<TrainingEvent> trainings);
+
+    /**
+     * Evaluates the rules on an updated training: the previous values are reverted where a rule can revert them
+     * and the current values are evaluated as a new training. A training moved to another user is reverted in the
+     * state of the previous user and evaluated in the state of the current one.
+     *
+     * @param previous the training before the update
+     * @param current  the training after the update
+     */
+    void replaceTraining(TrainingEvent previous, TrainingEvent current);
+
+    /**
+     * Rebuilds the state of a user by replaying all of the user's trainings in the order they ended.
+     * Corrects state that the incremental evaluation could not keep exact, e.g. after trainings recorded out
+     * of order; achievements are re-derived from the trainings and users are not notified.
+     *
+     * @param userId the ID of the user
+     * @return the user's rebuilt {@link AchievementSummary}
+     * @throws pl.wsb.fitnesstracker.user.api.UserNotFoundException if the user does not exist
+     */
+    AchievementSummary rebuild(Long userId);
+
+}
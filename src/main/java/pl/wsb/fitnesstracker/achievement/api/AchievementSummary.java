@@ -0,0 +1,20 @@
+package pl.wsb.fitnesstracker.achievement.api;
+
+import java.util.Set;
+
+/**
+ * Achievements of a single user together with the progress tracked by the rules.
+ *
+ * @param userId          the ID of the user
+ * @param unlocked        the unlocked achievements
+ * @param cyclingDistance total distance of the user's cycling trainings
+ * @param currentStreak   number of consecutive days with a training, up to the day of the latest training
+ * @param longestStreak   the longest run of consecutive days with a training
+ */
+public record AchievementSummary(Long userId,
+                                 Set<Achievement> unlocked,
+                                 double cyclingDistance,
+                                 int currentStreak,
+                                 int longestStreak) {
+
+}
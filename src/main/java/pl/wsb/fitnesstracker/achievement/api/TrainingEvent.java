@@ -0,0 +1,17 @@
+package pl.wsb.fitnesstracker.achievement.api;
+
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.Instant;
+
+/**
+ * The part of a single training that the achievement rules are evaluated on.
+ *
+ * @param userId       the ID of the user who owns the training
+ * @param activityType the type of physical activity performed
+ * @param distance     the distance covered during the training
+ * @param endTime      the end of the training
+ */
+public record TrainingEvent(Long userId, ActivityType activityType, double distance, Instant endTime) {
+
+}
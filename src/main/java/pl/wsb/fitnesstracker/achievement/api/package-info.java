@@ -0,0 +1,4 @@
+@NonNullByDefault
+package pl.wsb.fitnesstracker.achievement.api;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -0,0 +1,16 @@
+package pl.wsb.fitnesstracker.achievement.internal;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.ZoneId;
+
+@Configuration
+class AchievementConfig {
+
+    @Bean
+    AchievementEngine achievementEngine() {
+        return new AchievementEngine(ZoneId.systemDefault());
+    }
+
+}
@@ -0,0 +1,37 @@
+package pl.wsb.fitnesstracker.achievement.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import pl.wsb.fitnesstracker.achievement.api.AchievementSummary;
+
+@RestController
+@RequestMapping("/v1/achievements")
+@RequiredArgsConstructor
+class AchievementController {
+
+    private final AchievementServiceImpl achievementService;
+
+    /**
+     * Retrieves the achievements of a user.
+     *
+     * @param userId the ID of the user
+     * @return the user's achievements as {@link AchievementSummary}
+     */
+    @GetMapping("/{userId}")
+    public AchievementSummary getAchievements(@PathVariable Long userId) {
+        return achievementService.getAchievements(userId);
+    }
+
+    /**
+     * Rebuilds the achievements of a user from all of the user's trainings.
+     *
+     * @param userId the ID of the user
+     * @return the user's rebuilt achievements as {@link AchievementSummary}
+     * @throws pl.wsb.fitnesstracker.user.api.UserNotFoundException if the user does not exist
+     */
+    @PostMapping("/{userId}/rebuild")
+    public AchievementSummary rebuildAchievements(@PathVariable Long userId) {
+        return achievementService.rebuild(userId);
+    }
+
+}
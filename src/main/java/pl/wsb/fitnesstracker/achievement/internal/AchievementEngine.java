@@ -0,0 +1,56 @@
+package pl.wsb.fitnesstracker.achievement.internal;
+
+import pl.wsb.fitnesstracker.achievement.api.Achievement;
+import pl.wsb.fitnesstracker.achievement.api.TrainingEvent;
+
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Evaluates the achievement rules on trainings of a single user against the user's {@link AchievementState}.
+ * The engine does no I/O, the cost of a training is constant and independent of the user's history.
+ */
+class AchievementEngine {
+
+    private final List<AchievementRule> rules;
+
+    AchievementEngine(ZoneId zone) {
+        this(List.of(new CyclingDistanceRule(), new RunsInWindowRule(), new StreakRule(zone)));
+    }
+
+    AchievementEngine(List<AchievementRule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Applies a training to the state.
+     *
+     * @param state    the state of the training's user
+     * @param training the training
+     * @return achievements newly unlocked by the training
+     */
+    Set<Achievement> apply(AchievementState state, TrainingEvent training) {
+        Set<Achievement> unlocked = EnumSet.noneOf(Achievement.class);
+        for (AchievementRule rule : rules) {
+            if (rule.apply(state, training) && state.unlock(rule.achievement())) {
+                unlocked.add(rule.achievement());
+            }
+        }
+        return unlocked;
+    }
+
+    /**
+     * Reverts a previously applied training in the state. Unlocked achievements are kept.
+     *
+     * @param state    the state of the training's user
+     * @param training the training as it was applied
+     */
+    void revert(AchievementState state, TrainingEvent training) {
+        for (AchievementRule rule : rules) {
+            rule.revert(state, training);
+        }
+    }
+
+}
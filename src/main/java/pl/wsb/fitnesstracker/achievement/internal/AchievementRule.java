@@ -0,0 +1,36 @@
+package pl.wsb.fitnesstracker.achievement.internal;
+
+import pl.wsb.fitnesstracker.achievement.api.Achievement;
+import pl.wsb.fitnesstracker.achievement.api.TrainingEvent;
+
+/**
+ * Rule unlocking a single achievement. A rule keeps its running state in the {@link AchievementState} of the user
+ * and must update it in constant time per training.
+ */
+interface AchievementRule {
+
+    /**
+     * @return the achievement unlocked by the rule
+     */
+    Achievement achievement();
+
+    /**
+     * Updates the state with a training.
+     *
+     * @param state    the state of the training's user
+     * @param training the training
+     * @return whether the achievement condition holds after the training
+     */
+    boolean apply(AchievementState state, TrainingEvent training);
+
+    /**
+     * Removes a previously applied training from the state, as far as the state allows;
+     * does nothing by default.
+     *
+     * @param state    the state of the training's user
+     * @param training the training as it was applied
+     */
+    default void revert(AchievementState state, TrainingEvent training) {
+    }
+
+}
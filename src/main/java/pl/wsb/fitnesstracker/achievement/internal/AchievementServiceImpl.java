@@ -0,0 +1,154 @@
+package pl.wsb.fitnesstracker.achievement.internal;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.achievement.api.*;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.notification.api.NotificationService;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserNotFoundException;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the achievements of the users.
+ * <p>
+ * The states of the users are locked while their trainings are evaluated, so concurrent trainings of a user are
+ * evaluated one after another. A missing state is inserted before the lock is taken; when concurrent first trainings
+ * of the same user both insert it, the later insert is rejected by the primary key once the earlier one commits and
+ * is retried, so that both trainings then lock and evaluate the committed state.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+class AchievementServiceImpl implements AchievementProvider, AchievementService {
+
+    private static final Comparator<TrainingEvent> BY_END_TIME = Comparator.comparing(TrainingEvent::endTime);
+
+    /**
+     * Inserts the initial state of a user, unless the user already has one.
+     */
+    private static final String INSERT_MISSING_STATE = """
+            merge into achievement_state s
+            using (values (cast(? as bigint))) as d (user_id)
+            on s.user_id = d.user_id
+            when not matched then insert
+                (user_id, cycling_distance, recent_runs, last_training_day, current_streak, longest_streak, unlocked)
+                values (d.user_id, 0, cast(array[] as bigint array), null, 0, 0, 0)
+            """;
+
+    private final AchievementStateRepository achievementStateRepository;
+    private final AchievementEngine achievementEngine;
+    private final UserProvider userProvider;
+    private final NotificationService notificationService;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public AchievementSummary getAchievements(Long userId) {
+        return achievementStateRepository.findById(userId)
+                .map(AchievementState::toSummary)
+                .orElseGet(() -> new AchievementSummary(userId, Set.of(), 0, 0, 0));
+    }
+
+    /**
+     * Evaluates the rules on newly created trainings, with one locked read of the states of all their users.
+     * The trainings of a user are evaluated in the order they ended.
+     *
+     * @param trainings the created trainings
+     */
+    @Override
+    @Transactional
+    public void recordTrainings(List<TrainingEvent> trainings) {
+        Map<Long, List<TrainingEvent>> trainingsByUser = trainings.stream()
+                .collect(Collectors.groupingBy(TrainingEvent::userId, LinkedHashMap::new, Collectors.toList()));
+        Map<Long, AchievementState> states = lockStates(trainingsByUser.keySet());
+        trainingsByUser.forEach((userId, userTrainings) -> {
+            AchievementState state = states.get(userId);
+            Set<Achievement> unlocked = EnumSet.noneOf(Achievement.class);
+            userTrainings.stream()
+                    .sorted(BY_END_TIME)
+                    .forEach(training -> unlocked.addAll(achievementEngine.apply(state, training)));
+            notifyUnlocked(userId, unlocked);
+        });
+    }
+
+    @Override
+    @Transactional
+    public void replaceTraining(TrainingEvent previous, TrainingEvent current) {
+        Map<Long, AchievementState> states = lockStates(new HashSet<>(List.of(previous.userId(), current.userId())));
+        achievementEngine.revert(states.get(previous.userId()), previous);
+        notifyUnlocked(current.userId(), achievementEngine.apply(states.get(current.userId()), current));
+    }
+
+    @Override
+    @Transactional
+    public AchievementSummary rebuild(Long userId) {
+        userProvider.getUserById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        AchievementState state = lockStates(List.of(userId)).get(userId);
+        state.reset();
+        achievementStateRepository.findTrainingsByUserId(userId)
+                .stream()
+                .map(sample -> new TrainingEvent(userId, sample.activityType(), sample.distance(), sample.endTime().toInstant()))
+                .forEach(training -> achievementEngine.apply(state, training));
+        log.info("Rebuilt achievements of user {}: {}", userId, state);
+        return state.toSummary();
+    }
+
+    /**
+     * Locks the states of the users, creating the states of users without any evaluated training first.
+     * Only the users whose states were not found by the first locked read are inserted and read again.
+     */
+    private Map<Long, AchievementState> lockStates(Collection<Long> userIds) {
+        Map<Long, AchievementState> states = findForUpdate(userIds);
+        List<Long> missing = userIds.stream().filter(userId -> !states.containsKey(userId)).toList();
+        if (!missing.isEmpty()) {
+            insertMissingStates(missing);
+            states.putAll(findForUpdate(missing));
+        }
+        return states;
+    }
+
+    private Map<Long, AchievementState> findForUpdate(Collection<Long> userIds) {
+        return achievementStateRepository.findForUpdateByUserIds(userIds)
+                .stream()
+                .collect(Collectors.toMap(AchievementState::getUserId, Function.identity()));
+    }
+
+    /**
+     * Inserts the missing states over JDBC, in the current transaction, so that an insert rejected by a concurrent
+     * one does not mark the transaction for rollback; the repeated merge then finds the committed state.
+     * Pending entity changes, such as a new user, are flushed before.
+     */
+    private void insertMissingStates(List<Long> userIds) {
+        entityManager.flush();
+        List<Object[]> rows = userIds.stream().map(userId -> new Object[]{userId}).toList();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_MISSING_STATE, rows);
+        } catch (DuplicateKeyException e) {
+            log.debug("Achievement states of users {} were created concurrently", userIds);
+            jdbcTemplate.batchUpdate(INSERT_MISSING_STATE, rows);
+        }
+    }
+
+    private void notifyUnlocked(Long userId, Set<Achievement> achievements) {
+        if (achievements.isEmpty()) {
+            return;
+        }
+        User user = userProvider.getUserById(userId).orElseThrow(() -> new UserNotFoundException(userId));
+        String names = achievements.stream()
+                .map(achievement -> "- " + achievement.getDisplayName() + "\n")
+                .collect(Collectors.joining());
+        notificationService.enqueue(new EmailDto(user.getEmail(), "Achievement unlocked",
+                "Hi %s,\n\nyou unlocked:\n%s\nCongratulations!\n".formatted(user.getFirstName(), names)));
+    }
+
+}
@@ -0,0 +1,107 @@
+package pl.wsb.fitnesstracker.achievement.internal;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+import pl.wsb.fitnesstracker.achievement.api.Achievement;
+import pl.wsb.fitnesstracker.achievement.api.AchievementSummary;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Running state of the achievement rules for a single user, of constant size regardless of the number of trainings.
+ */
+@Entity
+@Table(name = "achievement_state")
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+class AchievementState {
+
+    private static final long[] NO_RUNS = new long[0];
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "cycling_distance", nullable = false)
+    private double cyclingDistance;
+
+    /**
+     * End times of the latest runs in epoch seconds, ascending.
+     */
+    @Column(name = "recent_runs", nullable = false)
+    private long[] recentRuns = NO_RUNS;
+
+    /**
+     * Epoch day of the latest training day, {@code null} before the first training.
+     */
+    @Nullable
+    @Column(name = "last_training_day")
+    private Long lastTrainingDay;
+
+    @Column(name = "current_streak", nullable = false)
+    private int currentStreak;
+
+    @Column(name = "longest_streak", nullable = false)
+    private int longestStreak;
+
+    /**
+     * Bit set of the unlocked achievements, indexed by their ordinals.
+     */
+    @Column(name = "unlocked", nullable = false)
+    private int unlocked;
+
+    AchievementState(Long userId) {
+        this.userId = userId;
+    }
+
+    boolean isUnlocked(Achievement achievement) {
+        return (unlocked & bit(achievement)) != 0;
+    }
+
+    /**
+     * Unlocks the achievement.
+     *
+     * @return whether the achievement was newly unlocked
+     */
+    boolean unlock(Achievement achievement) {
+        if (isUnlocked(achievement)) {
+            return false;
+        }
+        unlocked |= bit(achievement);
+        return true;
+    }
+
+    /**
+     * Resets the state to the state before the first training.
+     */
+    void reset() {
+        cyclingDistance = 0;
+        recentRuns = NO_RUNS;
+        lastTrainingDay = null;
+        currentStreak = 0;
+        longestStreak = 0;
+        unlocked = 0;
+    }
+
+    AchievementSummary toSummary() {
+        Set<Achievement> achievements = EnumSet.noneOf(Achievement.class);
+        for (Achievement achievement : Achievement.values()) {
+            if (isUnlocked(achievement)) {
+                achievements.add(achievement);
+            }
+        }
+        return new AchievementSummary(userId, achievements, cyclingDistance, currentStreak, longestStreak);
+    }
+
+    private static int bit(Achievement achievement) {
+        return 1 << achievement.ordinal();
+    }
+
+}
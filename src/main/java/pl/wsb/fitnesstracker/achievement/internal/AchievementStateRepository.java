@@ -0,0 +1,41 @@
+package pl.wsb.fitnesstracker.achievement.internal;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import pl.wsb.fitnesstracker.training.api.TrainingSampleDto;
+
+import java.util.Collection;
+import java.util.List;
+
+interface AchievementStateRepository extends JpaRepository<AchievementState, Long> {
+
+    /**
+     * Finds and locks the states of the given users, so that concurrent trainings of a user are evaluated one
+     * after another.
+     *
+     * @param userIds the IDs of the users
+     * @return the existing states of the users
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from AchievementState s where s.userId in :userIds")
+    List<AchievementState> findForUpdateByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Finds all trainings of a user as compact samples, in the order they ended.
+     *
+     * @param userId the ID of the user
+     * @return trainings of the user ordered by end time and ID
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.training.api.TrainingSampleDto(
+                t.id, t.startTime, t.endTime, t.activityType, t.distance, t.averageSpeed)
+            from Training t
+            where t.user.id = :userId
+            order by t.endTime, t.id
+            """)
+    List<TrainingSampleDto> findTrainingsByUserId(@Param("userId") Long userId);
+
+}
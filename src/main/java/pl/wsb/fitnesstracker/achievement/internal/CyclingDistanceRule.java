@@ -0,0 +1,34 @@
+package pl.wsb.fitnesstracker.achievement.internal;
+
+import pl.wsb.fitnesstracker.achievement.api.Achievement;
+import pl.wsb.fitnesstracker.achievement.api.TrainingEvent;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+/**
+ * Unlocked by the first 100 km of cycling in total.
+ */
+class CyclingDistanceRule implements AchievementRule {
+
+    static final double DISTANCE = 100.0;
+
+    @Override
+    public Achievement achievement() {
+        return Achievement.FIRST_100_KM_CYCLING;
+    }
+
+    @Override
+    public boolean apply(AchievementState state, TrainingEvent training) {
+        if (training.activityType() == ActivityType.CYCLING) {
+            state.setCyclingDistance(state.getCyclingDistance() + training.distance());
+        }
+        return state.getCyclingDistance() >= DISTANCE;
+    }
+
+    @Override
+    public void revert(AchievementState state, TrainingEvent training) {
+        if (training.activityType() == ActivityType.CYCLING) {
+            state.setCyclingDistance(state.getCyclingDistance() - training.distance());
+        }
+    }
+
+}
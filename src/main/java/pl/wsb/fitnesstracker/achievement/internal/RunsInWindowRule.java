@@ -0,0 +1,70 @@
+package pl.wsb.fitnesstracker.achievement.internal;
+
+import pl.wsb.fitnesstracker.achievement.api.Achievement;
+import pl.wsb.fitnesstracker.achievement.api.TrainingEvent;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Unlocked by 5 runs that ended within 7 days.
+ * <p>
+ * The state keeps the end times of the 4 latest runs; a new run completes the window when the oldest of the 5 runs
+ * ended at most 7 days before the latest. A run recorded after later runs may miss a window that only a rebuild,
+ * which replays the runs in order, finds.
+ */
+class RunsInWindowRule implements AchievementRule {
+
+    static final int RUNS = 5;
+
+    static final long WINDOW_SECONDS = Duration.ofDays(7).toSeconds();
+
+    @Override
+    public Achievement achievement() {
+        return Achievement.FIVE_RUNS_IN_7_DAYS;
+    }
+
+    @Override
+    public boolean apply(AchievementState state, TrainingEvent training) {
+        if (training.activityType() != ActivityType.RUNNING) {
+            return false;
+        }
+        long[] runs = insertSorted(state.getRecentRuns(), training.endTime().getEpochSecond());
+        boolean reached = runs.length == RUNS && runs[RUNS - 1] - runs[0] <= WINDOW_SECONDS;
+        // only the runs that may still be part of a future window are kept
+        state.setRecentRuns(runs.length < RUNS ? runs : Arrays.copyOfRange(runs, 1, RUNS));
+        return reached;
+    }
+
+    @Override
+    public void revert(AchievementState state, TrainingEvent training) {
+        if (training.activityType() != ActivityType.RUNNING) {
+            return;
+        }
+        long[] runs = state.getRecentRuns();
+        long endTime = training.endTime().getEpochSecond();
+        for (int i = 0; i < runs.length; i++) {
+            if (runs[i] == endTime) {
+                long[] remaining = new long[runs.length - 1];
+                System.arraycopy(runs, 0, remaining, 0, i);
+                System.arraycopy(runs, i + 1, remaining, i, runs.length - i - 1);
+                state.setRecentRuns(remaining);
+                return;
+            }
+        }
+    }
+
+    private static long[] insertSorted(long[] runs, long endTime) {
+        long[] result = new long[runs.length + 1];
+        int i = 0;
+        while (i < runs.length && runs[i] <= endTime) {
+            result[i] = runs[i];
+            i++;
+        }
+        result[i] = endTime;
+        System.arraycopy(runs, i, result, i + 1, runs.length - i);
+        return result;
+    }
+
+}
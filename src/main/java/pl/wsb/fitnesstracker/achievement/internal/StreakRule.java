@@ -0,0 +1,45 @@
+package pl.wsb.fitnesstracker.achievement.internal;
+
+import pl.wsb.fitnesstracker.achievement.api.Achievement;
+import pl.wsb.fitnesstracker.achievement.api.TrainingEvent;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Tracks the current and the longest streak of consecutive days with a training; unlocked by a streak of 7 days.
+ * <p>
+ * Days are counted in the system time zone, by the end of the training. A training that ended before the latest
+ * training day does not change the streaks until the state is rebuilt.
+ */
+class StreakRule implements AchievementRule {
+
+    static final int DAYS = 7;
+
+    private final ZoneId zone;
+
+    StreakRule(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    @Override
+    public Achievement achievement() {
+        return Achievement.WEEK_STREAK;
+    }
+
+    @Override
+    public boolean apply(AchievementState state, TrainingEvent training) {
+        long day = LocalDate.ofInstant(training.endTime(), zone).toEpochDay();
+        Long lastDay = state.getLastTrainingDay();
+        if (lastDay == null || day > lastDay + 1) {
+            state.setCurrentStreak(1);
+            state.setLastTrainingDay(day);
+        } else if (day == lastDay + 1) {
+            state.setCurrentStreak(state.getCurrentStreak() + 1);
+            state.setLastTrainingDay(day);
+        }
+        state.setLongestStreak(Math.max(state.getLongestStreak(), state.getCurrentStreak()));
+        return state.getLongestStreak() >= DAYS;
+    }
+
+}
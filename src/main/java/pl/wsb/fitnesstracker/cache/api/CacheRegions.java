@@ -0,0 +1,22 @@
+package pl.wsb.fitnesstracker.cache.api;
+
+/**
+ * Names of the Hibernate second-level cache regions of the cached entities.
+ * Every region is created with its own size limit, an entity mapped to an unknown region fails the startup.
+ */
+public final class CacheRegions {
+
+    /**
+     * Region of the {@link pl.wsb.fitnesstracker.user.api.User} entities.
+     */
+    public static final String USERS = "users";
+
+    /**
+     * Region of the {@link pl.wsb.fitnesstracker.training.api.Training} entities.
+     */
+    public static final String TRAININGS = "trainings";
+
+    private CacheRegions() {
+    }
+
+}
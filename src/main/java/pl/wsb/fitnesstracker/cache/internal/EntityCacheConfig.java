@@ -0,0 +1,83 @@
+package pl.wsb.fitnesstracker.cache.internal;
+
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import pl.wsb.fitnesstracker.cache.api.CacheRegions;
+
+import javax.cache.CacheManager;
+import java.time.Duration;
+
+/**
+ * Enables the Hibernate second-level cache of the entities mapped to the {@link CacheRegions} and the query cache,
+ * both backed by an in-process Ehcache manager owned by the application context.
+ * <p>
+ * Every region is created up front with the size limit from {@link EntityCacheProperties}. The update timestamps
+ * region, which tells whether a cached query result is still current, never evicts its entries, as an evicted
+ * timestamp would let stale query results through. The region statistics are published by the {@code hibernate.*}
+ * meters.
+ */
+@Configuration
+@EnableConfigurationProperties(EntityCacheProperties.class)
+class EntityCacheConfig {
+
+    /**
+     * Upper bound of the update timestamps region, which holds a single entry per table.
+     */
+    private static final long MAX_TABLES = 1000;
+
+    @Bean(destroyMethod = "close")
+    EhcacheCachingProvider entityCachingProvider() {
+        // a provider of its own, so that the manager is not shared with other contexts of the same class loader
+        return new EhcacheCachingProvider();
+    }
+
+    @Bean(destroyMethod = "close")
+    CacheManager entityCacheManager(EhcacheCachingProvider entityCachingProvider, EntityCacheProperties properties) {
+        CacheManager cacheManager = entityCachingProvider.getCacheManager(
+                entityCachingProvider.getDefaultURI(), getClass().getClassLoader());
+        Duration timeToLive = properties.getTimeToLive();
+        createRegion(cacheManager, CacheRegions.USERS, regionConfiguration(properties.getUsersMaxEntries(), timeToLive));
+        createRegion(cacheManager, CacheRegions.TRAININGS, regionConfiguration(properties.getTrainingsMaxEntries(), timeToLive));
+        createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                regionConfiguration(properties.getQueriesMaxEntries(), timeToLive));
+        createRegion(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(MAX_TABLES))
+                        .withExpiry(ExpiryPolicyBuilder.noExpiration())
+                        .build());
+        return cacheManager;
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, MissingCacheStrategy.FAIL.getExternalRepresentation());
+        };
+    }
+
+    private static CacheConfiguration<Object, Object> regionConfiguration(long maxEntries, Duration timeToLive) {
+        return CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(maxEntries))
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive))
+                .build();
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, CacheConfiguration<Object, Object> configuration) {
+        cacheManager.createCache(name, Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+    }
+
+}
@@ -0,0 +1,46 @@
+package pl.wsb.fitnesstracker.cache.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the Hibernate second-level and query cache regions.
+ */
+@ConfigurationProperties(prefix = "entity-cache")
+@Getter
+class EntityCacheProperties {
+
+    /**
+     * Maximal number of users held by the {@value pl.wsb.fitnesstracker.cache.api.CacheRegions#USERS} region.
+     */
+    private final long usersMaxEntries;
+
+    /**
+     * Maximal number of trainings held by the {@value pl.wsb.fitnesstracker.cache.api.CacheRegions#TRAININGS} region.
+     */
+    private final long trainingsMaxEntries;
+
+    /**
+     * Maximal number of query results held by the query cache region.
+     */
+    private final long queriesMaxEntries;
+
+    /**
+     * Time after which a cached entity or query result is read from the database again.
+     */
+    private final Duration timeToLive;
+
+    EntityCacheProperties(@DefaultValue("10000") long usersMaxEntries,
+                          @DefaultValue("100000") long trainingsMaxEntries,
+                          @DefaultValue("1000") long queriesMaxEntries,
+                          @DefaultValue("10m") Duration timeToLive) {
+        this.usersMaxEntries = usersMaxEntries;
+        this.trainingsMaxEntries = trainingsMaxEntries;
+        this.queriesMaxEntries = queriesMaxEntries;
+        this.timeToLive = timeToLive;
+    }
+
+}
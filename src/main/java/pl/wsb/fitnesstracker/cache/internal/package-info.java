@@ -0,0 +1,4 @@
+@NonNullByDefault
+package pl.wsb.fitnesstracker.cache.internal;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
\ No newline at end of file
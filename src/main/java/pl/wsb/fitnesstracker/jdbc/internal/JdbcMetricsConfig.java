@@ -0,0 +1,42 @@
+package pl.wsb.fitnesstracker.jdbc.internal;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Counts the statements executed against the database as the {@code jdbc.statements} meter.
+ * <p>
+ * The {@code hibernate.*} meters only see the statements run by Hibernate; the statements that the statistics,
+ * achievements and notification outbox run over JDBC are counted here as well.
+ */
+@Configuration
+class JdbcMetricsConfig {
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)
+                        ? new StatementCountingDataSource(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder jdbcStatementMetrics(DataSource dataSource) throws SQLException {
+        StatementCountingDataSource countingDataSource = dataSource.unwrap(StatementCountingDataSource.class);
+        return meterRegistry -> FunctionCounter.builder("jdbc.statements", countingDataSource,
+                        StatementCountingDataSource::executedStatements)
+                .description("Statements executed against the database, a batch counted once")
+                .register(meterRegistry);
+    }
+
+}
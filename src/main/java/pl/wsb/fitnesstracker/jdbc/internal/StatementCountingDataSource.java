@@ -0,0 +1,79 @@
+package pl.wsb.fitnesstracker.jdbc.internal;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Data source counting the statements executed over its connections, whoever executes them: Hibernate, a
+ * {@link org.springframework.jdbc.core.JdbcTemplate} or Flyway. A batch is counted once, as it is sent in a single
+ * round trip.
+ */
+class StatementCountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTIONS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final LongAdder executedStatements = new LongAdder();
+
+    StatementCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    long executedStatements() {
+        return executedStatements.sum();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counting(super.getConnection(username, password));
+    }
+
+    private Connection counting(Connection connection) {
+        return proxy(Connection.class, connection, (method, result) ->
+                result instanceof Statement statement ? proxy(method.getReturnType(), statement, this::count) : result);
+    }
+
+    private Object count(Method method, Object result) {
+        if (EXECUTIONS.contains(method.getName())) {
+            executedStatements.increment();
+        }
+        return result;
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, ResultHandler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            try {
+                return handler.handle(method, method.invoke(target, args));
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler));
+    }
+
+    /**
+     * Handles the result of a method invoked on the proxied JDBC object.
+     */
+    @FunctionalInterface
+    private interface ResultHandler {
+
+        Object handle(Method method, Object result);
+
+    }
+
+}
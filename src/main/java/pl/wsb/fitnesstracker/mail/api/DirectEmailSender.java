@@ -0,0 +1,17 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+/**
+ * API interface for component sending emails synchronously, for the callers that must keep an email until the SMTP
+ * server accepted it, e.g. to send it again after a restart.
+ */
+public interface DirectEmailSender {
+
+    /**
+     * Sends the email message to the recipient and returns once the SMTP server accepted it.
+     *
+     * @param email information on email to be sent
+     * @throws org.springframework.mail.MailException if the email could not be sent
+     */
+    void sendNow(EmailDto email);
+
+}
@@ -0,0 +1,31 @@
+package pl.wsb.fitnesstracker.mail.api;
+
+import java.time.Duration;
+
+/**
+ * Exponential backoff between the attempts to send an email.
+ */
+public final class RetryBackoff {
+
+    private RetryBackoff() {
+    }
+
+    /**
+     * Delay after the given failed attempt: the initial backoff doubled for every earlier attempt, up to the maximal
+     * backoff.
+     *
+     * @param attempt the number of the failed attempt, starting at 1
+     * @param initial delay after the first failed attempt
+     * @param max     upper bound of the delay
+     * @return the delay before the next attempt, with millisecond precision
+     */
+    public static Duration backoff(int attempt, Duration initial, Duration max) {
+        long initialMillis = initial.toMillis();
+        long maxMillis = max.toMillis();
+        // doubled only while the result fits into a long
+        return Duration.ofMillis(attempt - 1 < Long.numberOfLeadingZeros(initialMillis) - 1
+                ? Math.min(initialMillis << (attempt - 1), maxMillis)
+                : maxMillis);
+    }
+
+}
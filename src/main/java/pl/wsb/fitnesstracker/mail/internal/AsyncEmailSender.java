@@ -0,0 +1,191 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+import pl.wsb.fitnesstracker.mail.api.RetryBackoff;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * {@link EmailSender} that queues the emails and sends them in the background, so that the callers never wait
+ * for the SMTP server.
+ * <p>
+ * The queue is bounded: when it is full, {@link #send(EmailDto)} waits for a free place up to the configured timeout
+ * and then rejects the email, which slows down a producer that is faster than the SMTP server. The queued emails are
+ * sent by a fixed number of threads, each taking the emails in batches and sending them over its own reused
+ * {@link SmtpConnection}. A failed email is retried with exponential backoff over a new connection. The threads are
+ * started with the application context and stopped before it closes, after sending the already queued emails.
+ * <p>
+ * Published metrics: {@code mail.queue.size} (emails waiting to be sent), {@code mail.send} (latency of a sent
+ * email), {@code mail.send.retries}, {@code mail.send.failures} (emails dropped after the last attempt) and
+ * {@code mail.send.rejected} (emails not accepted by a full queue).
+ */
+@Component
+@Slf4j
+class AsyncEmailSender implements EmailSender, SmartLifecycle {
+
+    /**
+     * How often an idle sending thread checks for the shutdown and the idle timeout of its connection.
+     */
+    private static final long POLL_INTERVAL_MILLIS = 200;
+
+    private final JavaMailSenderImpl mailSender;
+    private final MailProperties mailProperties;
+    private final BlockingQueue<EmailDto> queue;
+    private ExecutorService workers;
+    private volatile boolean running;
+
+    private final Timer sendTimer;
+    private final Counter retries;
+    private final Counter failures;
+    private final Counter rejected;
+
+    AsyncEmailSender(JavaMailSenderImpl mailSender, MailProperties mailProperties, MeterRegistry meterRegistry) {
+        this.mailSender = mailSender;
+        this.mailProperties = mailProperties;
+        this.queue = new ArrayBlockingQueue<>(mailProperties.getQueueCapacity());
+        Gauge.builder("mail.queue.size", queue, BlockingQueue::size)
+                .description("Emails waiting to be sent")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("mail.send").description("Latency of a sent email").register(meterRegistry);
+        this.retries = Counter.builder("mail.send.retries").description("Retried email sends").register(meterRegistry);
+        this.failures = Counter.builder("mail.send.failures").description("Emails dropped after the last attempt").register(meterRegistry);
+        this.rejected = Counter.builder("mail.send.rejected").description("Emails rejected by a full queue").register(meterRegistry);
+    }
+
+    /**
+     * Starts the sending threads.
+     */
+    @Override
+    public void start() {
+        running = true;
+        workers = Executors.newFixedThreadPool(mailProperties.getConnections(), new CustomizableThreadFactory("mail-sender-"));
+        for (int i = 0; i < mailProperties.getConnections(); i++) {
+            workers.execute(this::sendQueued);
+        }
+    }
+
+    /**
+     * Queues the email to be sent in the background.
+     *
+     * @param email information on email to be sent
+     * @throws MailSendException if the queue stayed full for the whole enqueue timeout
+     */
+    @Override
+    public void send(EmailDto email) {
+        try {
+            if (!queue.offer(email, mailProperties.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                rejected.increment();
+                throw new MailSendException("Email queue is full, rejected email to " + email.toAddress());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException("Interrupted while queueing email to " + email.toAddress(), e);
+        }
+    }
+
+    /**
+     * Lets the sending threads send the already queued emails and stops them, waiting at most 30 seconds.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Shutting down with {} unsent emails", queue.size());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Loop of a single sending thread, which takes the queued emails in batches and sends them over its connection.
+     * The connection is closed when there was nothing to send for the idle timeout.
+     */
+    private void sendQueued() {
+        List<EmailDto> batch = new ArrayList<>(mailProperties.getBatchSize());
+        long idleTimeout = mailProperties.getIdleTimeout().toNanos();
+        try (SmtpConnection connection = new SmtpConnection(mailSender)) {
+            long idleSince = System.nanoTime();
+            while (running || !queue.isEmpty()) {
+                EmailDto first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (System.nanoTime() - idleSince > idleTimeout) {
+                        connection.close();
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, mailProperties.getBatchSize() - 1);
+                for (EmailDto email : batch) {
+                    try {
+                        sendWithRetries(connection, email);
+                    } catch (RuntimeException e) {
+                        // an unexpected failure drops the email, never the sending thread
+                        failures.increment();
+                        connection.close();
+                        log.error("Dropping email to {} after an unexpected failure", email.toAddress(), e);
+                    }
+                }
+                batch.clear();
+                idleSince = System.nanoTime();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sendWithRetries(SmtpConnection connection, EmailDto email) throws InterruptedException {
+        MimeMessage message;
+        try {
+            message = SmtpConnection.toMimeMessage(mailSender, mailProperties.getFrom(), email);
+        } catch (MessagingException e) {
+            failures.increment();
+            log.error("Dropping malformed email to {}", email.toAddress(), e);
+            return;
+        }
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                connection.send(message);
+                sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return;
+            } catch (MessagingException e) {
+                if (attempt >= mailProperties.getMaxAttempts()) {
+                    failures.increment();
+                    log.error("Dropping email to {} after {} attempts", email.toAddress(), attempt, e);
+                    return;
+                }
+                retries.increment();
+                long backoff = RetryBackoff.backoff(attempt, mailProperties.getInitialBackoff(),
+                        mailProperties.getMaxBackoff()).toMillis();
+                log.warn("Sending email to {} failed, retrying in {} ms: {}", email.toAddress(), backoff, e.getMessage());
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+}
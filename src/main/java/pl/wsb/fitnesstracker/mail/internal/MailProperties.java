@@ -1,17 +1,18 @@
 package pl.wsb.fitnesstracker.mail.internal;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.mail.javamail.JavaMailSender;
 import pl.wsb.fitnesstracker.mail.api.EmailSender;
 
+import java.time.Duration;
+
 /**
  * Configuration of the {@link EmailSender} (additional to the Spring mail configuration for {@link JavaMailSender} bean autoconfiguration).
  */
 @ConfigurationProperties(prefix = "mail")
 @Getter
-@RequiredArgsConstructor
 class MailProperties {
 
     /**
@@ -19,4 +20,64 @@ class MailProperties {
      */
     private final String from;
 
+    /**
+     * Maximal number of emails waiting to be sent.
+     */
+    private final int queueCapacity;
+
+    /**
+     * How long a sender waits for a free place in a full queue before the email is rejected.
+     */
+    private final Duration enqueueTimeout;
+
+    /**
+     * Number of SMTP connections, each used by its own sending thread.
+     */
+    private final int connections;
+
+    /**
+     * Maximal number of queued emails a sending thread takes and sends over its connection at once.
+     */
+    private final int batchSize;
+
+    /**
+     * Maximal number of attempts to send a single email.
+     */
+    private final int maxAttempts;
+
+    /**
+     * Delay before the first retry of a failed email; doubled with every following retry.
+     */
+    private final Duration initialBackoff;
+
+    /**
+     * Maximal delay before a retry of a failed email.
+     */
+    private final Duration maxBackoff;
+
+    /**
+     * How long an SMTP connection is kept open without any email to send.
+     */
+    private final Duration idleTimeout;
+
+    MailProperties(String from,
+                   @DefaultValue("10000") int queueCapacity,
+                   @DefaultValue("5s") Duration enqueueTimeout,
+                   @DefaultValue("4") int connections,
+                   @DefaultValue("50") int batchSize,
+                   @DefaultValue("5") int maxAttempts,
+                   @DefaultValue("500ms") Duration initialBackoff,
+                   @DefaultValue("1m") Duration maxBackoff,
+                   @DefaultValue("30s") Duration idleTimeout) {
+        this.from = from;
+        this.queueCapacity = queueCapacity;
+        this.enqueueTimeout = enqueueTimeout;
+        this.connections = connections;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.idleTimeout = idleTimeout;
+    }
+
 }
@@ -0,0 +1,100 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import jakarta.annotation.Nullable;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A single SMTP connection, opened on the first message and then reused for the following ones.
+ * Not thread safe; every sending thread owns its connection.
+ */
+@RequiredArgsConstructor
+@Slf4j
+class SmtpConnection implements AutoCloseable {
+
+    private final JavaMailSenderImpl mailSender;
+
+    @Nullable
+    private Transport transport;
+
+    /**
+     * Sends the message over the connection, connecting first if the connection is not open.
+     * A failed connection is closed, so that the next message opens a new one.
+     *
+     * @param message the message to send
+     * @throws MessagingException if the message could not be sent
+     */
+    void send(MimeMessage message) throws MessagingException {
+        try {
+            if (transport == null) {
+                transport = connect();
+            }
+            transport.sendMessage(message, message.getAllRecipients());
+        } catch (MessagingException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Tells whether the connection is open, i.e. the next message is sent over a connection used before.
+     *
+     * @return {@code true} if the connection is open
+     */
+    boolean isOpen() {
+        return transport != null;
+    }
+
+    /**
+     * Renders the email as a MIME message ready to be sent.
+     *
+     * @param mailSender the sender providing the mail session
+     * @param from       the sender address
+     * @param email      the email to render
+     * @return the message
+     * @throws MessagingException if the email could not be rendered, e.g. because of a malformed address
+     */
+    static MimeMessage toMimeMessage(JavaMailSenderImpl mailSender, String from, EmailDto email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, StandardCharsets.UTF_8.name());
+        helper.setFrom(from);
+        helper.setTo(email.toAddress());
+        helper.setSubject(email.subject());
+        helper.setText(email.content());
+        message.saveChanges();
+        return message;
+    }
+
+    /**
+     * Closes the connection if it is open.
+     */
+    @Override
+    public void close() {
+        if (transport == null) {
+            return;
+        }
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Failed to close SMTP connection", e);
+        } finally {
+            transport = null;
+        }
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport connected = mailSender.getSession().getTransport(mailSender.getProtocol());
+        connected.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        log.debug("Opened SMTP connection to {}:{}", mailSender.getHost(), mailSender.getPort());
+        return connected;
+    }
+
+}
@@ -0,0 +1,65 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.mail.api.DirectEmailSender;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+
+/**
+ * {@link DirectEmailSender} sending the emails in the calling thread over a single reused {@link SmtpConnection}.
+ * <p>
+ * The callers are serialized on the connection. The connection is closed before a send when it was idle for longer
+ * than the idle timeout, and an email that failed over the reused connection is sent once more over a new one, as the
+ * SMTP server may have dropped the connection meanwhile. Otherwise a failed email is not retried; the caller keeps it
+ * and decides when to send it again.
+ */
+@Component
+@Slf4j
+class SmtpEmailSender implements DirectEmailSender {
+
+    private final JavaMailSenderImpl mailSender;
+    private final MailProperties mailProperties;
+    private final SmtpConnection connection;
+    private long lastUsed = System.nanoTime();
+
+    SmtpEmailSender(JavaMailSenderImpl mailSender, MailProperties mailProperties) {
+        this.mailSender = mailSender;
+        this.mailProperties = mailProperties;
+        this.connection = new SmtpConnection(mailSender);
+    }
+
+    @Override
+    public synchronized void sendNow(EmailDto email) {
+        if (System.nanoTime() - lastUsed > mailProperties.getIdleTimeout().toNanos()) {
+            connection.close();
+        }
+        try {
+            MimeMessage message = SmtpConnection.toMimeMessage(mailSender, mailProperties.getFrom(), email);
+            boolean reused = connection.isOpen();
+            try {
+                connection.send(message);
+            } catch (MessagingException e) {
+                if (!reused) {
+                    throw e;
+                }
+                log.debug("Sending over the reused SMTP connection failed, sending over a new one: {}", e.getMessage());
+                connection.send(message);
+            }
+        } catch (MessagingException e) {
+            throw new MailSendException("Failed to send email to " + email.toAddress(), e);
+        } finally {
+            lastUsed = System.nanoTime();
+        }
+    }
+
+    @PreDestroy
+    synchronized void close() {
+        connection.close();
+    }
+
+}
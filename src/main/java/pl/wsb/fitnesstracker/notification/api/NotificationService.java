@@ -0,0 +1,20 @@
+package pl.wsb.fitnesstracker.notification.api;
+
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+
+/**
+ * Schedules notifications caused by changes of the application data.
+ * A notification is stored in the transaction of the change that caused it and sent in the background after the
+ * transaction commits, so it is sent exactly when the change is committed and sending does not delay the change.
+ */
+public interface NotificationService {
+
+    /**
+     * Stores the email to be sent once the current transaction commits.
+     *
+     * @param email the email to send
+     * @throws org.springframework.transaction.IllegalTransactionStateException if there is no current transaction
+     */
+    void enqueue(EmailDto email);
+
+}
@@ -0,0 +1,50 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.training.api.TrainingSummaryDto;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Monthly training summary of a single user.
+ *
+ * @param user      the user the report is addressed to
+ * @param month     the reported month
+ * @param summaries the user's trainings in the month, aggregated per activity type
+ */
+record MonthlyReport(User user, YearMonth month, List<TrainingSummaryDto> summaries) {
+
+    /**
+     * Renders the report as a plain text email.
+     *
+     * @return email addressed to the user
+     */
+    EmailDto toEmail() {
+        String monthName = month.getMonth().getDisplayName(TextStyle.FULL, Locale.ENGLISH) + " " + month.getYear();
+        long trainings = summaries.stream().mapToLong(TrainingSummaryDto::trainings).sum();
+        double distance = summaries.stream().mapToDouble(TrainingSummaryDto::distance).sum();
+
+        StringBuilder content = new StringBuilder()
+                .append("Hi ").append(user.getFirstName()).append(",\n\n")
+                .append("in ").append(monthName).append(" you completed ").append(trainings).append(" trainings")
+                .append(" and covered ").append(formatDistance(distance)).append(":\n");
+        summaries.stream()
+                .sorted(Comparator.comparing(TrainingSummaryDto::activityType))
+                .forEach(summary -> content.append("- ").append(summary.activityType().getDisplayName()).append(": ")
+                        .append(summary.trainings()).append(" trainings, ")
+                        .append(formatDistance(summary.distance())).append('\n'));
+        content.append("\nKeep it up!\n");
+
+        return new EmailDto(user.getEmail(), "Your training summary for " + monthName, content.toString());
+    }
+
+    private static String formatDistance(double distance) {
+        return String.format(Locale.ROOT, "%.2f km", distance);
+    }
+
+}
@@ -0,0 +1,192 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.notification.api.NotificationService;
+import pl.wsb.fitnesstracker.training.api.TrainingProvider;
+import pl.wsb.fitnesstracker.training.api.TrainingSummaryDto;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Sends every user with trainings in a month the summary of those trainings.
+ * <p>
+ * The reports are stored by the {@link NotificationService}, each chunk in a transaction of its own, and sent from
+ * the outbox like the other notifications, so a stored report is delivered even if the application stops.
+ * <p>
+ * The users are read in chunks of consecutive IDs and the trainings of a whole chunk are aggregated with one grouped
+ * query, so neither the users nor their trainings are ever loaded all at once. Chunks are processed in parallel on a
+ * bounded number of threads. After each chunk the run records the last user up to which all chunks were completed;
+ * a run that was interrupted resumes after that user. Chunks completed past the checkpoint are processed again on
+ * resume, so a user may receive the report of an interrupted run twice, but never miss it.
+ * <p>
+ * A run claims its month before reporting any user, so that of the application instances scheduled for the same
+ * month only one reports it. The claim is leased and renewed by every checkpoint; a run that stopped without
+ * releasing its claim is resumed by another run once the lease ends.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class MonthlyReportJob {
+
+    private final UserProvider userProvider;
+    private final TrainingProvider trainingProvider;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final MonthlyReportRunRepository runRepository;
+    private final ReportProperties reportProperties;
+
+    /**
+     * Sends the reports of the previous month. Scheduled by the {@code reports.monthly-cron} property.
+     */
+    @Scheduled(cron = "${reports.monthly-cron:-}")
+    public void reportPreviousMonth() {
+        report(YearMonth.now().minusMonths(1));
+    }
+
+    /**
+     * Sends the reports of the given month, resuming the previous run of the month if it was interrupted.
+     * Does nothing if the reports of the month were already sent or are being sent by another run.
+     *
+     * @param month the month to report
+     * @throws IllegalStateException if reporting any of the chunks failed, or the run lost its claim to another run;
+     *                               the run can be resumed later
+     */
+    public void report(YearMonth month) {
+        String claim = UUID.randomUUID().toString();
+        Optional<MonthlyReportRun> claimed = claim(month, claim);
+        if (claimed.isEmpty()) {
+            return;
+        }
+        MonthlyReportRun run = claimed.get();
+        log.info("Sending reports of {} to users after ID {}", month, run.getLastUserId());
+        Instant from = month.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
+        Instant to = month.plusMonths(1).atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant();
+
+        int parallelism = reportProperties.getParallelism();
+        // the submitting thread processes a chunk itself when all workers are busy
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parallelism), new ThreadPoolExecutor.CallerRunsPolicy());
+        Deque<PendingChunk> pending = new ArrayDeque<>();
+        int sent = 0;
+        boolean completed = false;
+        try {
+            long after = run.getLastUserId();
+            List<User> users;
+            while (!(users = userProvider.getUsersAfter(after, reportProperties.getChunkSize())).isEmpty()) {
+                List<User> chunk = users;
+                after = chunk.get(chunk.size() - 1).getId();
+                pending.add(new PendingChunk(executor.submit(() -> reportChunk(chunk, month, from, to)), after));
+                sent += checkpoint(run, claim, pending, 2 * parallelism);
+            }
+            sent += checkpoint(run, claim, pending, 0);
+            if (runRepository.complete(run.getMonth(), claim) == 0) {
+                throw lostClaim(run.getMonth());
+            }
+            completed = true;
+            log.info("Queued {} reports of {}", sent, month);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reporting of %s was interrupted".formatted(month), e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Reporting of %s failed after user %d".formatted(month, run.getLastUserId()), e.getCause());
+        } finally {
+            executor.shutdownNow();
+            if (!completed) {
+                runRepository.release(run.getMonth(), claim);
+            }
+        }
+    }
+
+    /**
+     * Claims the run of the month, creating it on the first run of the month.
+     *
+     * @return the claimed run, or empty if the reports of the month were already sent or are being sent by another run
+     */
+    private Optional<MonthlyReportRun> claim(YearMonth month, String claim) {
+        String key = month.toString();
+        if (!runRepository.existsById(key)) {
+            try {
+                runRepository.saveAndFlush(new MonthlyReportRun(key));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Run of {} was created by another run", month);
+            }
+        }
+        Instant now = Instant.now();
+        if (runRepository.claim(key, claim, now, now.plus(reportProperties.getClaimLease())) == 0) {
+            boolean completed = runRepository.findById(key).map(MonthlyReportRun::isCompleted).orElse(false);
+            log.info(completed ? "Reports of {} were already sent" : "Reports of {} are being sent by another run", month);
+            return Optional.empty();
+        }
+        return runRepository.findById(key);
+    }
+
+    private static IllegalStateException lostClaim(String month) {
+        return new IllegalStateException("Reporting of %s was taken over by another run".formatted(month));
+    }
+
+    /**
+     * Takes the completed chunks from the head of the pending queue and records the last of them as the checkpoint.
+     * While more than {@code maxPending} chunks are pending, waits for the head, which bounds the number of chunks
+     * held in memory. Recording the checkpoint renews the lease of the claim.
+     *
+     * @return number of reports stored by the taken chunks
+     * @throws IllegalStateException if the run lost its claim to another run
+     */
+    private int checkpoint(MonthlyReportRun run, String claim, Deque<PendingChunk> pending, int maxPending)
+            throws InterruptedException, ExecutionException {
+        int sent = 0;
+        boolean advanced = false;
+        while (!pending.isEmpty() && (pending.peek().reports().isDone() || pending.size() > maxPending)) {
+            PendingChunk completed = pending.poll();
+            sent += completed.reports().get();
+            run.setLastUserId(completed.lastUserId());
+            advanced = true;
+        }
+        if (advanced && runRepository.checkpoint(run.getMonth(), claim, run.getLastUserId(),
+                Instant.now().plus(reportProperties.getClaimLease())) == 0) {
+            throw lostClaim(run.getMonth());
+        }
+        return sent;
+    }
+
+    private int reportChunk(List<User> users, YearMonth month, Instant from, Instant to) {
+        List<Long> userIds = users.stream().map(User::getId).toList();
+        Map<Long, List<TrainingSummaryDto>> summaries = trainingProvider.summarizeByUserIds(userIds, from, to)
+                .stream()
+                .collect(Collectors.groupingBy(TrainingSummaryDto::userId));
+        List<MonthlyReport> reports = users.stream()
+                .filter(user -> summaries.containsKey(user.getId()))
+                .map(user -> new MonthlyReport(user, month, summaries.get(user.getId())))
+                .toList();
+        transactionTemplate.executeWithoutResult(status ->
+                reports.forEach(report -> notificationService.enqueue(report.toEmail())));
+        return reports.size();
+    }
+
+    /**
+     * Chunk submitted for processing.
+     *
+     * @param reports    number of stored reports, once the chunk is completed
+     * @param lastUserId ID of the last user of the chunk
+     */
+    private record PendingChunk(Future<Integer> reports, long lastUserId) {
+    }
+
+}
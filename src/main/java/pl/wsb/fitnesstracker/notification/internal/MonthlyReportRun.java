@@ -0,0 +1,56 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Checkpoint of the monthly report run of a single month.
+ * All users up to {@link #lastUserId} (ordered by ID) have been processed, so an interrupted run resumes after them.
+ * A run reports the month only while it holds the {@link #claim} of the checkpoint.
+ */
+@Entity
+@Table(name = "monthly_report_runs")
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+class MonthlyReportRun {
+
+    /**
+     * The reported month in the ISO {@code yyyy-MM} format.
+     */
+    @Id
+    @Column(name = "report_month")
+    private String month;
+
+    @Column(name = "last_user_id", nullable = false)
+    private long lastUserId;
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+    /**
+     * Token of the run reporting the month, {@code null} when no run holds the month.
+     */
+    @Nullable
+    @Column(name = "claim")
+    private String claim;
+
+    /**
+     * End of the lease of the {@link #claim}; a claim that was not renewed until then is taken over by another run.
+     */
+    @Nullable
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
+    MonthlyReportRun(String month) {
+        this.month = month;
+    }
+
+}
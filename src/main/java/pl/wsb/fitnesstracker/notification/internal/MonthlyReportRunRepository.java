@@ -0,0 +1,86 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Repository of the {@link MonthlyReportRun} checkpoints. Every update of a claimed run applies only while the run
+ * holds the claim, and commits on its own, so that the progress survives a failure of the run.
+ */
+interface MonthlyReportRunRepository extends JpaRepository<MonthlyReportRun, String> {
+
+    /**
+     * Claims a run that is not completed and not held by a claim whose lease is still valid.
+     *
+     * @param month      the reported month in the ISO {@code yyyy-MM} format
+     * @param claim      the token of the claiming run
+     * @param now        the current time; claims whose lease ended earlier are taken over
+     * @param leaseUntil the end of the lease of the new claim
+     * @return {@code 1} if the run was claimed, {@code 0} if it is completed or held by another claim
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update MonthlyReportRun r set r.claim = :claim, r.leaseUntil = :leaseUntil
+            where r.month = :month and r.completed = false and (r.leaseUntil is null or r.leaseUntil < :now)
+            """)
+    int claim(@Param("month") String month,
+              @Param("claim") String claim,
+              @Param("now") Instant now,
+              @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Records the last user up to which the run was completed and renews the lease of its claim.
+     *
+     * @param month      the reported month in the ISO {@code yyyy-MM} format
+     * @param claim      the token of the run
+     * @param lastUserId the ID of the last reported user
+     * @param leaseUntil the end of the renewed lease
+     * @return {@code 1} if the checkpoint was recorded, {@code 0} if the run no longer holds the claim
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update MonthlyReportRun r set r.lastUserId = :lastUserId, r.leaseUntil = :leaseUntil
+            where r.month = :month and r.claim = :claim
+            """)
+    int checkpoint(@Param("month") String month,
+                   @Param("claim") String claim,
+                   @Param("lastUserId") long lastUserId,
+                   @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Marks a claimed run as completed and releases its claim.
+     *
+     * @param month the reported month in the ISO {@code yyyy-MM} format
+     * @param claim the token of the run
+     * @return {@code 1} if the run was completed, {@code 0} if it no longer holds the claim
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update MonthlyReportRun r set r.completed = true, r.claim = null, r.leaseUntil = null
+            where r.month = :month and r.claim = :claim
+            """)
+    int complete(@Param("month") String month, @Param("claim") String claim);
+
+    /**
+     * Releases the claim of an interrupted run, so that the run can be resumed right away.
+     *
+     * @param month the reported month in the ISO {@code yyyy-MM} format
+     * @param claim the token of the run
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update MonthlyReportRun r set r.claim = null, r.leaseUntil = null
+            where r.month = :month and r.claim = :claim
+            """)
+    void release(@Param("month") String month, @Param("claim") String claim);
+
+}
@@ -0,0 +1,36 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+
+/**
+ * Schedules the {@link OutboxDispatcher} with the bound {@code notifications.outbox.dispatch-interval}, so that the
+ * interval can be written in any format of the other duration properties.
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({ReportProperties.class, OutboxProperties.class})
+class NotificationConfig implements SchedulingConfigurer {
+
+    private final ObjectProvider<OutboxDispatcher> outboxDispatcher;
+    private final OutboxProperties outboxProperties;
+
+    NotificationConfig(ObjectProvider<OutboxDispatcher> outboxDispatcher, OutboxProperties outboxProperties) {
+        this.outboxDispatcher = outboxDispatcher;
+        this.outboxProperties = outboxProperties;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        Duration interval = outboxProperties.getDispatchInterval();
+        taskRegistrar.addFixedDelayTask(new FixedDelayTask(() -> outboxDispatcher.getObject().dispatch(), interval, interval));
+    }
+
+}
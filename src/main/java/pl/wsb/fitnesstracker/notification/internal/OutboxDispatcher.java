@@ -0,0 +1,73 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.MailException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.mail.api.DirectEmailSender;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends the messages waiting in the notification outbox.
+ * <p>
+ * Messages are claimed in batches, each in its own transaction, sent synchronously by the {@link DirectEmailSender}
+ * and removed from the outbox in that transaction once the SMTP server accepted them. A claimed batch stays locked
+ * until its transaction ends and other dispatchers skip it, so any number of application instances can drain the
+ * outbox concurrently. A message whose send failed stays in the outbox and is postponed, and the rest of its batch is
+ * released for the next dispatch. If the application stops after a message was accepted but before its transaction
+ * committed, the message is sent once more; no message is ever lost.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class OutboxDispatcher {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final DirectEmailSender directEmailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxProperties outboxProperties;
+
+    /**
+     * Sends all messages waiting in the outbox, batch by batch. Scheduled by the {@link NotificationConfig} with
+     * the {@code notifications.outbox.dispatch-interval} property.
+     *
+     * @return number of sent messages
+     */
+    public int dispatch() {
+        int batchSize = outboxProperties.getBatchSize();
+        int dispatched = 0;
+        int sent;
+        do {
+            sent = transactionTemplate.execute(status -> dispatchBatch(batchSize));
+            dispatched += sent;
+        } while (sent == batchSize);
+        if (dispatched > 0) {
+            log.debug("Dispatched {} notifications", dispatched);
+        }
+        return dispatched;
+    }
+
+    private int dispatchBatch(int batchSize) {
+        List<OutboxMessage> batch = outboxMessageRepository.claimBatch(Instant.now(), batchSize);
+        List<OutboxMessage> sent = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            try {
+                directEmailSender.sendNow(message.toEmail());
+                sent.add(message);
+            } catch (MailException e) {
+                message.postpone(Instant.now(), outboxProperties.getRetryInitialBackoff(), outboxProperties.getRetryMaxBackoff());
+                // the rest of the batch is released and claimed again by the next dispatch
+                log.warn("Sending of notification {} failed (attempt {}), it stays in the outbox until {}",
+                        message.getId(), message.getAttempts(), message.getNextAttemptAt(), e);
+                break;
+            }
+        }
+        outboxMessageRepository.deleteAllInBatch(sent);
+        return sent.size();
+    }
+
+}
@@ -0,0 +1,70 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import jakarta.persistence.*;
+import lombok.*;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.RetryBackoff;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Email waiting in the notification outbox to be sent. A message whose send failed is postponed, with the delay
+ * doubled after every failed attempt, and stays in the outbox until the SMTP server accepts it.
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(exclude = "content")
+class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_seq")
+    @SequenceGenerator(name = "notification_outbox_seq", sequenceName = "notification_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "recipient", nullable = false)
+    private String recipient;
+
+    @Column(name = "subject", nullable = false)
+    private String subject;
+
+    @Lob
+    @Column(name = "content", nullable = false)
+    private String content;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    OutboxMessage(EmailDto email, Instant createdAt) {
+        this.recipient = email.toAddress();
+        this.subject = email.subject();
+        this.content = email.content();
+        this.createdAt = createdAt;
+        this.nextAttemptAt = createdAt;
+    }
+
+    /**
+     * Records a failed attempt to send the message and postpones the next one.
+     *
+     * @param now            time of the failed attempt
+     * @param initialBackoff delay after the first failed attempt
+     * @param maxBackoff     upper bound of the delay
+     */
+    void postpone(Instant now, Duration initialBackoff, Duration maxBackoff) {
+        attempts++;
+        nextAttemptAt = now.plus(RetryBackoff.backoff(attempts, initialBackoff, maxBackoff));
+    }
+
+    EmailDto toEmail() {
+        return new EmailDto(recipient, subject, content);
+    }
+
+}
@@ -0,0 +1,35 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * Claims the oldest messages of the outbox that are due to be sent by locking them until the end of the current
+     * transaction.
+     * Messages locked by other transactions are skipped rather than waited for, so that concurrent dispatchers,
+     * e.g. of several application instances, claim disjoint batches.
+     * <p>
+     * A native query, because Hibernate does not render {@code skip locked} for H2. The outbox holds only the unsent
+     * messages, so the due ones are filtered by a scan in ID order; H2 does not skip the locked rows reliably when
+     * they are read through a secondary index.
+     *
+     * @param now   the current time; messages whose next attempt is later are not claimed
+     * @param limit maximal number of claimed messages
+     * @return claimed messages ordered by ID
+     */
+    @Query(value = """
+            select * from notification_outbox
+            where next_attempt_at <= :now
+            order by id
+            fetch first :limit rows only
+            for update skip locked
+            """, nativeQuery = true)
+    List<OutboxMessage> claimBatch(@Param("now") Instant now, @Param("limit") int limit);
+
+}
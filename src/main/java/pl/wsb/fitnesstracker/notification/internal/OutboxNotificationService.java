@@ -0,0 +1,27 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.notification.api.NotificationService;
+
+import java.time.Instant;
+
+/**
+ * Stores the notifications in the outbox table, from which the {@link OutboxDispatcher} sends them.
+ */
+@Service
+@RequiredArgsConstructor
+class OutboxNotificationService implements NotificationService {
+
+    private final OutboxMessageRepository outboxMessageRepository;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(EmailDto email) {
+        outboxMessageRepository.save(new OutboxMessage(email, Instant.now()));
+    }
+
+}
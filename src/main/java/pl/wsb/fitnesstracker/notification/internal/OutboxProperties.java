@@ -0,0 +1,47 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the notification outbox dispatcher.
+ */
+@ConfigurationProperties(prefix = "notifications.outbox")
+@Getter
+class OutboxProperties {
+
+    /**
+     * Delay between the end of a dispatch of all waiting messages and the start of the next one.
+     */
+    private final Duration dispatchInterval;
+
+    /**
+     * Maximal number of messages claimed and sent in a single transaction.
+     */
+    private final int batchSize;
+
+    /**
+     * Delay before the next attempt to send a message after its first failed attempt; doubled after every following
+     * failed attempt.
+     */
+    private final Duration retryInitialBackoff;
+
+    /**
+     * Maximal delay before the next attempt to send a message.
+     */
+    private final Duration retryMaxBackoff;
+
+    OutboxProperties(@DefaultValue("1s") Duration dispatchInterval,
+                     @DefaultValue("100") int batchSize,
+                     @DefaultValue("10s") Duration retryInitialBackoff,
+                     @DefaultValue("1h") Duration retryMaxBackoff) {
+        this.dispatchInterval = dispatchInterval;
+        this.batchSize = batchSize;
+        this.retryInitialBackoff = retryInitialBackoff;
+        this.retryMaxBackoff = retryMaxBackoff;
+    }
+
+}
@@ -0,0 +1,46 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the periodic training reports.
+ */
+@ConfigurationProperties(prefix = "reports")
+@Getter
+class ReportProperties {
+
+    /**
+     * Cron expression of the monthly report for the previous month, {@code -} to disable it.
+     */
+    private final String monthlyCron;
+
+    /**
+     * Number of users whose reports are prepared together, with one query for their trainings.
+     */
+    private final int chunkSize;
+
+    /**
+     * Number of chunks processed in parallel.
+     */
+    private final int parallelism;
+
+    /**
+     * How long a run holds its month without recording a checkpoint, before another run may take the month over.
+     */
+    private final Duration claimLease;
+
+    ReportProperties(@DefaultValue("-") String monthlyCron,
+                     @DefaultValue("500") int chunkSize,
+                     @DefaultValue("4") int parallelism,
+                     @DefaultValue("10m") Duration claimLease) {
+        this.monthlyCron = monthlyCron;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.claimLease = claimLease;
+    }
+
+}
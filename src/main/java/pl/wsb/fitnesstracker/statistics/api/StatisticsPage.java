@@ -0,0 +1,15 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import jakarta.annotation.Nullable;
+
+import java.util.List;
+/**
+ * A single page of statistics returned by the keyset (cursor) paginated calorie queries.
+ * Statistics are ordered by the burned calories, highest first, and by ID, so a page is always continued
+ * exactly where the previous one ended, no matter how deep the client has paged.
+ *
+ * @param content the statistics on this page
+ * @param next    opaque cursor of the following page; {@code null} if this is the last page
+ */
+public record StatisticsPage(List<Statistics> content, @Nullable String next) {
+}
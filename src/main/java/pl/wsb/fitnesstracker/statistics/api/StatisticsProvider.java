@@ -1,5 +1,8 @@
 package pl.wsb.fitnesstracker.statistics.api;
 
+import jakarta.annotation.Nullable;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface StatisticsProvider {
@@ -13,4 +16,33 @@ public interface StatisticsProvider {
      */
     Optional<Statistics> getStatistics(Long statisticsId);
 
+    /**
+     * Retrieves the statistics of a user. The statistics are maintained on every training write,
+     * so this is a single lookup by the unique user ID, independent of the number of the user's trainings.
+     * If the user has no trainings recorded, then {@link Optional#empty()} will be returned.
+     *
+     * @param userId id of the user whose statistics should be retrieved
+     * @return An {@link Optional} containing the user's Statistics, or {@link Optional#empty()} if not found
+     */
+    Optional<Statistics> getStatisticsByUserId(Long userId);
+
+    /**
+     * Retrieves a page of statistics with more burned calories than the threshold,
+     * ordered by the burned calories, highest first.
+     *
+     * @param calories the exclusive calorie threshold
+     * @param cursor   cursor of the page, taken from {@link StatisticsPage#next()}; {@code null} for the first page
+     * @param pageSize requested page size, or {@code null} for the configured default
+     * @return the requested {@link StatisticsPage}
+     */
+    StatisticsPage findByCaloriesAbove(int calories, @Nullable String cursor, @Nullable Integer pageSize);
+
+    /**
+     * Retrieves the statistics with the most burned calories.
+     *
+     * @param limit number of statistics to retrieve
+     * @return the statistics ordered by the burned calories, highest first
+     */
+    List<Statistics> findTopByCalories(int limit);
+
 }
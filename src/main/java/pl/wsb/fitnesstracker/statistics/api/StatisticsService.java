@@ -0,0 +1,28 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import java.util.List;
+
+/**
+ * Keeps the {@link Statistics} of the users up to date with their trainings.
+ * The statistics are changed incrementally, in the transaction of the training write that caused the change.
+ */
+public interface StatisticsService {
+
+    /**
+     * Adds newly created trainings to the statistics of their users.
+     *
+     * @param trainings the created trainings
+     */
+    void recordTrainings(List<TrainingContribution> trainings);
+
+    /**
+     * Replaces an updated training in the statistics of its user, by applying the difference between its
+     * previous and current values. A training moved to another user is removed from the statistics of the previous
+     * user and added to the statistics of the current one.
+     *
+     * @param previous the training before the update
+     * @param current  the training after the update
+     */
+    void replaceTraining(TrainingContribution previous, TrainingContribution current);
+
+}
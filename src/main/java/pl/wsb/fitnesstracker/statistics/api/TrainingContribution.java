@@ -0,0 +1,23 @@
+package pl.wsb.fitnesstracker.statistics.api;
+
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+/**
+ * The part of a single training that counts into the {@link Statistics} of its user.
+ *
+ * @param userId       the ID of the user who owns the training
+ * @param activityType the type of physical activity performed
+ * @param distance     the distance covered during the training
+ */
+public record TrainingContribution(Long userId, ActivityType activityType, double distance) {
+
+    /**
+     * Estimates the calories burned during the training.
+     *
+     * @return the estimated number of burned calories
+     */
+    public int caloriesBurned() {
+        return activityType.caloriesBurned(distance);
+    }
+
+}
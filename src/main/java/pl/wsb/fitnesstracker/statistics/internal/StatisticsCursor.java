@@ -0,0 +1,45 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.web.api.KeysetCursors;
+
+/**
+ * Position in the (totalCaloriesBurned desc, id) ordered statistics used by keyset pagination.
+ * Clients only ever see it in the encoded, opaque form.
+ *
+ * @param calories burned calories of the last statistics on the previous page
+ * @param id       ID of the last statistics on the previous page
+ */
+record StatisticsCursor(int calories, Long id) {
+
+    /**
+     * Creates the cursor pointing right after the given statistics.
+     *
+     * @param statistics the last statistics on a page
+     * @return cursor of the following page
+     */
+    static StatisticsCursor after(Statistics statistics) {
+        return new StatisticsCursor(statistics.getTotalCaloriesBurned(), statistics.getId());
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param cursor the opaque cursor received from the client
+     * @return the decoded cursor
+     * @throws BusinessException if the cursor is malformed
+     */
+    static StatisticsCursor decode(String cursor) {
+        return KeysetCursors.decode(cursor, (calories, id) -> new StatisticsCursor(Integer.parseInt(calories), id));
+    }
+
+    /**
+     * Encodes the cursor into an opaque, URL safe string.
+     *
+     * @return the encoded cursor
+     */
+    String encode() {
+        return KeysetCursors.encode(calories, id);
+    }
+}
@@ -0,0 +1,32 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import pl.wsb.fitnesstracker.statistics.api.TrainingContribution;
+
+/**
+ * Change of the {@link pl.wsb.fitnesstracker.statistics.api.Statistics} of a single user.
+ *
+ * @param trainings change of the number of trainings
+ * @param distance  change of the total distance
+ * @param calories  change of the total burned calories
+ */
+record StatisticsDelta(int trainings, double distance, int calories) {
+
+    static final StatisticsDelta ZERO = new StatisticsDelta(0, 0, 0);
+
+    static StatisticsDelta of(TrainingContribution training) {
+        return new StatisticsDelta(1, training.distance(), training.caloriesBurned());
+    }
+
+    StatisticsDelta plus(StatisticsDelta other) {
+        return new StatisticsDelta(trainings + other.trainings, distance + other.distance, calories + other.calories);
+    }
+
+    StatisticsDelta negate() {
+        return new StatisticsDelta(-trainings, -distance, -calories);
+    }
+
+    boolean isZero() {
+        return trainings == 0 && distance == 0 && calories == 0;
+    }
+
+}
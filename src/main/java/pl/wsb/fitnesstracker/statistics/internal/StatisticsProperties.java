@@ -0,0 +1,51 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuration of the statistics module.
+ */
+@ConfigurationProperties(prefix = "statistics")
+@Getter
+class StatisticsProperties {
+
+    /**
+     * Cron expression of the statistics reconciliation, {@code -} to disable the scheduled reconciliation.
+     */
+    private final String reconciliationCron;
+
+    /**
+     * Number of users whose statistics are rebuilt together, in one transaction.
+     */
+    private final int reconciliationChunkSize;
+
+    /**
+     * Number of chunks rebuilt in parallel.
+     */
+    private final int reconciliationParallelism;
+
+    /**
+     * Number of statistics returned on a single page when the client does not ask for a specific size.
+     */
+    private final int defaultPageSize;
+
+    /**
+     * Upper bound of the page size and of the top-N limit a client may request.
+     */
+    private final int maxPageSize;
+
+    StatisticsProperties(@DefaultValue("-") String reconciliationCron,
+                         @DefaultValue("1000") int reconciliationChunkSize,
+                         @DefaultValue("4") int reconciliationParallelism,
+                         @DefaultValue("50") int defaultPageSize,
+                         @DefaultValue("500") int maxPageSize) {
+        this.reconciliationCron = reconciliationCron;
+        this.reconciliationChunkSize = reconciliationChunkSize;
+        this.reconciliationParallelism = reconciliationParallelism;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+}
@@ -0,0 +1,109 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.statistics.api.TrainingContribution;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Rebuilds the statistics of all users from their trainings, e.g. after trainings were written around
+ * the {@link pl.wsb.fitnesstracker.statistics.api.StatisticsService}.
+ * <p>
+ * The users are processed in chunks of consecutive IDs, each chunk in its own transaction, and the chunks are rebuilt
+ * in parallel on a bounded number of threads. The statistics rows of a chunk are locked while it is rebuilt,
+ * so that the incremental updates of concurrent training writes are applied on top of the rebuilt values.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class StatisticsReconciliationJob {
+
+    private final StatisticsRepository statisticsRepository;
+    private final StatisticsProperties statisticsProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    /**
+     * Rebuilds the statistics of all users. Scheduled by the {@code statistics.reconciliation-cron} property.
+     *
+     * @throws IllegalStateException if rebuilding any of the chunks failed
+     */
+    @Scheduled(cron = "${statistics.reconciliation-cron:-}")
+    public void reconcile() {
+        int parallelism = statisticsProperties.getReconciliationParallelism();
+        int chunkSize = statisticsProperties.getReconciliationChunkSize();
+        // the submitting thread rebuilds a chunk itself when all workers are busy, so at most
+        // 2 * parallelism + 1 chunks of user IDs are held in memory at once
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parallelism), new ThreadPoolExecutor.CallerRunsPolicy());
+        List<Future<Integer>> chunks = new ArrayList<>();
+        long startTime = System.currentTimeMillis();
+        try {
+            long after = 0;
+            List<Long> userIds;
+            while (!(userIds = statisticsRepository.findUserIdsAfter(after, PageRequest.of(0, chunkSize))).isEmpty()) {
+                List<Long> chunk = userIds;
+                chunks.add(executor.submit(() -> transactionTemplate.execute(status -> rebuild(chunk))));
+                after = chunk.get(chunk.size() - 1);
+            }
+            int users = 0;
+            for (Future<Integer> rebuilt : chunks) {
+                users += rebuilt.get();
+            }
+            log.info("Reconciled statistics of {} users in {} chunks in {} ms",
+                    users, chunks.size(), System.currentTimeMillis() - startTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Statistics reconciliation was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Statistics reconciliation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Rebuilds the statistics of a chunk of users with one query for the statistics and one for the trainings.
+     * Changed statistics are written back by dirty checking and missing ones are inserted, both in JDBC batches.
+     * No statistics are created for users without trainings.
+     */
+    private int rebuild(List<Long> userIds) {
+        Map<Long, Statistics> existing = statisticsRepository.findForUpdateByUserIds(userIds)
+                .stream()
+                .collect(Collectors.toMap(statistics -> statistics.getUser().getId(), Function.identity()));
+        Map<Long, StatisticsDelta> totals = new HashMap<>();
+        for (TrainingContribution training : statisticsRepository.findContributions(userIds)) {
+            totals.merge(training.userId(), StatisticsDelta.of(training), StatisticsDelta::plus);
+        }
+
+        List<Statistics> created = new ArrayList<>();
+        for (Long userId : userIds) {
+            StatisticsDelta total = totals.getOrDefault(userId, StatisticsDelta.ZERO);
+            Statistics statistics = existing.get(userId);
+            if (statistics != null) {
+                statistics.setTotalTrainings(total.trainings());
+                statistics.setTotalDistance(total.distance());
+                statistics.setTotalCaloriesBurned(total.calories());
+            } else if (!total.isZero()) {
+                created.add(new Statistics(entityManager.getReference(User.class, userId),
+                        total.trainings(),
+                        total.distance(),
+                        total.calories()));
+            }
+        }
+        statisticsRepository.saveAll(created);
+        return userIds.size();
+    }
+
+}
@@ -0,0 +1,120 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.statistics.api.TrainingContribution;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository of the {@link Statistics} entities, one per user with recorded trainings.
+ * <p>
+ * The calorie queries read the statistics in the (totalCaloriesBurned desc, id) order of the calorie index;
+ * the keyset position after {@code (:calories, :id)} is expressed as
+ * {@code totalCaloriesBurned <= :calories and (totalCaloriesBurned < :calories or id > :id)},
+ * so that the database can start the range scan right at the cursor.
+ */
+interface StatisticsRepository extends JpaRepository<Statistics, Long> {
+
+    /**
+     * Attribute path of the entity graph fetching the statistics together with their user.
+     */
+    String WITH_USER = "user";
+
+    /**
+     * Finds statistics by their ID, together with their user.
+     *
+     * @param id the ID of the statistics to find
+     * @return an {@link Optional} containing the found statistics or empty if not found
+     */
+    @Override
+    @EntityGraph(attributePaths = WITH_USER)
+    Optional<Statistics> findById(Long id);
+
+    /**
+     * Finds the statistics of a user, through the unique index of the user ID.
+     *
+     * @param userId the ID of the user
+     * @return an {@link Optional} containing the user's statistics or empty if not found
+     */
+    @EntityGraph(attributePaths = WITH_USER)
+    Optional<Statistics> findByUser_Id(Long userId);
+
+    /**
+     * Finds the first page of statistics with more burned calories than the threshold.
+     *
+     * @param calories the exclusive calorie threshold
+     * @param pageable page size and the (totalCaloriesBurned desc, id) ordering
+     * @return statistics on the first page
+     */
+    @EntityGraph(attributePaths = WITH_USER)
+    List<Statistics> findByTotalCaloriesBurnedGreaterThan(int calories, Pageable pageable);
+    /**
+     * Finds the page of statistics with more burned calories than the threshold
+     * that follows the given (totalCaloriesBurned, id) position.
+     *
+     * @param threshold the exclusive calorie threshold
+     * @param calories  burned calories of the last statistics on the previous page
+     * @param id        ID of the last statistics on the previous page
+     * @param pageable  page size and the (totalCaloriesBurned desc, id) ordering
+     * @return statistics on the following page
+     */
+    @EntityGraph(attributePaths = WITH_USER)
+    @Query("""
+            select s from Statistics s
+            where s.totalCaloriesBurned > :threshold
+              and s.totalCaloriesBurned <= :calories and (s.totalCaloriesBurned < :calories or s.id > :id)
+            """)
+    List<Statistics> findByTotalCaloriesBurnedGreaterThanFromCursor(@Param("threshold") int threshold,
+                                                                    @Param("calories") int calories,
+                                                                    @Param("id") Long id,
+                                                                    Pageable pageable);
+    /**
+     * Finds the statistics with the most burned calories.
+     *
+     * @param pageable number of the statistics and the (totalCaloriesBurned desc, id) ordering
+     * @return the top statistics
+     */
+    @EntityGraph(attributePaths = WITH_USER)
+    List<Statistics> findAllBy(Pageable pageable);
+
+    /**
+     * Finds the IDs of the users that follow the given user ID.
+     *
+     * @param after    the ID after which the users are looked up
+     * @param pageable maximal number of returned IDs
+     * @return IDs of the following users, in ascending order
+     */
+    @Query("select u.id from User u where u.id > :after order by u.id")
+    List<Long> findUserIdsAfter(@Param("after") long after, Pageable pageable);
+
+    /**
+     * Finds and locks the statistics of the given users, so that they cannot be changed by training writes
+     * until the current transaction ends.
+     *
+     * @param userIds the IDs of the users
+     * @return statistics of those of the users that have any
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from Statistics s where s.user.id in :userIds")
+    List<Statistics> findForUpdateByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Finds the contributions of all trainings of the given users.
+     *
+     * @param userIds the IDs of the users
+     * @return contributions of the users' trainings, in no particular order
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.statistics.api.TrainingContribution(t.user.id, t.activityType, t.distance)
+            from Training t
+            where t.user.id in :userIds
+            """)
+    List<TrainingContribution> findContributions(@Param("userIds") Collection<Long> userIds);
+
+}
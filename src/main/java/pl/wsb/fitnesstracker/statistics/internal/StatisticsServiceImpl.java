@@ -0,0 +1,181 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+import pl.wsb.fitnesstracker.statistics.api.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implementation of the statistics of the users.
+ * <p>
+ * Every training write applies its difference to the statistics row of the user, in the transaction of the write,
+ * so reading the statistics never has to go through the user's trainings.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+class StatisticsServiceImpl implements StatisticsProvider, StatisticsService {
+
+    /**
+     * Ordering of the calorie queries, matching the calorie index; the (totalCaloriesBurned, id) pair is unique.
+     */
+    private static final Sort CALORIES_ORDER = Sort.by(Sort.Order.desc("totalCaloriesBurned"), Sort.Order.asc("id"));
+
+    /**
+     * Adds a delta to the statistics of a user, creating them when the user has none yet.
+     * The addition is done by the database, so concurrent writes of the same user do not overwrite each other.
+     * A created row takes its ID from the sequence of the {@link Statistics} entity.
+     */
+    private static final String ADD_TO_USER = """
+            merge into statistics s
+            using (values (cast(? as bigint), cast(? as integer), cast(? as double precision), cast(? as integer)))
+                as d (user_id, trainings, distance, calories)
+            on s.user_id = d.user_id
+            when matched then update set
+                total_trainings = s.total_trainings + d.trainings,
+                total_distance = s.total_distance + d.distance,
+                total_calories_burned = s.total_calories_burned + d.calories
+            when not matched then insert (id, user_id, total_trainings, total_distance, total_calories_burned)
+                values (next value for statistics_seq, d.user_id, d.trainings, d.distance, d.calories)
+            """;
+
+    private final StatisticsRepository statisticsRepository;
+    private final StatisticsProperties statisticsProperties;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Optional<Statistics> getStatistics(Long statisticsId) {
+        return statisticsRepository.findById(statisticsId);
+    }
+
+    @Override
+    public Optional<Statistics> getStatisticsByUserId(Long userId) {
+        return statisticsRepository.findByUser_Id(userId);
+    }
+
+    /**
+     * Retrieves a single page of statistics with more burned calories than the threshold.
+     *
+     * @param calories the exclusive calorie threshold
+     * @param cursor   cursor of the page, or {@code null} for the first page
+     * @param pageSize requested page size, or {@code null} for the configured default
+     * @return the requested {@link StatisticsPage}
+     * @throws BusinessException if the cursor or the page size is invalid
+     */
+    @Override
+    public StatisticsPage findByCaloriesAbove(int calories, @Nullable String cursor, @Nullable Integer pageSize) {
+        int size = resolvePageSize(pageSize);
+        // one statistics more than the page size tells whether a following page exists, without a count query
+        Pageable page = PageRequest.of(0, size + 1, CALORIES_ORDER);
+        List<Statistics> statistics;
+        if (cursor == null) {
+            statistics = statisticsRepository.findByTotalCaloriesBurnedGreaterThan(calories, page);
+        } else {
+            StatisticsCursor position = StatisticsCursor.decode(cursor);
+            statistics = statisticsRepository.findByTotalCaloriesBurnedGreaterThanFromCursor(calories,
+                    position.calories(), position.id(), page);
+        }
+        if (statistics.size() <= size) {
+            return new StatisticsPage(statistics, null);
+        }
+        List<Statistics> content = statistics.subList(0, size);
+        return new StatisticsPage(List.copyOf(content), StatisticsCursor.after(content.get(size - 1)).encode());
+    }
+
+    /**
+     * Retrieves the statistics with the most burned calories, read from the head of the calorie index.
+     *
+     * @param limit number of statistics to retrieve, capped at the configured maximal page size
+     * @return the statistics ordered by the burned calories, highest first
+     * @throws BusinessException if the limit is not positive
+     */
+    @Override
+    public List<Statistics> findTopByCalories(int limit) {
+        return statisticsRepository.findAllBy(PageRequest.of(0, resolvePageSize(limit), CALORIES_ORDER));
+    }
+
+    /**
+     * Adds newly created trainings to the statistics of their users, with one update per distinct user.
+     *
+     * @param trainings the created trainings
+     */
+    @Override
+    @Transactional
+    public void recordTrainings(List<TrainingContribution> trainings) {
+        Map<Long, StatisticsDelta> deltas = new HashMap<>();
+        for (TrainingContribution training : trainings) {
+            deltas.merge(training.userId(), StatisticsDelta.of(training), StatisticsDelta::plus);
+        }
+        entityManager.flush();
+        deltas.forEach(this::apply);
+    }
+
+    /**
+     * Replaces an updated training in the statistics of its user(s).
+     *
+     * @param previous the training before the update
+     * @param current  the training after the update
+     */
+    @Override
+    @Transactional
+    public void replaceTraining(TrainingContribution previous, TrainingContribution current) {
+        StatisticsDelta removed = StatisticsDelta.of(previous).negate();
+        StatisticsDelta added = StatisticsDelta.of(current);
+        entityManager.flush();
+        if (previous.userId().equals(current.userId())) {
+            apply(current.userId(), added.plus(removed));
+        } else {
+            apply(previous.userId(), removed);
+            apply(current.userId(), added);
+        }
+    }
+
+    private int resolvePageSize(@Nullable Integer pageSize) {
+        if (pageSize == null) {
+            return statisticsProperties.getDefaultPageSize();
+        }
+        if (pageSize < 1) {
+            throw new BusinessException("Page size must be positive, got " + pageSize);
+        }
+        return Math.min(pageSize, statisticsProperties.getMaxPageSize());
+    }
+
+    /**
+     * Applies the delta with a single merge, which creates the statistics row on the first training of the user.
+     * When concurrent first trainings of the same user both insert, the unique user ID of the statistics rejects
+     * the later insert once the earlier one commits; the merge is then repeated and adds to the committed row.
+     * The merge runs over JDBC, in the current transaction, so that the rejected insert does not mark the
+     * transaction for rollback; pending entity changes, such as a new user, are flushed before.
+     */
+    private void apply(Long userId, StatisticsDelta delta) {
+        if (delta.isZero()) {
+            return;
+        }
+        try {
+            merge(userId, delta);
+        } catch (DuplicateKeyException e) {
+            log.debug("Statistics of user {} were created concurrently, adding to them", userId);
+            merge(userId, delta);
+        }
+    }
+
+    private void merge(Long userId, StatisticsDelta delta) {
+        jdbcTemplate.update(ADD_TO_USER, userId, delta.trainings(), delta.distance(), delta.calories());
+    }
+
+}
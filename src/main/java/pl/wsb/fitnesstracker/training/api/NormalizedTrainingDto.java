@@ -0,0 +1,24 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import jakarta.annotation.Nullable;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.util.Date;
+/**
+ * Training in a {@link NormalizedTrainingPage}, referencing its user by ID instead of embedding it.
+ *
+ * @param id             the unique identifier of the training
+ * @param userId         the ID of the user who performed the training, listed in {@link NormalizedTrainingPage#users()}
+ * @param startTime      the start timestamp of the training session
+ * @param endTime        the end timestamp of the training session
+ * @param activityType   the type of physical activity performed
+ * @param distance       the distance covered during the training
+ * @param averageSpeed   the average speed during the training
+ */
+public record NormalizedTrainingDto(@Nullable Long id, Long userId,
+                                    Date startTime,
+                                    Date endTime,
+                                    ActivityType activityType,
+                                    double distance,
+                                    double averageSpeed) {
+}
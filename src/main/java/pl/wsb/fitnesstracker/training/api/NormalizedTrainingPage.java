@@ -0,0 +1,16 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import jakarta.annotation.Nullable;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.List;
+/**
+ * Normalized form of a list of trainings, in which every distinct user is listed once instead of being embedded
+ * in each of its trainings. Its size grows with the trainings and the distinct users, not with their product.
+ *
+ * @param content the trainings, in the order of the original list
+ * @param users   the distinct users referenced by the trainings, in the order of their first reference
+ * @param next    opaque cursor of the following page; {@code null} if this is the last page or the list is not paginated
+ */
+public record NormalizedTrainingPage(List<NormalizedTrainingDto> content, List<User> users, @Nullable String next) {
+}
@@ -2,6 +2,9 @@ package pl.wsb.fitnesstracker.training.api;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import pl.wsb.fitnesstracker.cache.api.CacheRegions;
 import pl.wsb.fitnesstracker.training.internal.ActivityType;
 import pl.wsb.fitnesstracker.user.api.User;
 
@@ -15,6 +18,8 @@ import java.util.Date;
  */
 @Entity
 @Table(name = "trainings")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.TRAININGS)
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -22,16 +27,19 @@ import java.util.Date;
 public class Training {
     /**
      * Unique identifier of the training.
-     * Automatically generated by the database.
+     * Taken from the "trainings_seq" database sequence. IDs are allocated in blocks,
+     * so that Hibernate can group inserts into JDBC batches (not possible with identity columns).
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "trainings_seq")
+    @SequenceGenerator(name = "trainings_seq", sequenceName = "trainings_seq", allocationSize = 50)
     private Long id;
     /**
      * The user to whom this training belongs.
-     * Defined as a many-to-one relationship with the {@link User} entity.
+     * Defined as a lazy many-to-one relationship with the {@link User} entity;
+     * queries that need the user fetch it explicitly with an entity graph.
      */
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
     /**
@@ -0,0 +1,21 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import jakarta.annotation.Nullable;
+/**
+ * Outcome of a single training submitted in a batch.
+ *
+ * @param index      position of the training in the submitted batch
+ * @param trainingId the ID of the created training; {@code null} if the training was rejected
+ * @param error      reason of the rejection; {@code null} if the training was created
+ */
+public record TrainingBatchItemResult(int index, @Nullable Long trainingId, @Nullable String error) {
+
+    public static TrainingBatchItemResult created(int index, Long trainingId) {
+        return new TrainingBatchItemResult(index, trainingId, null);
+    }
+
+    public static TrainingBatchItemResult rejected(int index, String error) {
+        return new TrainingBatchItemResult(index, null, error);
+    }
+
+}
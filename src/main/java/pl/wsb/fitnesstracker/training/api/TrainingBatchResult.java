@@ -0,0 +1,12 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import java.util.List;
+/**
+ * Report of a batch training ingestion.
+ *
+ * @param created number of trainings created
+ * @param failed  number of trainings rejected
+ * @param items   outcome of every submitted training, in submission order
+ */
+public record TrainingBatchResult(int created, int failed, List<TrainingBatchItemResult> items) {
+}
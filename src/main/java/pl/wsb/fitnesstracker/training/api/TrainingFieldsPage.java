@@ -0,0 +1,14 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import jakarta.annotation.Nullable;
+
+import java.util.List;
+import java.util.Map;
+/**
+ * A single page of trainings reduced to the fields requested by the client, continued like a {@link TrainingPage}.
+ *
+ * @param content the trainings on this page, each with the requested fields only, in the requested order
+ * @param next    opaque cursor of the following page; {@code null} if this is the last page
+ */
+public record TrainingFieldsPage(List<Map<String, Object>> content, @Nullable String next) {
+}
@@ -0,0 +1,15 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import jakarta.annotation.Nullable;
+
+import java.util.List;
+/**
+ * A single page of trainings returned by the keyset (cursor) paginated queries.
+ * Trainings are ordered by their end time and ID, so a page is always continued
+ * exactly where the previous one ended, no matter how deep the client has paged.
+ *
+ * @param content the trainings on this page
+ * @param next    opaque cursor of the following page; {@code null} if this is the last page
+ */
+public record TrainingPage(List<TrainingDto> content, @Nullable String next) {
+}
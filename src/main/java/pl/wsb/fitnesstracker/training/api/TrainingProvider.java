@@ -1,9 +1,13 @@
 package pl.wsb.fitnesstracker.training.api;
 
+import jakarta.annotation.Nullable;
+import org.springframework.data.domain.Sort;
 import pl.wsb.fitnesstracker.training.internal.ActivityType;
 import pl.wsb.fitnesstracker.user.api.User;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -45,4 +49,80 @@ public interface TrainingProvider {
      * @return list of trainings belonging to the user
      */
     List<TrainingDto> findByUserId(Long userId);
+
+    /**
+     * Retrieves a single page of all trainings, ordered by end time and ID.
+     *
+     * @param cursor   cursor returned with the previous page, or {@code null} for the first page
+     * @param pageSize requested number of trainings on the page, or {@code null} for the configured default
+     * @return the requested page of trainings
+     */
+    TrainingPage getTrainings(@Nullable String cursor, @Nullable Integer pageSize);
+
+    /**
+     * Retrieves a single page of all trainings, ordered by end time and ID, reading and returning only the requested fields.
+     *
+     * @param fields   names of the requested fields, as in {@link NormalizedTrainingDto}
+     * @param cursor   cursor returned with the previous page, or {@code null} for the first page
+     * @param pageSize requested number of trainings on the page, or {@code null} for the configured default
+     * @return the requested page of trainings
+     */
+    TrainingFieldsPage getTrainingFields(List<String> fields, @Nullable String cursor, @Nullable Integer pageSize);
+    /**
+     * Retrieves a single page of trainings matching the specified activity type, ordered by end time and ID.
+     *
+     * @param activityType the type of activity to filter trainings by
+     * @param cursor       cursor returned with the previous page, or {@code null} for the first page
+     * @param pageSize     requested number of trainings on the page, or {@code null} for the configured default
+     * @return the requested page of trainings
+     */
+    TrainingPage findByActivityType(ActivityType activityType, @Nullable String cursor, @Nullable Integer pageSize);
+    /**
+     * Retrieves a single page of trainings that finished after the specified date, ordered by end time and ID.
+     *
+     * @param afterTime the date after which trainings must have finished
+     * @param cursor    cursor returned with the previous page, or {@code null} for the first page
+     * @param pageSize  requested number of trainings on the page, or {@code null} for the configured default
+     * @return the requested page of trainings
+     */
+    TrainingPage findFinishedAfter(LocalDate afterTime, @Nullable String cursor, @Nullable Integer pageSize);
+    /**
+     * Retrieves a single page of trainings of the specified user, ordered by end time and ID.
+     *
+     * @param userId   the ID of the user whose trainings should be retrieved
+     * @param cursor   cursor returned with the previous page, or {@code null} for the first page
+     * @param pageSize requested number of trainings on the page, or {@code null} for the configured default
+     * @return the requested page of trainings
+     */
+    TrainingPage findByUserId(Long userId, @Nullable String cursor, @Nullable Integer pageSize);
+    /**
+     * Finds the trainings of the specified user that started within the given time window.
+     * Served from an in-memory per-user cache, without loading the training entities.
+     *
+     * @param userId the ID of the user whose trainings should be retrieved
+     * @param from   inclusive start of the window
+     * @param to     exclusive end of the window
+     * @return trainings started within the window, ordered by start time
+     */
+    List<TrainingSampleDto> findByUserIdInWindow(Long userId, Instant from, Instant to);
+    /**
+     * Searches for trainings matching all the present filters of the criteria.
+     * Filtering, sorting and limiting is done by a single database query.
+     *
+     * @param criteria the filters to apply
+     * @param sort     the order of the results
+     * @param limit    maximal number of results, or {@code null} for the configured default page size
+     * @return list of matching trainings
+     */
+    List<TrainingDto> search(TrainingSearchCriteria criteria, Sort sort, @Nullable Integer limit);
+    /**
+     * Aggregates the trainings of the given users that finished within the period,
+     * per user and activity type, with a single grouped query.
+     *
+     * @param userIds the IDs of the users whose trainings should be aggregated
+     * @param from    inclusive start of the period
+     * @param to      exclusive end of the period
+     * @return one summary per user and activity type with any trainings in the period
+     */
+    List<TrainingSummaryDto> summarizeByUserIds(Collection<Long> userIds, Instant from, Instant to);
 }
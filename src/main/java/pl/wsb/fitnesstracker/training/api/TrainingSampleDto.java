@@ -0,0 +1,22 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.util.Date;
+/**
+ * Compact, user-less view of a training used by the time window queries of a single user.
+ *
+ * @param id           the unique identifier of the training
+ * @param startTime    the start timestamp of the training session
+ * @param endTime      the end timestamp of the training session
+ * @param activityType the type of physical activity performed
+ * @param distance     the distance covered during the training
+ * @param averageSpeed the average speed during the training
+ */
+public record TrainingSampleDto(Long id,
+                                Date startTime,
+                                Date endTime,
+                                ActivityType activityType,
+                                double distance,
+                                double averageSpeed) {
+}
@@ -0,0 +1,29 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import jakarta.annotation.Nullable;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+
+import java.time.Instant;
+import java.util.Set;
+/**
+ * Combination of optional filters of the training search. Absent (null or empty) filters are not applied,
+ * all present ones must be matched by a training.
+ *
+ * @param userId          the ID of the user who performed the training
+ * @param activityTypes   accepted activity types
+ * @param from            inclusive lower bound of the training start time
+ * @param to              inclusive upper bound of the training end time
+ * @param minDistance     inclusive lower bound of the distance
+ * @param maxDistance     inclusive upper bound of the distance
+ * @param minAverageSpeed inclusive lower bound of the average speed
+ * @param maxAverageSpeed inclusive upper bound of the average speed
+ */
+public record TrainingSearchCriteria(@Nullable Long userId,
+                                     @Nullable Set<ActivityType> activityTypes,
+                                     @Nullable Instant from,
+                                     @Nullable Instant to,
+                                     @Nullable Double minDistance,
+                                     @Nullable Double maxDistance,
+                                     @Nullable Double minAverageSpeed,
+                                     @Nullable Double maxAverageSpeed) {
+}
@@ -1,24 +1,35 @@
 package pl.wsb.fitnesstracker.training.api;
 
-import pl.wsb.fitnesstracker.user.api.User;
+import java.util.List;
 
 public interface TrainingService {
     /**
-     * Creates a new training session for a given user based on provided data.
+     * Creates a new training session for the user referenced by {@code userId} of the provided data.
+     * The user is not loaded to be attached to the training; its existence is verified by the database on insert.
      *
      * @param trainingData the data needed to create the training
-     * @param user         the user who owns the training
      * @return the created training represented as a {@link TrainingDto}
+     * @throws pl.wsb.fitnesstracker.user.api.UserNotFoundException if the referenced user does not exist
      */
-    TrainingDto createTraining(TrainingCreateDto trainingData, User user);
+    TrainingDto createTraining(TrainingCreateDto trainingData);
     /**
-     * Updates an existing training session identified by {@code trainingId}
-     * with new data provided in {@code body}, for the specified user.
+     * Creates many training sessions at once. Users referenced by the trainings are resolved with a single query
+     * and the trainings are inserted in JDBC batches. Invalid trainings are rejected without affecting the others.
+     *
+     * @param trainingData the data of the trainings to create; each must reference its user by {@code userId}
+     * @return report with the outcome of every submitted training
+     */
+    TrainingBatchResult createTrainings(List<TrainingCreateDto> trainingData);
+    /**
+     * Updates an existing training session identified by {@code trainingId} for the user referenced by
+     * {@code userId} of the provided data. A training that stays with the same user is updated by a single
+     * statement, without being loaded as an entity first.
      *
      * @param trainingId the ID of the training to update
      * @param body       the new training data
-     * @param user       the user who owns the training
      * @return the updated training represented as a {@link TrainingDto}
+     * @throws TrainingNotFoundException if the training does not exist
+     * @throws pl.wsb.fitnesstracker.user.api.UserNotFoundException if the referenced user does not exist
      */
-    TrainingDto update(Long trainingId, TrainingUpdateDto body, User user);
+    TrainingDto update(Long trainingId, TrainingUpdateDto body);
 }
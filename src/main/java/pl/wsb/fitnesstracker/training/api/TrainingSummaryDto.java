@@ -0,0 +1,13 @@
+package pl.wsb.fitnesstracker.training.api;
+
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+/**
+ * Aggregate of the trainings of a single user and activity type within a period.
+ *
+ * @param userId       the ID of the user who performed the trainings
+ * @param activityType the type of physical activity performed
+ * @param trainings    number of the trainings
+ * @param distance     total distance covered during the trainings
+ */
+public record TrainingSummaryDto(Long userId, ActivityType activityType, long trainings, double distance) {
+}
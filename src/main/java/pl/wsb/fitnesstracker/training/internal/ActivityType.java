@@ -3,20 +3,36 @@ package pl.wsb.fitnesstracker.training.internal;
 // TODO : JavaDoc
 public enum ActivityType {
 
-    RUNNING("Running"),
-    CYCLING("Cycling"),
-    WALKING("Walking"),
-    SWIMMING("Swimming"),
-    TENNIS("Tenis");
+    RUNNING("Running", 65),
+    CYCLING("Cycling", 30),
+    WALKING("Walking", 50),
+    SWIMMING("Swimming", 250),
+    TENNIS("Tenis", 90);
 
     private final String displayName;
 
-    ActivityType(String displayName) {
+    /**
+     * Average number of calories burned per kilometer of the activity.
+     */
+    private final double caloriesPerKilometer;
+
+    ActivityType(String displayName, double caloriesPerKilometer) {
         this.displayName = displayName;
+        this.caloriesPerKilometer = caloriesPerKilometer;
     }
 
     public String getDisplayName() {
         return displayName;
     }
 
+    /**
+     * Estimates the calories burned during a training of this activity.
+     *
+     * @param distance the distance covered during the training, in kilometers
+     * @return the estimated number of burned calories
+     */
+    public int caloriesBurned(double distance) {
+        return (int) Math.round(distance * caloriesPerKilometer);
+    }
+
 }
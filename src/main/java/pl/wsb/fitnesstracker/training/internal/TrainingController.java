@@ -1,15 +1,27 @@
 package pl.wsb.fitnesstracker.training.internal;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.SortDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import pl.wsb.fitnesstracker.training.api.*;
-import pl.wsb.fitnesstracker.user.api.User;
-import pl.wsb.fitnesstracker.user.internal.UserRepository;
+import pl.wsb.fitnesstracker.web.api.VersionedResponses;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/v1/trainings")
@@ -17,64 +29,239 @@ import java.util.List;
 class TrainingController {
     private final TrainingServiceImpl trainingService;
     private final TrainingMapper trainingMapper;
-    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
     /**
-     * Retrieves all training sessions.
+     * Retrieves a page of all training sessions.
      *
-     * @return list of all trainings as {@link TrainingDto}
+     * @param cursor cursor of the requested page, taken from {@link TrainingPage#next()}; first page if absent
+     * @param size   number of trainings on the page; configured default if absent
+     * @return page of trainings as {@link TrainingDto}
      */
     @GetMapping
-    public List<TrainingDto> getAllTrainings() {
-        return trainingService.getAllTrainings()
-                .stream()
-                .map(trainingMapper::toDto)
-                .toList();
+    public TrainingPage getAllTrainings(@RequestParam(required = false) @Nullable String cursor,
+                                        @RequestParam(required = false) @Nullable Integer size) {
+        return trainingService.getTrainings(cursor, size);
+    }
+    /**
+     * Retrieves a page of all training sessions reduced to the requested fields, e.g. {@code ?fields=id,distance};
+     * only the columns of those fields are read from the database.
+     *
+     * @param fields names of the requested fields, as in {@link NormalizedTrainingDto}
+     * @param cursor cursor of the requested page, taken from {@link TrainingFieldsPage#next()}; first page if absent
+     * @param size   number of trainings on the page; configured default if absent
+     * @return page of trainings with the requested fields only
+     */
+    @GetMapping(params = "fields")
+    public TrainingFieldsPage getAllTrainingFields(@RequestParam List<String> fields,
+                                                   @RequestParam(required = false) @Nullable String cursor,
+                                                   @RequestParam(required = false) @Nullable Integer size) {
+        return trainingService.getTrainingFields(fields, cursor, size);
+    }
+    /**
+     * Retrieves a page of all training sessions in the normalized form, selected by {@code normalized=true}.
+     *
+     * @param cursor cursor of the requested page, taken from {@link NormalizedTrainingPage#next()}; first page if absent
+     * @param size   number of trainings on the page; configured default if absent
+     * @return page of trainings referencing the distinct users listed once
+     */
+    @GetMapping(params = {"normalized=true", "!fields"})
+    public NormalizedTrainingPage getAllTrainingsNormalized(@RequestParam(required = false) @Nullable String cursor,
+                                                            @RequestParam(required = false) @Nullable Integer size) {
+        return trainingMapper.toNormalized(trainingService.getTrainings(cursor, size));
+    }
+    /**
+     * Exports all trainings matching the optional filters as newline-delimited JSON.
+     * The response is streamed while the trainings are read from the database,
+     * so it is never built in memory as a whole.
+     *
+     * @param userId       the ID of the user whose trainings should be exported; all users if absent
+     * @param activityType the activity type to filter trainings by; all activity types if absent
+     * @param from         inclusive lower bound of the training end date; unbounded if absent
+     * @param to           exclusive upper bound of the training end date; unbounded if absent
+     * @return body streaming one {@link TrainingDto} per line
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportTrainings(@RequestParam(required = false) @Nullable Long userId,
+                                                                 @RequestParam(required = false) @Nullable ActivityType activityType,
+                                                                 @RequestParam(required = false) @Nullable LocalDate from,
+                                                                 @RequestParam(required = false) @Nullable LocalDate to) {
+        ObjectWriter writer = objectMapper.writerFor(TrainingDto.class);
+        StreamingResponseBody body = outputStream -> trainingService.exportTrainings(userId, activityType, from, to, training -> {
+            try {
+                outputStream.write(writer.writeValueAsBytes(training));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
     /**
      * Creates a new training session.
      *
      * @param trainingDto DTO containing the details of the training to be created
      * @return the created training as {@link TrainingDto}
-     * @throws TrainingNotFoundException if the user specified by userId in the DTO does not exist
+     * @throws pl.wsb.fitnesstracker.user.api.UserNotFoundException if the user specified by userId in the DTO does not exist
      */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public TrainingDto createTraining(@RequestBody TrainingCreateDto trainingDto) {
-        User user = userRepository.findById(trainingDto.userId())
-                .orElseThrow(() -> new TrainingNotFoundException(trainingDto.userId()));
-        return trainingService.createTraining(trainingDto, user);
+        return trainingService.createTraining(trainingDto);
+    }
+
+
+    /**
+     * Creates many training sessions in a single request.
+     * Every training must reference its user by {@code userId}; trainings that cannot be created are reported
+     * in the result without failing the whole batch.
+     *
+     * @param trainings DTOs containing the details of the trainings to be created
+     * @return report with the outcome of every submitted training
+     */
+    @PostMapping("/batch")
+    public TrainingBatchResult createTrainings(@RequestBody List<TrainingCreateDto> trainings) {
+        return trainingService.createTrainings(trainings);
     }
 
 
     /**
-     * Retrieves all trainings filtered by activity type.
+     * Searches for trainings matching any combination of the filters, e.g.
+     * {@code /search?userId=1&activityTypes=RUNNING&minDistance=10&from=2024-03-01T00:00:00Z&sort=distance,desc&limit=20}.
+     *
+     * @param criteria the filters, bound from the request parameters of the same names
+     * @param sort     the order of the results, by end time if absent
+     * @param limit    maximal number of results; configured default page size if absent
+     * @return list of matching trainings
+     */
+    @GetMapping("/search")
+    public List<TrainingDto> searchTrainings(TrainingSearchCriteria criteria,
+                                             @SortDefault("endTime") Sort sort,
+                                             @RequestParam(required = false) @Nullable Integer limit) {
+        return trainingService.search(criteria, sort, limit);
+    }
+    /**
+     * Searches for trainings matching any combination of the filters, in the normalized form selected by {@code normalized=true}.
+     *
+     * @param criteria the filters, bound from the request parameters of the same names
+     * @param sort     the order of the results, by end time if absent
+     * @param limit    maximal number of results; configured default page size if absent
+     * @return matching trainings referencing the distinct users listed once, without a following page
+     */
+    @GetMapping(value = "/search", params = "normalized=true")
+    public NormalizedTrainingPage searchTrainingsNormalized(TrainingSearchCriteria criteria,
+                                                            @SortDefault("endTime") Sort sort,
+                                                            @RequestParam(required = false) @Nullable Integer limit) {
+        return trainingMapper.toNormalized(trainingService.search(criteria, sort, limit), null);
+    }
+
+    /**
+     * Retrieves a page of trainings filtered by activity type.
      *
      * @param activityType the activity type to filter trainings by
-     * @return list of trainings matching the specified activity type
+     * @param cursor       cursor of the requested page; first page if absent
+     * @param size         number of trainings on the page; configured default if absent
+     * @return page of trainings matching the specified activity type
      */
     @GetMapping("/activityType")
-    public List<TrainingDto> getAllByActivityType(@RequestParam ActivityType activityType) {
-        return trainingService.findByActivityType(activityType);
+    public TrainingPage getAllByActivityType(@RequestParam ActivityType activityType,
+                                             @RequestParam(required = false) @Nullable String cursor,
+                                             @RequestParam(required = false) @Nullable Integer size) {
+        return trainingService.findByActivityType(activityType, cursor, size);
     }
     /**
-     * Retrieves all trainings that finished after the specified date.
+     * Retrieves a page of trainings filtered by activity type, in the normalized form selected by {@code normalized=true}.
+     *
+     * @param activityType the activity type to filter trainings by
+     * @param cursor       cursor of the requested page; first page if absent
+     * @param size         number of trainings on the page; configured default if absent
+     * @return page of trainings referencing the distinct users listed once
+     */
+    @GetMapping(value = "/activityType", params = "normalized=true")
+    public NormalizedTrainingPage getAllByActivityTypeNormalized(@RequestParam ActivityType activityType,
+                                                                 @RequestParam(required = false) @Nullable String cursor,
+                                                                 @RequestParam(required = false) @Nullable Integer size) {
+        return trainingMapper.toNormalized(trainingService.findByActivityType(activityType, cursor, size));
+    }
+    /**
+     * Retrieves a page of trainings that finished after the specified date.
      *
      * @param afterTime the date after which trainings must have finished
-     * @return list of trainings finished after the specified date
+     * @param cursor    cursor of the requested page; first page if absent
+     * @param size      number of trainings on the page; configured default if absent
+     * @return page of trainings finished after the specified date
      */
     @GetMapping("/finished/{afterTime}")
-    public List<TrainingDto> getFinishedAfter(@PathVariable LocalDate afterTime) {
-        return trainingService.findFinishedAfter(afterTime);
+    public TrainingPage getFinishedAfter(@PathVariable LocalDate afterTime,
+                                         @RequestParam(required = false) @Nullable String cursor,
+                                         @RequestParam(required = false) @Nullable Integer size) {
+        return trainingService.findFinishedAfter(afterTime, cursor, size);
     }
     /**
-     * Retrieves all trainings for the specified user.
+     * Retrieves a page of trainings that finished after the specified date, in the normalized form selected by
+     * {@code normalized=true}.
      *
-     * @param userId the ID of the user whose trainings should be retrieved
-     * @return list of trainings belonging to the specified user
+     * @param afterTime the date after which trainings must have finished
+     * @param cursor    cursor of the requested page; first page if absent
+     * @param size      number of trainings on the page; configured default if absent
+     * @return page of trainings referencing the distinct users listed once
+     */
+    @GetMapping(value = "/finished/{afterTime}", params = "normalized=true")
+    public NormalizedTrainingPage getFinishedAfterNormalized(@PathVariable LocalDate afterTime,
+                                                             @RequestParam(required = false) @Nullable String cursor,
+                                                             @RequestParam(required = false) @Nullable Integer size) {
+        return trainingMapper.toNormalized(trainingService.findFinishedAfter(afterTime, cursor, size));
+    }
+    /**
+     * Retrieves a page of trainings for the specified user.
+     * The page is tagged with the version of the trainings of the user; a request whose {@code If-None-Match}
+     * carries the current version is answered with {@code 304 Not Modified} without reading the trainings.
+     *
+     * @param userId  the ID of the user whose trainings should be retrieved
+     * @param cursor  cursor of the requested page; first page if absent
+     * @param size    number of trainings on the page; configured default if absent
+     * @param request the request, checked for a matching {@code If-None-Match}
+     * @return page of trainings belonging to the specified user, or no body if the client's copy is current
      */
     @GetMapping("/{userId}")
-    public List<TrainingDto> getAllByUser(@PathVariable Long userId) {
-        return trainingService.findByUserId(userId);
+    public ResponseEntity<TrainingPage> getAllByUser(@PathVariable Long userId,
+                                                     @RequestParam(required = false) @Nullable String cursor,
+                                                     @RequestParam(required = false) @Nullable Integer size,
+                                                     WebRequest request) {
+        return conditionalOnUserTrainings(userId, request, () -> trainingService.findByUserId(userId, cursor, size));
+    }
+    /**
+     * Retrieves a page of trainings for the specified user, in the normalized form selected by {@code normalized=true}.
+     * The page is tagged and checked against {@code If-None-Match} in the same way as the embedded form.
+     *
+     * @param userId  the ID of the user whose trainings should be retrieved
+     * @param cursor  cursor of the requested page; first page if absent
+     * @param size    number of trainings on the page; configured default if absent
+     * @param request the request, checked for a matching {@code If-None-Match}
+     * @return page of trainings referencing the user listed once, or no body if the client's copy is current
+     */
+    @GetMapping(value = "/{userId}", params = "normalized=true")
+    public ResponseEntity<NormalizedTrainingPage> getAllByUserNormalized(@PathVariable Long userId,
+                                                                         @RequestParam(required = false) @Nullable String cursor,
+                                                                         @RequestParam(required = false) @Nullable Integer size,
+                                                                         WebRequest request) {
+        return conditionalOnUserTrainings(userId, request,
+                () -> trainingMapper.toNormalized(trainingService.findByUserId(userId, cursor, size)));
+    }
+    /**
+     * Retrieves the trainings of the specified user that started within the given time window.
+     *
+     * @param userId the ID of the user whose trainings should be retrieved
+     * @param from   inclusive start of the window, as an ISO-8601 instant
+     * @param to     exclusive end of the window, as an ISO-8601 instant
+     * @return list of trainings started within the window, ordered by start time
+     */
+    @GetMapping("/{userId}/window")
+    public List<TrainingSampleDto> getUserTrainingsInWindow(@PathVariable Long userId,
+                                                            @RequestParam Instant from,
+                                                            @RequestParam Instant to) {
+        return trainingService.findByUserIdInWindow(userId, from, to);
     }
     /**
      * Updates an existing training session.
@@ -82,12 +269,19 @@ class TrainingController {
      * @param trainingId the ID of the training to update
      * @param training the updated training data as {@link TrainingUpdateDto}
      * @return the updated training as {@link TrainingDto}
-     * @throws TrainingNotFoundException if the user specified by userId in the DTO does not exist
+     * @throws TrainingNotFoundException if the training does not exist
+     * @throws pl.wsb.fitnesstracker.user.api.UserNotFoundException if the user specified by userId in the DTO does not exist
      */
     @PutMapping("/{trainingId}")
     public TrainingDto updateTraining(@PathVariable Long trainingId, @RequestBody TrainingUpdateDto training) {
-        User user = userRepository.findById(training.userId())
-                .orElseThrow(() -> new TrainingNotFoundException(training.userId()));
-        return trainingService.update(trainingId, training, user);
+        return trainingService.update(trainingId, training);
+    }
+
+    /**
+     * Answers with {@code 304 Not Modified} if the {@code If-None-Match} of the request carries the current version
+     * of the trainings of the user, otherwise with the body tagged with that version.
+     */
+    private <T> ResponseEntity<T> conditionalOnUserTrainings(Long userId, WebRequest request, Supplier<T> body) {
+        return VersionedResponses.ifModified(trainingService.getUserTrainingsVersion(userId), request, body);
     }
 }
@@ -0,0 +1,46 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.web.api.KeysetCursors;
+
+import java.util.Date;
+/**
+ * Position in the (endTime, id) ordered trainings used by keyset pagination.
+ * Clients only ever see it in the encoded, opaque form.
+ *
+ * @param endTime end time of the last training on the previous page
+ * @param id      ID of the last training on the previous page
+ */
+record TrainingCursor(Date endTime, Long id) {
+
+    /**
+     * Creates the cursor pointing right after the given training.
+     *
+     * @param training the last training on a page
+     * @return cursor of the following page
+     */
+    static TrainingCursor after(Training training) {
+        return new TrainingCursor(training.getEndTime(), training.getId());
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param cursor the opaque cursor received from the client
+     * @return the decoded cursor
+     * @throws BusinessException if the cursor is malformed
+     */
+    static TrainingCursor decode(String cursor) {
+        return KeysetCursors.decode(cursor, (endTime, id) -> new TrainingCursor(new Date(Long.parseLong(endTime)), id));
+    }
+
+    /**
+     * Encodes the cursor into an opaque, URL safe string.
+     *
+     * @return the encoded cursor
+     */
+    String encode() {
+        return KeysetCursors.encode(endTime.getTime(), id);
+    }
+}
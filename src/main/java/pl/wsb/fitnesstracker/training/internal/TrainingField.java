@@ -0,0 +1,43 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.web.api.SelectableField;
+
+import java.util.function.Function;
+/**
+ * Field of a training that a client may request through the {@code fields} parameter, named as in
+ * {@link pl.wsb.fitnesstracker.training.api.NormalizedTrainingDto} and mapped to a single column.
+ */
+enum TrainingField implements SelectableField {
+
+    ID("id", root -> root.get("id")),
+    USER_ID("userId", root -> root.get("user").get("id")),
+    START_TIME("startTime", root -> root.get("startTime")),
+    END_TIME("endTime", root -> root.get("endTime")),
+    ACTIVITY_TYPE("activityType", root -> root.get("activityType")),
+    DISTANCE("distance", root -> root.get("distance")),
+    AVERAGE_SPEED("averageSpeed", root -> root.get("averageSpeed"));
+
+    private final String fieldName;
+    private final Function<Root<Training>, Path<?>> path;
+
+    TrainingField(String fieldName, Function<Root<Training>, Path<?>> path) {
+        this.fieldName = fieldName;
+        this.path = path;
+    }
+
+    @Override
+    public String fieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Returns the attribute of the field; the ID of the user is read from the foreign key, without a join.
+     */
+    Path<?> path(Root<Training> root) {
+        return path.apply(root);
+    }
+
+}
@@ -0,0 +1,24 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.Tuple;
+
+import java.util.Collection;
+import java.util.List;
+/**
+ * Fragment of the {@link TrainingRepository} reading only the requested columns of the trainings.
+ */
+interface TrainingFieldsRepository {
+
+    /**
+     * Finds the page of all trainings that follows the given (endTime, id) position, selecting only the columns
+     * of the given fields and of the (endTime, id) position itself.
+     *
+     * @param fields the fields to select
+     * @param after  position of the last training on the previous page, or {@code null} for the first page
+     * @param limit  maximal number of returned trainings
+     * @return trainings ordered by end time and ID, with every selected field under its {@link TrainingField#fieldName() name}
+     */
+    List<Tuple> findFieldsOfAll(Collection<TrainingField> fields, @Nullable TrainingCursor after, int limit);
+
+}
@@ -0,0 +1,46 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import pl.wsb.fitnesstracker.training.api.Training;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+/**
+ * Criteria query implementation of the {@link TrainingFieldsRepository}, with a select list built from the fields.
+ */
+@RequiredArgsConstructor
+class TrainingFieldsRepositoryImpl implements TrainingFieldsRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findFieldsOfAll(Collection<TrainingField> fields, @Nullable TrainingCursor after, int limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Training> root = query.from(Training.class);
+        // the position of the last row is needed for the cursor of the following page
+        EnumSet<TrainingField> selected = EnumSet.of(TrainingField.ID, TrainingField.END_TIME);
+        selected.addAll(fields);
+        query.multiselect(selected.stream().<Selection<?>>map(field -> field.path(root).alias(field.fieldName())).toList());
+
+        Path<Date> endTime = root.get("endTime");
+        Path<Long> id = root.get("id");
+        if (after != null) {
+            query.where(builder.greaterThanOrEqualTo(endTime, after.endTime()),
+                    builder.or(builder.greaterThan(endTime, after.endTime()), builder.greaterThan(id, after.id())));
+        }
+        query.orderBy(builder.asc(endTime), builder.asc(id));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+}
@@ -1,22 +1,33 @@
 package pl.wsb.fitnesstracker.training.internal;
 
+import jakarta.annotation.Nullable;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.training.api.NormalizedTrainingDto;
+import pl.wsb.fitnesstracker.training.api.NormalizedTrainingPage;
 import pl.wsb.fitnesstracker.training.api.Training;
 import pl.wsb.fitnesstracker.training.api.TrainingCreateDto;
 import pl.wsb.fitnesstracker.training.api.TrainingDto;
+import pl.wsb.fitnesstracker.training.api.TrainingPage;
 import pl.wsb.fitnesstracker.user.api.User;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 class TrainingMapper {
     /**
      * Converts a {@link Training} entity to its DTO representation.
+     * The lazy user association is unwrapped, so that the DTO never carries a Hibernate proxy.
      *
      * @param training the training entity to convert
      * @return a {@link TrainingDto} containing data from the training entity
      */
     TrainingDto toDto(Training training) {
         return new TrainingDto(training.getId(),
-                training.getUser(),
+                Hibernate.unproxy(training.getUser(), User.class),
                 training.getStartTime(),
                 training.getEndTime(),
                 training.getActivityType(),
@@ -58,4 +69,37 @@ class TrainingMapper {
                 training.averageSpeed()
         );
     }
+    /**
+     * Converts a page of trainings to its {@link NormalizedTrainingPage normalized} form.
+     *
+     * @param page the page of trainings with embedded users
+     * @return the page with every distinct user listed once
+     */
+    NormalizedTrainingPage toNormalized(TrainingPage page) {
+        return toNormalized(page.content(), page.next());
+    }
+    /**
+     * Converts a list of trainings to its {@link NormalizedTrainingPage normalized} form.
+     * The users are told apart by their IDs, so each of them is listed once even if it was loaded more than once.
+     *
+     * @param trainings the trainings with embedded users
+     * @param next      cursor of the following page, or {@code null} if there is none
+     * @return the trainings with every distinct user listed once
+     */
+    NormalizedTrainingPage toNormalized(List<TrainingDto> trainings, @Nullable String next) {
+        List<NormalizedTrainingDto> content = new ArrayList<>(trainings.size());
+        Map<Long, User> users = new LinkedHashMap<>();
+        for (TrainingDto training : trainings) {
+            User user = training.user();
+            users.putIfAbsent(user.getId(), user);
+            content.add(new NormalizedTrainingDto(training.id(),
+                    user.getId(),
+                    training.startTime(),
+                    training.endTime(),
+                    training.activityType(),
+                    training.distance(),
+                    training.averageSpeed()));
+        }
+        return new NormalizedTrainingPage(content, List.copyOf(users.values()), next);
+    }
 }
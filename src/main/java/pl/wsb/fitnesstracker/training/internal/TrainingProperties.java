@@ -0,0 +1,45 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration of the trainings module.
+ */
+@ConfigurationProperties(prefix = "trainings")
+@Getter
+class TrainingProperties {
+
+    /**
+     * Number of trainings returned on a single page when the client does not ask for a specific size.
+     */
+    private final int defaultPageSize;
+
+    /**
+     * Upper bound of the page size a client may request.
+     */
+    private final int maxPageSize;
+
+    /**
+     * Maximal number of trainings accepted in a single batch ingestion request.
+     */
+    private final int maxBatchSize;
+
+    /**
+     * Memory budget of the per-user training series cache; the least recently used users are evicted above it.
+     */
+    private final DataSize seriesCacheMaxSize;
+
+    TrainingProperties(@DefaultValue("50") int defaultPageSize,
+                       @DefaultValue("500") int maxPageSize,
+                       @DefaultValue("5000") int maxBatchSize,
+                       @DefaultValue("64MB") DataSize seriesCacheMaxSize) {
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
+        this.seriesCacheMaxSize = seriesCacheMaxSize;
+    }
+
+}
@@ -1,32 +1,73 @@
 package pl.wsb.fitnesstracker.training.internal;
 
+import jakarta.annotation.Nullable;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingSampleDto;
+import pl.wsb.fitnesstracker.training.api.TrainingSummaryDto;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Repository of the {@link Training} entities.
+ * <p>
+ * The keyset (cursor) queries express the {@code (endTime, id) > (:endTime, :id)} position as
+ * {@code endTime >= :endTime and (endTime > :endTime or id > :id)}, so that the database can start a range scan
+ * of the (.., end_time, id) indexes right at the cursor.
+ * <p>
+ * {@link Training#getUser()} is lazy; the list queries whose results are mapped to {@link pl.wsb.fitnesstracker.training.api.TrainingDto}
+ * fetch it in the same statement through the {@link #WITH_USER} entity graph, instead of one select per distinct user.
+ * <p>
+ * The results of the derived finders are kept in the query cache, which drops them on any write of the trainings;
+ * the trainings they refer to are read from the second-level cache.
+ */
+interface TrainingRepository extends JpaRepository<Training, Long>, JpaSpecificationExecutor<Training>, TrainingFieldsRepository,
+        TrainingUpdateRepository {
+
+    /**
+     * Attribute path of the entity graph fetching the training together with its user.
+     */
+    String WITH_USER = "user";
 
-interface TrainingRepository extends JpaRepository<Training, Long> {
     /**
-     * Finds a training by its ID.
-     * This default implementation streams all trainings and filters by ID.
+     * Finds a training by its ID, together with its user.
      *
      * @param id the ID of the training to find
      * @return an {@link Optional} containing the found training or empty if not found
      */
-    default Optional<Training> findById(Long id) {
-        return findAll().stream()
-                .filter(training -> Objects.equals(training.getId(), id))
-                .findAny();
-    }
+    @Override
+    @EntityGraph(attributePaths = WITH_USER)
+    Optional<Training> findById(Long id);
+    /**
+     * Finds all trainings, together with their users.
+     *
+     * @return list of all trainings
+     */
+    @Override
+    @EntityGraph(attributePaths = WITH_USER)
+    List<Training> findAll();
     /**
      * Finds all trainings of a specific activity type.
      *
      * @param activityType the activity type to filter by
      * @return list of trainings matching the given activity type
      */
+    @EntityGraph(attributePaths = WITH_USER)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Training> findAllByActivityType(ActivityType activityType);
     /**
      * Finds all trainings that finished after the specified date.
@@ -34,12 +75,217 @@ interface TrainingRepository extends JpaRepository<Training, Long> {
      * @param endTime the date after which trainings finished
      * @return list of trainings finished after the specified date
      */
+    @EntityGraph(attributePaths = WITH_USER)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Training> findAllByEndTimeAfter(Date endTime);
     /**
      * Finds all trainings associated with a specific user ID.
+     * The query filters on the user ID of the trainings, which the derived query would instead read from
+     * a second join of the users, missing the user ID index.
      *
      * @param userId the ID of the user
      * @return list of trainings linked to the specified user
      */
-    List<Training> findByUser_Id(Long userId);
+    @EntityGraph(attributePaths = WITH_USER)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select t from Training t where t.user.id = :userId")
+    List<Training> findByUser_Id(@Param("userId") Long userId);
+
+    /**
+     * Finds the first page of all trainings.
+     *
+     * @param pageable page size and the (endTime, id) ordering
+     * @return trainings on the first page
+     */
+    @EntityGraph(attributePaths = WITH_USER)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Training> findAllBy(Pageable pageable);
+    /**
+     * Finds the page of all trainings that follows the given (endTime, id) position.
+     *
+     * @param endTime  end time of the last training on the previous page
+     * @param id       ID of the last training on the previous page
+     * @param pageable page size and the (endTime, id) ordering
+     * @return trainings on the following page
+     */
+    @EntityGraph(attributePaths = WITH_USER)
+    @Query("""
+            select t from Training t
+            where t.endTime >= :endTime and (t.endTime > :endTime or t.id > :id)
+            """)
+    List<Training> findAllFromCursor(@Param("endTime") Date endTime, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds the first page of trainings of a specific activity type.
+     *
+     * @param activityType the activity type to filter by
+     * @param pageable     page size and the (endTime, id) ordering
+     * @return trainings on the first page
+     */
+    @EntityGraph(attributePaths = WITH_USER)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Training> findAllByActivityType(ActivityType activityType, Pageable pageable);
+    /**
+     * Finds the page of trainings of a specific activity type that follows the given (endTime, id) position.
+     *
+     * @param activityType the activity type to filter by
+     * @param endTime      end time of the last training on the previous page
+     * @param id           ID of the last training on the previous page
+     * @param pageable     page size and the (endTime, id) ordering
+     * @return trainings on the following page
+     */
+    @EntityGraph(attributePaths = WITH_USER)
+    @Query("""
+            select t from Training t
+            where t.activityType = :activityType
+              and t.endTime >= :endTime and (t.endTime > :endTime or t.id > :id)
+            """)
+    List<Training> findAllByActivityTypeFromCursor(@Param("activityType") ActivityType activityType,
+                                                   @Param("endTime") Date endTime,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+
+    /**
+     * Finds the first page of trainings that finished after the specified date.
+     *
+     * @param endTime  the date after which trainings finished
+     * @param pageable page size and the (endTime, id) ordering
+     * @return trainings on the first page
+     */
+    @EntityGraph(attributePaths = WITH_USER)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Training> findAllByEndTimeAfter(Date endTime, Pageable pageable);
+    /**
+     * Finds the page of trainings finished after the specified date that follows the given (endTime, id) position.
+     *
+     * @param after    the date after which trainings finished
+     * @param endTime  end time of the last training on the previous page
+     * @param id       ID of the last training on the previous page
+     * @param pageable page size and the (endTime, id) ordering
+     * @return trainings on the following page
+     */
+    @EntityGraph(attributePaths = WITH_USER)
+    @Query("""
+            select t from Training t
+            where t.endTime > :after
+              and t.endTime >= :endTime and (t.endTime > :endTime or t.id > :id)
+            """)
+    List<Training> findAllByEndTimeAfterFromCursor(@Param("after") Date after,
+                                                   @Param("endTime") Date endTime,
+                                                   @Param("id") Long id,
+                                                   Pageable pageable);
+
+    /**
+     * Finds the first page of trainings associated with a specific user ID,
+     * filtered on the user ID of the trainings like {@link #findByUser_Id(Long)}.
+     *
+     * @param userId   the ID of the user
+     * @param pageable page size and the (endTime, id) ordering
+     * @return trainings on the first page
+     */
+    @EntityGraph(attributePaths = WITH_USER)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("select t from Training t where t.user.id = :userId")
+    List<Training> findByUser_Id(@Param("userId") Long userId, Pageable pageable);
+    /**
+     * Finds the page of trainings of a specific user that follows the given (endTime, id) position.
+     *
+     * @param userId   the ID of the user
+     * @param endTime  end time of the last training on the previous page
+     * @param id       ID of the last training on the previous page
+     * @param pageable page size and the (endTime, id) ordering
+     * @return trainings on the following page
+     */
+    @EntityGraph(attributePaths = WITH_USER)
+    @Query("""
+            select t from Training t
+            where t.user.id = :userId
+              and t.endTime >= :endTime and (t.endTime > :endTime or t.id > :id)
+            """)
+    List<Training> findByUserIdFromCursor(@Param("userId") Long userId,
+                                          @Param("endTime") Date endTime,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
+    /**
+     * Streams all trainings matching the optional filters, without materializing the whole result.
+     * Rows are fetched from the database cursor in chunks, so the returned {@link Stream} must be consumed
+     * and closed within a transaction. The streamed trainings bypass the second-level cache, so that an export
+     * does not evict the trainings read by the other queries.
+     *
+     * @param userId       the ID of the user, or {@code null} for trainings of all users
+     * @param activityType the activity type, or {@code null} for all activity types
+     * @param from         inclusive lower bound of the end time, or {@code null} for no lower bound
+     * @param to           exclusive upper bound of the end time, or {@code null} for no upper bound
+     * @return stream of matching trainings ordered by ID
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("""
+            select t from Training t join fetch t.user
+            where (:userId is null or t.user.id = :userId)
+              and (:activityType is null or t.activityType = :activityType)
+              and (:from is null or t.endTime >= :from)
+              and (:to is null or t.endTime < :to)
+            order by t.id
+            """)
+    Stream<Training> streamAll(@Param("userId") @Nullable Long userId,
+                               @Param("activityType") @Nullable ActivityType activityType,
+                               @Param("from") @Nullable Date from,
+                               @Param("to") @Nullable Date to);
+
+    /**
+     * Finds all trainings of a specific user as compact samples, without loading the entities and the user.
+     *
+     * @param userId the ID of the user
+     * @return trainings of the user ordered by start time and ID
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.training.api.TrainingSampleDto(
+                t.id, t.startTime, t.endTime, t.activityType, t.distance, t.averageSpeed)
+            from Training t
+            where t.user.id = :userId
+            order by t.startTime, t.id
+            """)
+    List<TrainingSampleDto> findSamplesByUserId(@Param("userId") Long userId);
+
+    /**
+     * Aggregates the trainings of the given users that finished within the period, per user and activity type,
+     * with a single grouped query served by the (user_id, end_time) index.
+     *
+     * @param userIds the IDs of the users
+     * @param from    inclusive start of the period
+     * @param to      exclusive end of the period
+     * @return one summary per user and activity type with any trainings in the period
+     */
+    @Query("""
+            select new pl.wsb.fitnesstracker.training.api.TrainingSummaryDto(
+                t.user.id, t.activityType, count(t), sum(t.distance))
+            from Training t
+            where t.user.id in :userIds and t.endTime >= :from and t.endTime < :to
+            group by t.user.id, t.activityType
+            """)
+    List<TrainingSummaryDto> summarizeByUserIds(@Param("userIds") Collection<Long> userIds,
+                                                @Param("from") Date from,
+                                                @Param("to") Date to);
+
+    /**
+     * Finds and locks a training of the given user as a compact sample, without loading the entity.
+     * The lock keeps the found values current until the training is updated in the same transaction.
+     *
+     * @param id     the ID of the training
+     * @param userId the ID of the user who owns the training
+     * @return an {@link Optional} containing the training, or empty if it does not exist or belongs to another user
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select new pl.wsb.fitnesstracker.training.api.TrainingSampleDto(
+                t.id, t.startTime, t.endTime, t.activityType, t.distance, t.averageSpeed)
+            from Training t
+            where t.id = :id and t.user.id = :userId
+            """)
+    Optional<TrainingSampleDto> findSampleForUpdate(@Param("id") Long id, @Param("userId") Long userId);
 }
@@ -0,0 +1,107 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingSampleDto;
+import pl.wsb.fitnesstracker.transaction.api.TransactionCallbacks;
+
+import java.util.*;
+import java.util.function.UnaryOperator;
+/**
+ * In-memory cache of the per-user {@link UserTrainingSeries}, used to answer time window queries
+ * without loading and materializing {@link Training} entities.
+ * <p>
+ * The series of a user is loaded on the first query and then kept up to date by the training writes,
+ * which are applied after their transaction commits. The cache is bounded by the configured memory budget;
+ * when it is exceeded, the least recently used series are evicted.
+ */
+@Component
+@Slf4j
+class TrainingSeriesCache {
+
+    private final TrainingRepository trainingRepository;
+    private final long maxBytes;
+
+    private final LinkedHashMap<Long, UserTrainingSeries> series = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+    /**
+     * Number of writes applied so far. A series loaded concurrently with a write is not cached,
+     * as it may not include that write.
+     */
+    private long writes;
+
+    TrainingSeriesCache(TrainingRepository trainingRepository, TrainingProperties trainingProperties) {
+        this.trainingRepository = trainingRepository;
+        this.maxBytes = trainingProperties.getSeriesCacheMaxSize().toBytes();
+    }
+
+    /**
+     * Finds the trainings of a user that started within the given time window.
+     *
+     * @param userId the ID of the user
+     * @param from   inclusive start of the window
+     * @param to     exclusive end of the window
+     * @return trainings started within the window, ordered by start time
+     */
+    List<TrainingSampleDto> findInWindow(Long userId, Date from, Date to) {
+        return getSeries(userId).window(from.getTime(), to.getTime());
+    }
+
+    /**
+     * Applies created or updated trainings to the cached series once the current transaction commits.
+     *
+     * @param writes the saved trainings
+     */
+    void onSaved(List<TrainingWrite> writes) {
+        TransactionCallbacks.afterCommit(
+                () -> writes.forEach(write -> apply(write.previousUserId(), write.userId(), write.sample())));
+    }
+
+    private UserTrainingSeries getSeries(Long userId) {
+        long writesBeforeLoad;
+        synchronized (this) {
+            UserTrainingSeries cached = series.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+            writesBeforeLoad = writes;
+        }
+        UserTrainingSeries loaded = UserTrainingSeries.of(trainingRepository.findSamplesByUserId(userId));
+        synchronized (this) {
+            if (writes == writesBeforeLoad) {
+                put(userId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private synchronized void apply(@Nullable Long previousUserId, Long userId, TrainingSampleDto sample) {
+        writes++;
+        if (previousUserId != null && !previousUserId.equals(userId)) {
+            replace(previousUserId, cached -> cached.without(sample.id()));
+        }
+        replace(userId, cached -> cached.with(sample));
+    }
+
+    private void replace(Long userId, UnaryOperator<UserTrainingSeries> modification) {
+        UserTrainingSeries cached = series.get(userId);
+        if (cached != null) {
+            put(userId, modification.apply(cached));
+        }
+    }
+
+    private void put(Long userId, UserTrainingSeries value) {
+        UserTrainingSeries previous = series.put(userId, value);
+        usedBytes += value.sizeInBytes() - (previous == null ? 0 : previous.sizeInBytes());
+        Iterator<Map.Entry<Long, UserTrainingSeries>> leastRecentlyUsed = series.entrySet().iterator();
+        while (usedBytes > maxBytes && leastRecentlyUsed.hasNext()) {
+            Map.Entry<Long, UserTrainingSeries> evicted = leastRecentlyUsed.next();
+            usedBytes -= evicted.getValue().sizeInBytes();
+            leastRecentlyUsed.remove();
+            log.debug("Evicted training series of user {}", evicted.getKey());
+        }
+    }
+
+}
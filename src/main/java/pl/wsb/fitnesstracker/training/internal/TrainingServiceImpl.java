@@ -1,18 +1,39 @@
 package pl.wsb.fitnesstracker.training.internal;
 
+import jakarta.annotation.Nullable;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import pl.wsb.fitnesstracker.achievement.api.AchievementService;
+import pl.wsb.fitnesstracker.achievement.api.TrainingEvent;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.notification.api.NotificationService;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsService;
+import pl.wsb.fitnesstracker.statistics.api.TrainingContribution;
 import pl.wsb.fitnesstracker.training.api.*;
 import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserNotFoundException;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+import pl.wsb.fitnesstracker.web.api.SelectableField;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.util.Date;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -21,8 +42,37 @@ import java.util.Optional;
 class TrainingServiceImpl implements TrainingProvider, TrainingService {
 
 
+    /**
+     * Ordering used by the keyset pagination, the (endTime, id) pair is unique for every training.
+     */
+    private static final Sort KEYSET_ORDER = Sort.by("endTime", "id");
+
+    /**
+     * Properties the search results may be sorted by.
+     */
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "startTime", "endTime", "distance", "averageSpeed");
+
+    /**
+     * Number of exported trainings after which the persistence context is cleared,
+     * so that a long running export does not keep every loaded entity managed.
+     */
+    private static final int EXPORT_CLEAR_INTERVAL = 1000;
+
+    /**
+     * Name of the foreign key from the trainings to their users, as reported by a violation of it.
+     */
+    private static final String USER_FOREIGN_KEY = "trainings_user_fk";
+
     private final TrainingRepository trainingRepository;
     private final TrainingMapper trainingMapper;
+    private final TrainingProperties trainingProperties;
+    private final EntityManager entityManager;
+    private final UserProvider userProvider;
+    private final TrainingSeriesCache trainingSeriesCache;
+    private final TrainingVersions trainingVersions;
+    private final StatisticsService statisticsService;
+    private final AchievementService achievementService;
+    private final NotificationService notificationService;
 
 
 
@@ -68,10 +118,7 @@ class TrainingServiceImpl implements TrainingProvider, TrainingService {
      */
     @Override
     public List<TrainingDto> findFinishedAfter(LocalDate after) {
-        ZoneId zoneId = ZoneId.systemDefault(); // or choose the appropriate one
-        Instant instant = after.atStartOfDay(zoneId).toInstant();
-        Date afterDate = Date.from(instant);
-        return trainingRepository.findAllByEndTimeAfter(afterDate)
+        return trainingRepository.findAllByEndTimeAfter(toDate(after))
                 .stream()
                 .map(trainingMapper::toDto)
                 .toList();
@@ -91,41 +138,485 @@ class TrainingServiceImpl implements TrainingProvider, TrainingService {
                 .toList();
     }
     /**
-     * Creates a new training record.
+     * Retrieves a single page of all trainings.
+     *
+     * @param cursor   cursor of the page, or {@code null} for the first page
+     * @param pageSize requested page size, or {@code null} for the configured default
+     * @return the requested {@link TrainingPage}
+     * @throws BusinessException if the cursor or the page size is invalid
+     */
+    @Override
+    public TrainingPage getTrainings(@Nullable String cursor, @Nullable Integer pageSize) {
+        int size = resolvePageSize(pageSize);
+        Pageable page = keysetPage(size);
+        if (cursor == null) {
+            return toPage(trainingRepository.findAllBy(page), size);
+        }
+        TrainingCursor position = TrainingCursor.decode(cursor);
+        return toPage(trainingRepository.findAllFromCursor(position.endTime(), position.id(), page), size);
+    }
+
+    /**
+     * Retrieves a single page of all trainings reduced to the requested fields.
+     * Only the columns of the requested fields and of the page position are selected, without loading the entities.
+     *
+     * @param fields   names of the requested fields
+     * @param cursor   cursor of the page, or {@code null} for the first page
+     * @param pageSize requested page size, or {@code null} for the configured default
+     * @return the requested {@link TrainingFieldsPage}
+     * @throws BusinessException if a field is unknown, or the cursor or the page size is invalid
+     */
+    @Override
+    public TrainingFieldsPage getTrainingFields(List<String> fields, @Nullable String cursor, @Nullable Integer pageSize) {
+        Set<TrainingField> requested = SelectableField.parse(TrainingField.class, fields);
+        int size = resolvePageSize(pageSize);
+        TrainingCursor after = cursor == null ? null : TrainingCursor.decode(cursor);
+        List<Tuple> rows = trainingRepository.findFieldsOfAll(requested, after, size + 1);
+        List<Map<String, Object>> content = rows.stream().limit(size).map(row -> fieldsOf(row, requested)).toList();
+        if (rows.size() <= size) {
+            return new TrainingFieldsPage(content, null);
+        }
+        Tuple last = rows.get(size - 1);
+        TrainingCursor next = new TrainingCursor(last.get(TrainingField.END_TIME.fieldName(), Date.class),
+                last.get(TrainingField.ID.fieldName(), Long.class));
+        return new TrainingFieldsPage(content, next.encode());
+    }
+
+    /**
+     * Retrieves a single page of trainings filtered by the specified activity type.
+     *
+     * @param activityType the activity type to filter trainings by
+     * @param cursor       cursor of the page, or {@code null} for the first page
+     * @param pageSize     requested page size, or {@code null} for the configured default
+     * @return the requested {@link TrainingPage}
+     * @throws BusinessException if the cursor or the page size is invalid
+     */
+    @Override
+    public TrainingPage findByActivityType(ActivityType activityType, @Nullable String cursor, @Nullable Integer pageSize) {
+        int size = resolvePageSize(pageSize);
+        Pageable page = keysetPage(size);
+        if (cursor == null) {
+            return toPage(trainingRepository.findAllByActivityType(activityType, page), size);
+        }
+        TrainingCursor position = TrainingCursor.decode(cursor);
+        return toPage(trainingRepository.findAllByActivityTypeFromCursor(activityType, position.endTime(), position.id(), page), size);
+    }
+
+    /**
+     * Retrieves a single page of trainings that finished after a given date.
+     *
+     * @param after    the date after which trainings should have finished
+     * @param cursor   cursor of the page, or {@code null} for the first page
+     * @param pageSize requested page size, or {@code null} for the configured default
+     * @return the requested {@link TrainingPage}
+     * @throws BusinessException if the cursor or the page size is invalid
+     */
+    @Override
+    public TrainingPage findFinishedAfter(LocalDate after, @Nullable String cursor, @Nullable Integer pageSize) {
+        int size = resolvePageSize(pageSize);
+        Pageable page = keysetPage(size);
+        if (cursor == null) {
+            return toPage(trainingRepository.findAllByEndTimeAfter(toDate(after), page), size);
+        }
+        TrainingCursor position = TrainingCursor.decode(cursor);
+        return toPage(trainingRepository.findAllByEndTimeAfterFromCursor(toDate(after), position.endTime(), position.id(), page), size);
+    }
+
+    /**
+     * Retrieves a single page of trainings associated with a given user ID.
+     *
+     * @param userId   the ID of the user whose trainings are requested
+     * @param cursor   cursor of the page, or {@code null} for the first page
+     * @param pageSize requested page size, or {@code null} for the configured default
+     * @return the requested {@link TrainingPage}
+     * @throws BusinessException if the cursor or the page size is invalid
+     */
+    @Override
+    public TrainingPage findByUserId(Long userId, @Nullable String cursor, @Nullable Integer pageSize) {
+        int size = resolvePageSize(pageSize);
+        Pageable page = keysetPage(size);
+        if (cursor == null) {
+            return toPage(trainingRepository.findByUser_Id(userId, page), size);
+        }
+        TrainingCursor position = TrainingCursor.decode(cursor);
+        return toPage(trainingRepository.findByUserIdFromCursor(userId, position.endTime(), position.id(), page), size);
+    }
+
+    /**
+     * Returns the version of the trainings of a user as returned by {@link #findByUserId(Long, String, Integer)}.
+     * The trainings include the details of the user, so the version combines the change counter of the trainings
+     * of the user with the version of the users; neither is read from the database.
+     *
+     * @param userId the ID of the user
+     * @return the current version of the trainings of the user
+     */
+    public String getUserTrainingsVersion(Long userId) {
+        return "%x-%x".formatted(trainingVersions.current(userId), userProvider.getUsersVersion());
+    }
+
+    /**
+     * Searches for trainings matching the criteria with a single query built by {@link TrainingSpecifications}.
+     * The user of every training is fetched by the same query.
+     *
+     * @param criteria the filters to apply
+     * @param sort     the order of the results
+     * @param limit    maximal number of results, or {@code null} for the configured default
+     * @return list of {@link TrainingDto} matching the criteria
+     * @throws BusinessException if the results are sorted by an unsupported property or the limit is invalid
+     */
+    @Override
+    public List<TrainingDto> search(TrainingSearchCriteria criteria, Sort sort, @Nullable Integer limit) {
+        for (Sort.Order order : sort) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new BusinessException("Cannot sort trainings by " + order.getProperty());
+            }
+        }
+        int size = resolvePageSize(limit);
+        return trainingRepository.findBy(TrainingSpecifications.matching(criteria), query -> query
+                        .project(TrainingRepository.WITH_USER)
+                        .sortBy(sort.and(Sort.by("id")))
+                        .limit(size)
+                        .all())
+                .stream()
+                .map(trainingMapper::toDto)
+                .toList();
+    }
+
+    /**
+     * Finds the trainings of a user that started within the given time window, using the {@link TrainingSeriesCache}.
+     *
+     * @param userId the ID of the user whose trainings are requested
+     * @param from   inclusive start of the window
+     * @param to     exclusive end of the window
+     * @return list of {@link TrainingSampleDto} started within the window
+     * @throws BusinessException if the window ends before it starts
+     */
+    @Override
+    public List<TrainingSampleDto> findByUserIdInWindow(Long userId, Instant from, Instant to) {
+        if (to.isBefore(from)) {
+            throw new BusinessException("Time window end %s is before its start %s".formatted(to, from));
+        }
+        return trainingSeriesCache.findInWindow(userId, Date.from(from), Date.from(to));
+    }
+
+    /**
+     * Aggregates the trainings of the given users that finished within the period, per user and activity type.
+     *
+     * @param userIds the IDs of the users
+     * @param from    inclusive start of the period
+     * @param to      exclusive end of the period
+     * @return one summary per user and activity type with any trainings in the period
+     */
+    @Override
+    public List<TrainingSummaryDto> summarizeByUserIds(Collection<Long> userIds, Instant from, Instant to) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return trainingRepository.summarizeByUserIds(userIds, Date.from(from), Date.from(to));
+    }
+
+    /**
+     * Streams all trainings matching the optional filters to the given consumer, one at a time.
+     * The trainings are read from a database cursor, so memory usage does not depend on the number of exported rows.
+     *
+     * @param userId       the ID of the user, or {@code null} for trainings of all users
+     * @param activityType the activity type, or {@code null} for all activity types
+     * @param from         inclusive lower bound of the training end date, or {@code null} for no lower bound
+     * @param to           exclusive upper bound of the training end date, or {@code null} for no upper bound
+     * @param consumer     receiver of the exported trainings
+     */
+    @Transactional(readOnly = true)
+    public void exportTrainings(@Nullable Long userId,
+                                @Nullable ActivityType activityType,
+                                @Nullable LocalDate from,
+                                @Nullable LocalDate to,
+                                Consumer<TrainingDto> consumer) {
+        Date fromDate = from == null ? null : toDate(from);
+        Date toDate = to == null ? null : toDate(to);
+        try (Stream<Training> trainings = trainingRepository.streamAll(userId, activityType, fromDate, toDate)) {
+            Iterator<Training> iterator = trainings.iterator();
+            int exported = 0;
+            while (iterator.hasNext()) {
+                consumer.accept(trainingMapper.toDto(iterator.next()));
+                if (++exported % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new training record for the user referenced by the data.
+     * The training is attached to a reference of the user instead of the loaded entity;
+     * a missing user is reported by the foreign key of the insert, which is flushed right away.
+     * The user is notified about the training once it is committed.
      *
      * @param trainingData the data required to create a training
-     * @param user         the user associated with the training
      * @return the created {@link TrainingDto}
+     * @throws BusinessException     if any of the required values is missing
+     * @throws UserNotFoundException if the referenced user does not exist
      */
     @Override
     @Transactional
-    public TrainingDto createTraining(TrainingCreateDto trainingData, User user) {
-        Training training = trainingMapper.toEntity(trainingData, user);
-        Training saved = trainingRepository.save(training);
+    public TrainingDto createTraining(TrainingCreateDto trainingData) {
+        Long userId = requireUserId(trainingData.userId());
+        requireValues(trainingData.startTime(), trainingData.endTime(), trainingData.activityType());
+        Training training = trainingMapper.toEntity(trainingData, entityManager.getReference(User.class, userId));
+        Training saved = saveReferencingUser(training, userId);
+        afterTrainingsWritten(List.of(TrainingWrite.created(saved)));
+        notificationService.enqueue(recordedNotification(saved));
         return trainingMapper.toDto(saved);
     }
     /**
-     * Updates an existing training identified by its ID.
+     * Creates many trainings at once.
+     * All referenced users are loaded with one query and the valid trainings are saved together,
+     * so that Hibernate can send the inserts in JDBC batches.
+     *
+     * @param trainingData the data of the trainings to create
+     * @return the {@link TrainingBatchResult} with the outcome of every training
+     * @throws BusinessException if the batch exceeds the configured maximal size
+     */
+    @Override
+    @Transactional
+    public TrainingBatchResult createTrainings(List<TrainingCreateDto> trainingData) {
+        if (trainingData.size() > trainingProperties.getMaxBatchSize()) {
+            throw new BusinessException("Batch of %d trainings exceeds the limit of %d"
+                    .formatted(trainingData.size(), trainingProperties.getMaxBatchSize()));
+        }
+        Set<Long> userIds = trainingData.stream()
+                .map(TrainingCreateDto::userId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, User> users = userProvider.getUsersByIds(userIds)
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        TrainingBatchItemResult[] results = new TrainingBatchItemResult[trainingData.size()];
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<Training> accepted = new ArrayList<>();
+        for (int i = 0; i < trainingData.size(); i++) {
+            TrainingCreateDto training = trainingData.get(i);
+            String error = validate(training, users);
+            if (error != null) {
+                results[i] = TrainingBatchItemResult.rejected(i, error);
+            } else {
+                acceptedIndexes.add(i);
+                accepted.add(trainingMapper.toEntity(training, users.get(training.userId())));
+            }
+        }
+
+        List<Training> saved = trainingRepository.saveAll(accepted);
+        afterTrainingsWritten(saved.stream().map(TrainingWrite::created).toList());
+        for (int i = 0; i < saved.size(); i++) {
+            int index = acceptedIndexes.get(i);
+            results[index] = TrainingBatchItemResult.created(index, saved.get(i).getId());
+        }
+        log.info("Created {} of {} trainings in batch", saved.size(), trainingData.size());
+        return new TrainingBatchResult(saved.size(), trainingData.size() - saved.size(), List.of(results));
+    }
+    /**
+     * Updates an existing training identified by its ID, for the user referenced by the data.
+     * A training that stays with the same user is not loaded as an entity: its previous values, needed for the
+     * statistics difference, are read as a locked sample and it is updated by a single statement.
+     * Only a training moved to another user is loaded and updated through the persistence context.
      *
      * @param trainingId the ID of the training to update
      * @param training   the updated training data
-     * @param user       the user associated with the training
      * @return the updated {@link TrainingDto}
+     * @throws BusinessException         if any of the required values is missing
      * @throws TrainingNotFoundException if training with the given ID does not exist
+     * @throws UserNotFoundException     if the referenced user does not exist
      */
     @Override
     @Transactional
-    public TrainingDto update(Long trainingId, TrainingUpdateDto training, User user) {
+    public TrainingDto update(Long trainingId, TrainingUpdateDto training) {
+        Long userId = requireUserId(training.userId());
+        requireValues(training.startTime(), training.endTime(), training.activityType());
+        Optional<TrainingSampleDto> previous = trainingRepository.findSampleForUpdate(trainingId, userId);
+        if (previous.isEmpty()) {
+            return moveToUser(trainingId, training, userId);
+        }
+        trainingRepository.updateOwnedTraining(trainingId,
+                userId,
+                training.startTime(),
+                training.endTime(),
+                training.activityType(),
+                training.distance(),
+                training.averageSpeed());
+        TrainingSampleDto sample = new TrainingSampleDto(trainingId,
+                training.startTime(),
+                training.endTime(),
+                training.activityType(),
+                training.distance(),
+                training.averageSpeed());
+        TrainingEvent previousEvent = new TrainingEvent(userId,
+                previous.get().activityType(),
+                previous.get().distance(),
+                previous.get().endTime().toInstant());
+        afterTrainingsWritten(List.of(new TrainingWrite(previousEvent, userId, sample)));
+        return new TrainingDto(trainingId,
+                Hibernate.unproxy(entityManager.find(User.class, userId), User.class),
+                training.startTime(),
+                training.endTime(),
+                training.activityType(),
+                training.distance(),
+                training.averageSpeed());
+    }
+
+    private TrainingDto moveToUser(Long trainingId, TrainingUpdateDto training, Long userId) {
         Training existing = trainingRepository.findById(trainingId).orElseThrow(() -> new TrainingNotFoundException(trainingId));
-        existing.setUser(user);
+        TrainingEvent previous = event(existing);
+        existing.setUser(entityManager.getReference(User.class, userId));
         existing.setStartTime(training.startTime());
         existing.setEndTime(training.endTime());
         existing.setActivityType(training.activityType());
         existing.setDistance(training.distance());
         existing.setAverageSpeed(training.averageSpeed());
-        Training updated = trainingRepository.save(existing);
-
+        Training updated = saveReferencingUser(existing, userId);
+        afterTrainingsWritten(List.of(TrainingWrite.updated(previous, updated)));
         return trainingMapper.toDto(updated);
     }
 
+    /**
+     * Applies saved trainings to the state derived from them: the series cache and the list versions,
+     * both updated once the transaction commits, and the statistics and achievements of their users.
+     * A created training is added to them, an updated one replaces its previous values.
+     */
+    private void afterTrainingsWritten(List<TrainingWrite> writes) {
+        trainingSeriesCache.onSaved(writes);
+        trainingVersions.onSaved(writes);
+        List<TrainingWrite> created = writes.stream().filter(write -> write.previous() == null).toList();
+        if (!created.isEmpty()) {
+            statisticsService.recordTrainings(created.stream().map(TrainingWrite::contribution).toList());
+            achievementService.recordTrainings(created.stream().map(TrainingWrite::event).toList());
+        }
+        for (TrainingWrite write : writes) {
+            TrainingEvent previous = write.previous();
+            if (previous != null) {
+                statisticsService.replaceTraining(contribution(previous), write.contribution());
+                achievementService.replaceTraining(previous, write.event());
+            }
+        }
+    }
+
+    /**
+     * Saves a training attached to a user reference and flushes it, so that a violated user foreign key
+     * is reported as a missing user; any other violation is rethrown. The persistence context is cleared after
+     * the failed flush, so that the rejected change is not flushed again.
+     */
+    private Training saveReferencingUser(Training training, Long userId) {
+        try {
+            return trainingRepository.saveAndFlush(training);
+        } catch (DataIntegrityViolationException e) {
+            entityManager.clear();
+            if (violates(e, USER_FOREIGN_KEY)) {
+                throw new UserNotFoundException(userId);
+            }
+            throw e;
+        }
+    }
+
+    private static boolean violates(DataIntegrityViolationException e, String constraint) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && violation.getConstraintName() != null
+                && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraint);
+    }
+
+    /**
+     * Email confirming a created training to its user, for trainings created one by one.
+     * Trainings created in batches are imports of past trainings and are not confirmed.
+     */
+    private static EmailDto recordedNotification(Training training) {
+        User user = training.getUser();
+        String content = String.format(Locale.ROOT, "Hi %s,\n\nyour %s training of %.2f km finished at %s was recorded.\n",
+                user.getFirstName(), training.getActivityType().getDisplayName().toLowerCase(Locale.ROOT),
+                training.getDistance(), training.getEndTime().toInstant());
+        return new EmailDto(user.getEmail(), "Training recorded", content);
+    }
+
+    private static TrainingContribution contribution(TrainingEvent event) {
+        return new TrainingContribution(event.userId(), event.activityType(), event.distance());
+    }
+
+    private static TrainingEvent event(Training training) {
+        return new TrainingEvent(training.getUser().getId(), training.getActivityType(), training.getDistance(),
+                training.getEndTime().toInstant());
+    }
+
+    private static Long requireUserId(@Nullable Long userId) {
+        if (userId == null) {
+            throw new BusinessException("userId is required");
+        }
+        return userId;
+    }
+
+    private static void requireValues(@Nullable Date startTime, @Nullable Date endTime, @Nullable ActivityType activityType) {
+        String missing = missingValues(startTime, endTime, activityType);
+        if (missing != null) {
+            throw new BusinessException(missing);
+        }
+    }
+
+    private int resolvePageSize(@Nullable Integer pageSize) {
+        if (pageSize == null) {
+            return trainingProperties.getDefaultPageSize();
+        }
+        if (pageSize < 1) {
+            throw new BusinessException("Page size must be positive, got " + pageSize);
+        }
+        return Math.min(pageSize, trainingProperties.getMaxPageSize());
+    }
+
+    /**
+     * Requests one training more than the page size, so that the presence of a following page is known
+     * without an additional count query.
+     */
+    private static Pageable keysetPage(int size) {
+        return PageRequest.of(0, size + 1, KEYSET_ORDER);
+    }
+
+    private TrainingPage toPage(List<Training> trainings, int size) {
+        if (trainings.size() <= size) {
+            return new TrainingPage(trainings.stream().map(trainingMapper::toDto).toList(), null);
+        }
+        List<Training> content = trainings.subList(0, size);
+        String next = TrainingCursor.after(content.get(size - 1)).encode();
+        return new TrainingPage(content.stream().map(trainingMapper::toDto).toList(), next);
+    }
+
+    private static Map<String, Object> fieldsOf(Tuple row, Set<TrainingField> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (TrainingField field : fields) {
+            values.put(field.fieldName(), row.get(field.fieldName()));
+        }
+        return values;
+    }
+
+    private static Date toDate(LocalDate date) {
+        Instant instant = date.atStartOfDay(ZoneId.systemDefault()).toInstant();
+        return Date.from(instant);
+    }
+
+    @Nullable
+    private static String validate(TrainingCreateDto training, Map<Long, User> users) {
+        if (training.userId() == null) {
+            return "userId is required";
+        }
+        if (!users.containsKey(training.userId())) {
+            return "User with ID=%s was not found".formatted(training.userId());
+        }
+        return missingValues(training.startTime(), training.endTime(), training.activityType());
+    }
+
+    @Nullable
+    private static String missingValues(@Nullable Date startTime, @Nullable Date endTime, @Nullable ActivityType activityType) {
+        if (startTime == null || endTime == null) {
+            return "startTime and endTime are required";
+        }
+        if (activityType == null) {
+            return "activityType is required";
+        }
+        return null;
+    }
+
 }
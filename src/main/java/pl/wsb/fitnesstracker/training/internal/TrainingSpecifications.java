@@ -0,0 +1,57 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingSearchCriteria;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+/**
+ * Factory of the {@link Specification}s used to search for {@link Training} entities.
+ */
+final class TrainingSpecifications {
+
+    private TrainingSpecifications() {
+    }
+
+    /**
+     * Builds a single specification out of all filters present in the criteria,
+     * so that the whole search is evaluated by one SQL query.
+     *
+     * @param criteria the search criteria
+     * @return specification matching the trainings that satisfy all present filters
+     */
+    static Specification<Training> matching(TrainingSearchCriteria criteria) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.userId() != null) {
+                predicates.add(builder.equal(root.get("user").get("id"), criteria.userId()));
+            }
+            if (criteria.activityTypes() != null && !criteria.activityTypes().isEmpty()) {
+                predicates.add(root.get("activityType").in(criteria.activityTypes()));
+            }
+            if (criteria.from() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("startTime"), Date.from(criteria.from())));
+            }
+            if (criteria.to() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("endTime"), Date.from(criteria.to())));
+            }
+            if (criteria.minDistance() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("distance"), criteria.minDistance()));
+            }
+            if (criteria.maxDistance() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("distance"), criteria.maxDistance()));
+            }
+            if (criteria.minAverageSpeed() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("averageSpeed"), criteria.minAverageSpeed()));
+            }
+            if (criteria.maxAverageSpeed() != null) {
+                predicates.add(builder.lessThanOrEqualTo(root.get("averageSpeed"), criteria.maxAverageSpeed()));
+            }
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+}
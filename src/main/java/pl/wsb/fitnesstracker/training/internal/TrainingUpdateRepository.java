@@ -0,0 +1,33 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import java.util.Date;
+
+/**
+ * Fragment of the {@link TrainingRepository} updating a training without loading it.
+ */
+interface TrainingUpdateRepository {
+
+    /**
+     * Overwrites the attributes of a training of the given user with a single update statement,
+     * without loading the training first.
+     * Only the cached copy of the updated training is dropped, and the cached query results over the trainings
+     * once the transaction completes.
+     *
+     * @param id           the ID of the training to update
+     * @param userId       the ID of the user who owns the training
+     * @param startTime    the new start time
+     * @param endTime      the new end time
+     * @param activityType the new activity type
+     * @param distance     the new distance
+     * @param averageSpeed the new average speed
+     * @return number of updated trainings, {@code 0} if the training does not exist or belongs to another user
+     */
+    int updateOwnedTraining(Long id,
+                            Long userId,
+                            Date startTime,
+                            Date endTime,
+                            ActivityType activityType,
+                            double distance,
+                            double averageSpeed);
+
+}
@@ -0,0 +1,79 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.training.api.Training;
+
+import java.util.Date;
+
+/**
+ * JDBC implementation of the {@link TrainingUpdateRepository}.
+ * <p>
+ * A bulk update run by Hibernate drops the whole second-level cache region of the trainings. The update is run
+ * over JDBC instead, and the caches are cleaned up the way Hibernate cleans them up after an update of a single
+ * entity: the cached training is locked until the transaction completes, so that no concurrent read caches its
+ * previous values, and the query results over the trainings are invalidated.
+ */
+@RequiredArgsConstructor
+class TrainingUpdateRepositoryImpl implements TrainingUpdateRepository {
+
+    private static final String UPDATE_OWNED_TRAINING = """
+            update trainings
+            set start_time = ?, end_time = ?, activity_type = ?, distance = ?, average_speed = ?
+            where id = ? and user_id = ?
+            """;
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int updateOwnedTraining(Long id,
+                                   Long userId,
+                                   Date startTime,
+                                   Date endTime,
+                                   ActivityType activityType,
+                                   double distance,
+                                   double averageSpeed) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Training.class);
+        // pending changes go first; a managed copy of the training would be stale after the update
+        session.flush();
+        Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+        if (managed != null) {
+            session.detach(managed);
+        }
+        invalidateCaches(session, persister, id);
+        return jdbcTemplate.update(UPDATE_OWNED_TRAINING,
+                startTime,
+                endTime,
+                activityType.ordinal(),
+                distance,
+                averageSpeed,
+                id,
+                userId);
+    }
+
+    private static void invalidateCaches(SessionImplementor session, EntityPersister persister, Long id) {
+        String[] spaces = persister.getPropertySpaces();
+        TimestampsCache timestamps = session.getFactory().getCache().getTimestampsCache();
+        timestamps.preInvalidate(spaces, session);
+        if (!persister.canWriteToCache()) {
+            session.getActionQueue().registerProcess((success, completed) -> timestamps.invalidate(spaces, completed));
+            return;
+        }
+        EntityDataAccess cache = persister.getCacheAccessStrategy();
+        Object key = cache.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier());
+        SoftLock lock = cache.lockItem(session, key, null);
+        session.getActionQueue().registerProcess((success, completed) -> {
+            cache.unlockItem(completed, key, lock);
+            timestamps.invalidate(spaces, completed);
+        });
+    }
+
+}
@@ -0,0 +1,67 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.transaction.api.TransactionCallbacks;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Per-user change counters of the trainings, advanced once a write of a training of the user commits.
+ * <p>
+ * The users share a fixed number of counters, picked by their ID, so the memory does not grow with the users;
+ * a write of a training then also changes the version of the other users sharing its counter, which only costs
+ * them a needless full response. All counters are offset by a random value, so that a version handed out before
+ * a restart does not match the versions handed out after it. A reader has to take the version before it reads
+ * the trainings; a write committed in between then only makes the version older than the read data, never newer.
+ */
+@Component
+class TrainingVersions {
+
+    private static final int COUNTERS = 4096;
+
+    private final AtomicLongArray counters = new AtomicLongArray(COUNTERS);
+    private final long offset = ThreadLocalRandom.current().nextLong() >>> 1;
+
+    /**
+     * Returns the current version of the trainings of a user.
+     *
+     * @param userId the ID of the user
+     * @return the current version of the trainings of the user
+     */
+    long current(Long userId) {
+        return offset + counters.get(counterOf(userId));
+    }
+
+    /**
+     * Advances the version of the trainings of the users affected by created or updated trainings
+     * once the current transaction commits.
+     *
+     * @param writes the saved trainings
+     */
+    void onSaved(List<TrainingWrite> writes) {
+        long[] userIds = writes.stream()
+                .flatMap(write -> Stream.of(write.previousUserId(), write.userId()))
+                .filter(Objects::nonNull)
+                .mapToLong(Long::longValue)
+                .distinct()
+                .toArray();
+        TransactionCallbacks.afterCommit(() -> {
+            for (long userId : userIds) {
+                advance(userId);
+            }
+        });
+    }
+
+    private void advance(long userId) {
+        counters.incrementAndGet(counterOf(userId));
+    }
+
+    private static int counterOf(long userId) {
+        return (int) ((userId ^ (userId >>> 32)) & (COUNTERS - 1));
+    }
+
+}
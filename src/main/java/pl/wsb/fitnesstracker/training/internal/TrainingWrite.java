@@ -0,0 +1,51 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.annotation.Nullable;
+import pl.wsb.fitnesstracker.achievement.api.TrainingEvent;
+import pl.wsb.fitnesstracker.statistics.api.TrainingContribution;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.api.TrainingSampleDto;
+
+/**
+ * A created or updated training, as applied to the state derived from the trainings once it is saved.
+ *
+ * @param previous the training before the update, {@code null} for a created training
+ * @param userId   the ID of the user the training belongs to
+ * @param sample   the saved values of the training
+ */
+record TrainingWrite(@Nullable TrainingEvent previous, Long userId, TrainingSampleDto sample) {
+
+    static TrainingWrite created(Training training) {
+        return new TrainingWrite(null, training.getUser().getId(), sampleOf(training));
+    }
+
+    static TrainingWrite updated(TrainingEvent previous, Training training) {
+        return new TrainingWrite(previous, training.getUser().getId(), sampleOf(training));
+    }
+
+    /**
+     * @return the ID of the user the training belonged to before the update, {@code null} for a created training
+     */
+    @Nullable
+    Long previousUserId() {
+        return previous == null ? null : previous.userId();
+    }
+
+    TrainingEvent event() {
+        return new TrainingEvent(userId, sample.activityType(), sample.distance(), sample.endTime().toInstant());
+    }
+
+    TrainingContribution contribution() {
+        return new TrainingContribution(userId, sample.activityType(), sample.distance());
+    }
+
+    private static TrainingSampleDto sampleOf(Training training) {
+        return new TrainingSampleDto(training.getId(),
+                training.getStartTime(),
+                training.getEndTime(),
+                training.getActivityType(),
+                training.getDistance(),
+                training.getAverageSpeed());
+    }
+
+}
@@ -0,0 +1,175 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import pl.wsb.fitnesstracker.training.api.TrainingSampleDto;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+/**
+ * Immutable, columnar snapshot of all trainings of a single user, ordered by start time and ID.
+ * <p>
+ * Every attribute is kept in its own primitive array, so a series takes a fraction of the memory of the corresponding
+ * entities, and a time window is located with two binary searches over the start times.
+ * Modifications return a new series, so readers never observe a partially updated one.
+ */
+final class UserTrainingSeries {
+
+    /**
+     * Approximate heap usage of a single training: id, start, end, distance and speed (8 bytes each) and the ordinal.
+     */
+    private static final long BYTES_PER_TRAINING = 5L * Long.BYTES + Byte.BYTES;
+
+    /**
+     * Approximate heap usage of the series object and its six array headers.
+     */
+    private static final long BYTES_OVERHEAD = 128;
+
+    private static final ActivityType[] ACTIVITY_TYPES = ActivityType.values();
+
+    private final long[] ids;
+    private final long[] startTimes;
+    private final long[] endTimes;
+    private final double[] distances;
+    private final double[] averageSpeeds;
+    private final byte[] activityTypes;
+
+    private UserTrainingSeries(int size) {
+        this.ids = new long[size];
+        this.startTimes = new long[size];
+        this.endTimes = new long[size];
+        this.distances = new double[size];
+        this.averageSpeeds = new double[size];
+        this.activityTypes = new byte[size];
+    }
+
+    /**
+     * Creates the series out of the trainings of a user.
+     *
+     * @param samples trainings of the user, ordered by start time and ID
+     * @return the series holding all the given trainings
+     */
+    static UserTrainingSeries of(List<TrainingSampleDto> samples) {
+        UserTrainingSeries series = new UserTrainingSeries(samples.size());
+        for (int i = 0; i < samples.size(); i++) {
+            series.set(i, samples.get(i));
+        }
+        return series;
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long sizeInBytes() {
+        return BYTES_OVERHEAD + BYTES_PER_TRAINING * ids.length;
+    }
+
+    /**
+     * Finds the trainings that started within the given time window.
+     *
+     * @param from inclusive start of the window, in epoch milliseconds
+     * @param to   exclusive end of the window, in epoch milliseconds
+     * @return trainings started within the window, ordered by start time
+     */
+    List<TrainingSampleDto> window(long from, long to) {
+        int first = firstStartingAtOrAfter(from);
+        int last = firstStartingAtOrAfter(to);
+        List<TrainingSampleDto> samples = new ArrayList<>(Math.max(0, last - first));
+        for (int i = first; i < last; i++) {
+            samples.add(get(i));
+        }
+        return samples;
+    }
+
+    /**
+     * Returns a series in which the training with the ID of the given sample is inserted or replaced.
+     *
+     * @param sample the current state of the training
+     * @return the modified series
+     */
+    UserTrainingSeries with(TrainingSampleDto sample) {
+        UserTrainingSeries base = without(sample.id());
+        int position = base.insertionPoint(sample.startTime().getTime(), sample.id());
+        UserTrainingSeries series = new UserTrainingSeries(base.size() + 1);
+        base.copyTo(0, series, 0, position);
+        series.set(position, sample);
+        base.copyTo(position, series, position + 1, base.size() - position);
+        return series;
+    }
+
+    /**
+     * Returns a series without the training of the given ID.
+     *
+     * @param trainingId the ID of the training to remove
+     * @return the modified series, or this series if it does not contain the training
+     */
+    UserTrainingSeries without(long trainingId) {
+        int index = indexOf(trainingId);
+        if (index < 0) {
+            return this;
+        }
+        UserTrainingSeries series = new UserTrainingSeries(size() - 1);
+        copyTo(0, series, 0, index);
+        copyTo(index + 1, series, index, size() - index - 1);
+        return series;
+    }
+
+    private int indexOf(long trainingId) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == trainingId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int firstStartingAtOrAfter(long time) {
+        int low = 0;
+        int high = startTimes.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (startTimes[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int insertionPoint(long startTime, long id) {
+        int position = firstStartingAtOrAfter(startTime);
+        while (position < ids.length && startTimes[position] == startTime && ids[position] < id) {
+            position++;
+        }
+        return position;
+    }
+
+    private TrainingSampleDto get(int index) {
+        return new TrainingSampleDto(ids[index],
+                new Date(startTimes[index]),
+                new Date(endTimes[index]),
+                ACTIVITY_TYPES[activityTypes[index]],
+                distances[index],
+                averageSpeeds[index]);
+    }
+
+    private void set(int index, TrainingSampleDto sample) {
+        ids[index] = sample.id();
+        startTimes[index] = sample.startTime().getTime();
+        endTimes[index] = sample.endTime().getTime();
+        distances[index] = sample.distance();
+        averageSpeeds[index] = sample.averageSpeed();
+        activityTypes[index] = (byte) sample.activityType().ordinal();
+    }
+
+    private void copyTo(int from, UserTrainingSeries target, int to, int length) {
+        System.arraycopy(ids, from, target.ids, to, length);
+        System.arraycopy(startTimes, from, target.startTimes, to, length);
+        System.arraycopy(endTimes, from, target.endTimes, to, length);
+        System.arraycopy(distances, from, target.distances, to, length);
+        System.arraycopy(averageSpeeds, from, target.averageSpeeds, to, length);
+        System.arraycopy(activityTypes, from, target.activityTypes, to, length);
+    }
+
+}
@@ -0,0 +1,57 @@
+package pl.wsb.fitnesstracker.transaction.api;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Actions deferred until the current transaction completes, used to apply writes to in-memory state only once
+ * their outcome is known. Outside a transaction the writes are already final, so the actions run right away.
+ */
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Runs an action once the current transaction commits; it is dropped if the transaction rolls back.
+     *
+     * @param action the action to run
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs one of two actions once the current transaction completes. A transaction with an unknown outcome is
+     * handled as committed.
+     *
+     * @param onCommit   the action to run if the transaction commits
+     * @param onRollback the action to run if the transaction rolls back
+     */
+    public static void afterCompletion(Runnable onCommit, Runnable onRollback) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    onRollback.run();
+                } else {
+                    onCommit.run();
+                }
+            }
+        });
+    }
+
+}
@@ -0,0 +1,4 @@
+@NonNullByDefault
+package pl.wsb.fitnesstracker.transaction.api;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -3,6 +3,10 @@ package pl.wsb.fitnesstracker.user.api;
 import jakarta.annotation.Nullable;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import pl.wsb.fitnesstracker.cache.api.CacheRegions;
+import pl.wsb.fitnesstracker.user.internal.UserWriteListener;
 
 import java.time.LocalDate;
 
@@ -15,6 +19,9 @@ import java.time.LocalDate;
  */
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USERS)
+@EntityListeners(UserWriteListener.class)
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString
@@ -73,5 +80,15 @@ public class User {
         this.email = email;
     }
 
-}
+    /**
+     * Creates a detached copy of this user, with the same ID and details.
+     *
+     * @return the copy of this user
+     */
+    public User copy() {
+        User copy = new User(firstName, lastName, birthdate, email);
+        copy.id = id;
+        return copy;
+    }
 
+}
@@ -0,0 +1,9 @@
+package pl.wsb.fitnesstracker.user.api;
+
+/**
+ * Number of users matching a query, returned instead of the users themselves.
+ *
+ * @param count the number of matching users
+ */
+public record UserCountDto(long count) {
+}
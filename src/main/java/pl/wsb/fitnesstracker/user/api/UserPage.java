@@ -0,0 +1,15 @@
+package pl.wsb.fitnesstracker.user.api;
+
+import jakarta.annotation.Nullable;
+
+import java.util.List;
+/**
+ * A single page of users returned by the keyset (cursor) paginated queries.
+ * Users are ordered by their birthdate and ID, oldest first, so a page is always continued
+ * exactly where the previous one ended, no matter how deep the client has paged.
+ *
+ * @param content the users on this page
+ * @param next    opaque cursor of the following page; {@code null} if this is the last page
+ */
+public record UserPage(List<UserDto> content, @Nullable String next) {
+}
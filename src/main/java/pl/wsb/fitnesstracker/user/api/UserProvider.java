@@ -1,7 +1,11 @@
 package pl.wsb.fitnesstracker.user.api;
 
+import jakarta.annotation.Nullable;
+
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface UserProvider {
@@ -15,12 +19,38 @@ public interface UserProvider {
      */
     Optional<User> getUserById(Long userId);
 
+    /**
+     * Retrieves all users with the given IDs using a single query.
+     * IDs that do not match any user are skipped.
+     *
+     * @param userIds ids of the users to be searched
+     * @return list of the located users
+     */
+    List<User> getUsersByIds(Collection<Long> userIds);
+
+    /**
+     * Retrieves a chunk of users ordered by ID, starting right after the given user ID.
+     * Iterating over all users chunk by chunk keeps only a single chunk in memory.
+     *
+     * @param afterUserId the ID after which the users are retrieved, {@code 0} for the first chunk
+     * @param limit       maximal number of users in the chunk
+     * @return the users following the given ID; empty once all users were retrieved
+     */
+    List<User> getUsersAfter(long afterUserId, int limit);
+
     /**
      * Retrieves all users.
      *
      * @return An {@link Optional} containing the all users,
      */
     List<User> findAllUsers();
+    /**
+     * Retrieves all users ordered by ID, reading and returning only the requested fields.
+     *
+     * @param fields names of the requested fields, as in {@link UserDto}
+     * @return the users, each with the requested fields only, in the requested order
+     */
+    List<Map<String, Object>> findAllUserFields(List<String> fields);
     /**
      * Retrieves a list of users matching the given first name and last name.
      *
@@ -33,21 +63,47 @@ public interface UserProvider {
      * Finds users whose email contains the specified partial string.
      *
      * @param email a partial email string to search for (case insensitive)
-     * @return a list of users matching the partial email, represented as UserDtoEmail objects
+     * @param limit maximal number of returned users, or {@code null} for the configured default
+     * @return the first users matching the partial email ordered by ID, represented as UserDtoEmail objects
+     */
+    List<UserDtoEmail> findUserByEmailPartial(String email, @Nullable Integer limit);
+    /**
+     * Retrieves a single page of users older than the specified age in years, oldest first.
+     *
+     * @param years    the minimum age of users to retrieve
+     * @param cursor   cursor of the page, or {@code null} for the first page
+     * @param pageSize requested page size, or {@code null} for the configured default
+     * @return the requested page of users older than the given age
+     */
+    UserPage getUsersOlderThanAge(int years, @Nullable String cursor, @Nullable Integer pageSize);
+    /**
+     * Counts the users older than the specified age in years.
+     *
+     * @param years the minimum age of users to count
+     * @return number of users older than the given age
+     */
+    long countUsersOlderThanAge(int years);
+    /**
+     * Retrieves a single page of users older than the specified date, oldest first.
+     *
+     * @param date     the date threshold; users born before this date will be returned
+     * @param cursor   cursor of the page, or {@code null} for the first page
+     * @param pageSize requested page size, or {@code null} for the configured default
+     * @return the requested page of users born before the specified birthdate
      */
-    List<UserDtoEmail> findUserByEmailPartial(String email);
+    UserPage getUsersOlderThan(LocalDate date, @Nullable String cursor, @Nullable Integer pageSize);
     /**
-     * Retrieves users older than the specified age in years.
+     * Counts the users older than the specified date.
      *
-     * @param years the minimum age of users to retrieve
-     * @return a list of users older than the given age
+     * @param date the date threshold; users born before this date will be counted
+     * @return number of users born before the specified birthdate
      */
-    List<User> getUsersOlderThanAge(int years);
+    long countUsersOlderThan(LocalDate date);
     /**
-     * Retrieves users older than the specified date.
+     * Returns the current version of the users, changed by every committed write of any user.
+     * The version has to be taken before the users are read, as it tells which writes the read data include at least.
      *
-     * @param date the date threshold; users born before this date will be returned
-     * @return a list of users born before the specified birthdate
+     * @return the current version of the users
      */
-    List<User> getUsersOlderThan(LocalDate date);
+    long getUsersVersion();
 }
@@ -0,0 +1,175 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Nullable;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.transaction.api.TransactionCallbacks;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of the users looked up by their ID.
+ * <p>
+ * The cache is split into segments locked independently, each evicting its least recently used users once it holds
+ * its share of the configured maximal size; users older than the configured time to live are evicted when they
+ * are read. The cached users are private copies, every read returns a new detached copy, so that no caller can
+ * change a cached user or attach it to its persistence context.
+ * <p>
+ * Writes invalidate the user right away and once more when their transaction completes, and a user loaded
+ * concurrently with any invalidation is not cached, as it may have been read before the write committed.
+ * Hits, misses, evictions and the size are published as the {@code users.cache.*} meters.
+ */
+@Component
+class UserCache {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final long ttlNanos;
+    /**
+     * Number of invalidations so far, compared before and after a load to tell whether the loaded user may be stale.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+
+    UserCache(UserProperties userProperties, MeterRegistry meterRegistry) {
+        int maxSize = Math.max(1, userProperties.getCacheMaxSize());
+        int segmentCount = Integer.highestOneBit(Math.min(MAX_SEGMENTS, maxSize));
+        this.segments = new Segment[segmentCount];
+        Arrays.setAll(segments, i -> new Segment((maxSize + segmentCount - 1) / segmentCount));
+        this.ttlNanos = userProperties.getCacheTtl().toNanos();
+
+        this.hits = gets(meterRegistry, "hit");
+        this.misses = gets(meterRegistry, "miss");
+        this.sizeEvictions = evictions(meterRegistry, "size");
+        this.expiredEvictions = evictions(meterRegistry, "expired");
+        Gauge.builder("users.cache.size", this, UserCache::size)
+                .description("Number of users held by the user cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Finds a user in the cache, or loads and caches it on a miss.
+     *
+     * @param id     the ID of the user
+     * @param loader loads the user from the database
+     * @return a copy of the cached user, the loaded user on a miss, or empty if the user does not exist
+     */
+    Optional<User> get(Long id, Function<Long, Optional<User>> loader) {
+        Segment segment = segmentFor(id);
+        User cached = segment.get(id);
+        if (cached != null) {
+            hits.increment();
+            return Optional.of(cached.copy());
+        }
+        misses.increment();
+        long version = invalidations.get();
+        Optional<User> loaded = loader.apply(id);
+        loaded.ifPresent(user -> segment.put(id, user.copy(), version));
+        return loaded;
+    }
+
+    /**
+     * Evicts a written user now and again once the current transaction, if any, completes.
+     *
+     * @param id the ID of the updated or deleted user
+     */
+    void invalidate(Long id) {
+        evict(id);
+        TransactionCallbacks.afterCompletion(() -> evict(id), () -> evict(id));
+    }
+
+    private void evict(Long id) {
+        // counted before the removal, so that a load racing with it either sees the count or is removed afterwards
+        invalidations.incrementAndGet();
+        segmentFor(id).remove(id);
+    }
+
+    private int size() {
+        return Arrays.stream(segments).mapToInt(Segment::size).sum();
+    }
+
+    private Segment segmentFor(Long id) {
+        long hash = id ^ (id >>> 32);
+        return segments[(int) hash & (segments.length - 1)];
+    }
+
+    private static Counter gets(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("users.cache.gets")
+                .description("Lookups of users by ID in the user cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter evictions(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder("users.cache.evictions")
+                .description("Users evicted from the user cache")
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+
+    private record Entry(User user, long expiresAt) {
+    }
+
+    /**
+     * Part of the cache guarded by its own lock, ordered from the least to the most recently used user.
+     */
+    private final class Segment {
+
+        private final LinkedHashMap<Long, Entry> entries;
+
+        Segment(int maxSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                    if (size() <= maxSize) {
+                        return false;
+                    }
+                    sizeEvictions.increment();
+                    return true;
+                }
+            };
+        }
+
+        synchronized @Nullable User get(Long id) {
+            Entry entry = entries.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAt() >= 0) {
+                entries.remove(id);
+                expiredEvictions.increment();
+                return null;
+            }
+            return entry.user();
+        }
+
+        synchronized void put(Long id, User user, long version) {
+            if (invalidations.get() == version) {
+                entries.put(id, new Entry(user, System.nanoTime() + ttlNanos));
+            }
+        }
+
+        synchronized void remove(Long id) {
+            entries.remove(id);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+    }
+
+}
@@ -1,15 +1,22 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import jakarta.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserCountDto;
 import pl.wsb.fitnesstracker.user.api.UserDto;
 import pl.wsb.fitnesstracker.user.api.UserDtoBasic;
 import pl.wsb.fitnesstracker.user.api.UserDtoEmail;
+import pl.wsb.fitnesstracker.user.api.UserPage;
+import pl.wsb.fitnesstracker.web.api.VersionedResponses;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 /**
  * REST controller handling user-related API endpoints for FitnessTracker.
@@ -36,6 +43,17 @@ class UserController {
                 .map(userMapper::toDto)
                 .toList();
     }
+    /**
+     * Retrieves all users reduced to the requested fields, e.g. {@code ?fields=id,email};
+     * only the columns of those fields are read from the database.
+     *
+     * @param fields names of the requested fields, as in UserDto
+     * @return list of users with the requested fields only
+     */
+    @GetMapping(params = "fields")
+    public List<Map<String, Object>> getAllUserFields(@RequestParam List<String> fields) {
+        return userService.findAllUserFields(fields);
+    }
     /**
      * Creates a new user with the provided data.
      *
@@ -52,15 +70,19 @@ class UserController {
     }
     /**
      * Retrieves a list of all users with basic details (ID, first name, last name).
+     * The list is tagged with the version of the users; a request whose {@code If-None-Match} carries the current
+     * version is answered with {@code 304 Not Modified} without reading the users.
      *
-     * @return list of users as UserDtoBasic
+     * @param request the request, checked for a matching {@code If-None-Match}
+     * @return list of users as UserDtoBasic, or no body if the client's copy is current
      */
     @GetMapping("/simple")
-    public List<UserDtoBasic> getBasicUsers() {
-        return userService.findAllUsers()
-                .stream()
-                .map(userMapper::toDtoBasic)
-                .toList();
+    public ResponseEntity<List<UserDtoBasic>> getBasicUsers(WebRequest request) {
+        return VersionedResponses.ifModified("%x".formatted(userService.getUsersVersion()), request,
+                () -> userService.findAllUsers()
+                        .stream()
+                        .map(userMapper::toDtoBasic)
+                        .toList());
     }
     /**
      * Deletes the user identified by the given ID.
@@ -98,31 +120,61 @@ class UserController {
      * Retrieves users whose email contains the specified partial string.
      *
      * @param email partial email to search for
-     * @return list of matching users as UserDtoEmail
+     * @param limit maximal number of returned users; configured default if absent
+     * @return the first matching users ordered by ID, as UserDtoEmail
      */
     @GetMapping("/email")
-    public List<UserDtoEmail> getUserByEmail(@RequestParam String email) {
-        return userService.findUserByEmailPartial(email);
+    public List<UserDtoEmail> getUserByEmail(@RequestParam String email,
+                                             @RequestParam(required = false) @Nullable Integer limit) {
+        return userService.findUserByEmailPartial(email, limit);
     }
     /**
-     * Retrieves users older than the specified age.
+     * Retrieves a page of users older than the specified age, oldest first.
      *
-     * @param age the minimum age of users to retrieve
-     * @return list of users older than the given age
+     * @param age    the minimum age of users to retrieve
+     * @param cursor cursor of the requested page, taken from {@link UserPage#next()}; first page if absent
+     * @param size   number of users on the page; configured default if absent
+     * @return page of users older than the given age
      */
     @GetMapping("/olderThanAge/{age}")
-    public List<User> getUsersOlderThanAge(@PathVariable int age) {
-        return userService.getUsersOlderThanAge(age);
+    public UserPage getUsersOlderThanAge(@PathVariable int age,
+                                         @RequestParam(required = false) @Nullable String cursor,
+                                         @RequestParam(required = false) @Nullable Integer size) {
+        return userService.getUsersOlderThanAge(age, cursor, size);
     }
     /**
-     * Retrieves users older than the specified birthdate.
+     * Counts the users older than the specified age, without retrieving them.
      *
-     * @param time the birthdate threshold in yyyy-MM-dd format
-     * @return list of users born before the given date
+     * @param age the minimum age of users to count
+     * @return number of users older than the given age
+     */
+    @GetMapping("/olderThanAge/{age}/count")
+    public UserCountDto countUsersOlderThanAge(@PathVariable int age) {
+        return new UserCountDto(userService.countUsersOlderThanAge(age));
+    }
+    /**
+     * Retrieves a page of users older than the specified birthdate, oldest first.
+     *
+     * @param time   the birthdate threshold in yyyy-MM-dd format
+     * @param cursor cursor of the requested page, taken from {@link UserPage#next()}; first page if absent
+     * @param size   number of users on the page; configured default if absent
+     * @return page of users born before the given date
      */
     @GetMapping("/older/{time}")
-    public List<User> getUsersOlderThan(@PathVariable String time) {
-        return userService.getUsersOlderThan(LocalDate.parse(time));
+    public UserPage getUsersOlderThan(@PathVariable String time,
+                                      @RequestParam(required = false) @Nullable String cursor,
+                                      @RequestParam(required = false) @Nullable Integer size) {
+        return userService.getUsersOlderThan(LocalDate.parse(time), cursor, size);
+    }
+    /**
+     * Counts the users older than the specified birthdate, without retrieving them.
+     *
+     * @param time the birthdate threshold in yyyy-MM-dd format
+     * @return number of users born before the given date
+     */
+    @GetMapping("/older/{time}/count")
+    public UserCountDto countUsersOlderThan(@PathVariable String time) {
+        return new UserCountDto(userService.countUsersOlderThan(LocalDate.parse(time)));
     }
     /**
      * Updates the user with the given ID using provided new data.
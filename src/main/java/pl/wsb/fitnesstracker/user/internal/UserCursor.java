@@ -0,0 +1,46 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.web.api.KeysetCursors;
+
+import java.time.LocalDate;
+/**
+ * Position in the (birthdate, id) ordered users used by keyset pagination.
+ * Clients only ever see it in the encoded, opaque form.
+ *
+ * @param birthdate birthdate of the last user on the previous page
+ * @param id        ID of the last user on the previous page
+ */
+record UserCursor(LocalDate birthdate, Long id) {
+
+    /**
+     * Creates the cursor pointing right after the given user.
+     *
+     * @param user the last user on a page
+     * @return cursor of the following page
+     */
+    static UserCursor after(User user) {
+        return new UserCursor(user.getBirthdate(), user.getId());
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param cursor the opaque cursor received from the client
+     * @return the decoded cursor
+     * @throws BusinessException if the cursor is malformed
+     */
+    static UserCursor decode(String cursor) {
+        return KeysetCursors.decode(cursor, (birthdate, id) -> new UserCursor(LocalDate.ofEpochDay(Long.parseLong(birthdate)), id));
+    }
+
+    /**
+     * Encodes the cursor into an opaque, URL safe string.
+     *
+     * @return the encoded cursor
+     */
+    String encode() {
+        return KeysetCursors.encode(birthdate.toEpochDay(), id);
+    }
+}
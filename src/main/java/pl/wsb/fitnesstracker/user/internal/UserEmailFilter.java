@@ -0,0 +1,165 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-process Bloom filter over the emails of the users, telling without a database round trip that an email is
+ * certainly not registered yet.
+ * <p>
+ * The filter is sized for the configured number of emails and false positive rate, built when the application starts
+ * and updated by the {@link UserWriteListener} on every saved user. Emails of deleted or updated users cannot be
+ * removed from the filter and only raise its false positive rate until the next start. The rate observed on the
+ * registrations is published as the {@code users.email.filter.false-positive-rate} gauge, next to the rate
+ * estimated from the filled bits.
+ */
+@Component
+@Slf4j
+class UserEmailFilter {
+
+    private static final int BUILD_CHUNK_SIZE = 1000;
+
+    private final UserRepository userRepository;
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong setBits = new AtomicLong();
+
+    private final Counter negatives;
+    private final Counter falsePositives;
+    private final Counter duplicates;
+
+    UserEmailFilter(UserRepository userRepository, UserProperties userProperties, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        long expectedEmails = userProperties.getEmailFilterExpectedEmails();
+        double falsePositiveRate = userProperties.getEmailFilterFalsePositiveRate();
+        // the optimal number of bits and hash functions for the expected number of emails and false positive rate
+        long optimalBits = (long) Math.ceil(-expectedEmails * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+        this.bitCount = bits.length() * 64L;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / expectedEmails * Math.log(2)));
+
+        this.negatives = lookups(meterRegistry, "negative");
+        this.falsePositives = lookups(meterRegistry, "false-positive");
+        this.duplicates = lookups(meterRegistry, "duplicate");
+        Gauge.builder("users.email.filter.false-positive-rate", this, UserEmailFilter::observedFalsePositiveRate)
+                .description("Share of unregistered emails the email filter reported as possibly registered")
+                .register(meterRegistry);
+        Gauge.builder("users.email.filter.expected-false-positive-rate", this, UserEmailFilter::expectedFalsePositiveRate)
+                .description("False positive rate of the email filter estimated from its filled bits")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds the emails of all existing users, chunk by chunk.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void build() {
+        long after = 0;
+        List<User> users;
+        while (!(users = userRepository.findByIdGreaterThan(after, PageRequest.of(0, BUILD_CHUNK_SIZE, Sort.by("id")))).isEmpty()) {
+            users.forEach(user -> put(user.getEmail()));
+            after = users.get(users.size() - 1).getId();
+        }
+        log.info("Built email filter of {} bits with {} hash functions, expected false positive rate {}",
+                bitCount, hashCount, expectedFalsePositiveRate());
+    }
+
+    /**
+     * Tells whether the email may be registered. A negative answer is certain and is counted as such;
+     * a positive answer must be confirmed by the database and its outcome passed to {@link #recordLookup(boolean)}.
+     *
+     * @param email the email
+     * @return {@code false} if the email is certainly not registered
+     */
+    boolean mightContain(String email) {
+        long hash = hash(email);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = bitIndex(hash, i);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                negatives.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the database lookup of an email the filter reported as possibly registered.
+     *
+     * @param registered whether the email was registered
+     */
+    void recordLookup(boolean registered) {
+        (registered ? duplicates : falsePositives).increment();
+    }
+
+    /**
+     * Adds an email to the filter.
+     */
+    void put(String email) {
+        long hash = hash(email);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = bitIndex(hash, i);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long previous = bits.getAndAccumulate(word, mask, (value, m) -> value | m);
+            if ((previous & mask) == 0) {
+                setBits.incrementAndGet();
+            }
+        }
+    }
+
+    private double observedFalsePositiveRate() {
+        double unregistered = negatives.count() + falsePositives.count();
+        return unregistered == 0 ? 0 : falsePositives.count() / unregistered;
+    }
+
+    private double expectedFalsePositiveRate() {
+        return Math.pow((double) setBits.get() / bitCount, hashCount);
+    }
+
+    /**
+     * Derives the i-th bit of an email from the two halves of its hash (double hashing).
+     */
+    private long bitIndex(long hash, int i) {
+        long combined = (int) hash + (long) i * (int) (hash >>> 32);
+        return Math.floorMod(combined, bitCount);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the email, finalized with the MurmurHash3 mix for well distributed halves.
+     */
+    private static long hash(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < email.length(); i++) {
+            hash ^= email.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("users.email.filter.lookups")
+                .description("Duplicate email checks of the registrations, by their result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+}
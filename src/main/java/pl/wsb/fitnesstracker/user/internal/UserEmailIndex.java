@@ -0,0 +1,157 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import jakarta.annotation.Nullable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserDtoEmail;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory trigram index of the user emails, answering case-insensitive substring searches without reading the users.
+ * <p>
+ * Every lowercased email is split into its overlapping three character grams, and every gram maps to the IDs of
+ * the users whose email contains it. A fragment of at least three characters is looked up through its rarest gram
+ * and the candidates are verified against the email, in the order of their IDs, until the requested number of matches
+ * is found. Shorter fragments match so many emails that the first matches are found by scanning the emails in the
+ * order of their IDs.
+ * <p>
+ * The index is built when the application starts and kept up to date by the {@link UserWriteListener} on every
+ * write of a user. Searches do not lock and may observe a concurrent write partially applied.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class UserEmailIndex {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private static final int BUILD_CHUNK_SIZE = 1000;
+
+    private final ConcurrentNavigableMap<Long, IndexedEmail> emails = new ConcurrentSkipListMap<>();
+
+    private final Map<String, NavigableSet<Long>> postings = new ConcurrentHashMap<>();
+
+    private final UserRepository userRepository;
+
+    /**
+     * Indexes all existing users, chunk by chunk.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void build() {
+        long after = 0;
+        List<User> users;
+        while (!(users = userRepository.findByIdGreaterThan(after, PageRequest.of(0, BUILD_CHUNK_SIZE, Sort.by("id")))).isEmpty()) {
+            users.forEach(user -> put(user.getId(), user.getEmail()));
+            after = users.get(users.size() - 1).getId();
+        }
+        log.info("Indexed emails of {} users", emails.size());
+    }
+
+    /**
+     * Finds the users whose email contains the fragment, case-insensitively.
+     *
+     * @param fragment the searched part of the email
+     * @param limit    maximal number of returned users
+     * @return the first matching users, ordered by ID
+     */
+    List<UserDtoEmail> search(String fragment, int limit) {
+        String normalized = normalize(fragment);
+        Iterable<Long> candidates = normalized.length() < GRAM_LENGTH ? emails.keySet() : rarestPosting(normalized);
+        List<UserDtoEmail> matches = new ArrayList<>(Math.min(limit, 64));
+        for (Long id : candidates) {
+            IndexedEmail email = emails.get(id);
+            if (email != null && email.normalized().contains(normalized)) {
+                matches.add(new UserDtoEmail(id, email.email()));
+                if (matches.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Indexes the current email of a user.
+     *
+     * @return the previously indexed email of the user, or {@code null} if the user was not indexed
+     */
+    @Nullable
+    synchronized String put(Long id, String email) {
+        IndexedEmail indexed = new IndexedEmail(email, normalize(email));
+        IndexedEmail previous = emails.put(id, indexed);
+        if (previous != null && previous.normalized().equals(indexed.normalized())) {
+            return previous.email();
+        }
+        if (previous != null) {
+            grams(previous.normalized()).forEach(gram -> removePosting(gram, id));
+        }
+        grams(indexed.normalized()).forEach(gram -> postings.computeIfAbsent(gram, g -> new ConcurrentSkipListSet<>()).add(id));
+        return previous == null ? null : previous.email();
+    }
+
+    /**
+     * Removes a user from the index.
+     *
+     * @return the previously indexed email of the user, or {@code null} if the user was not indexed
+     */
+    @Nullable
+    synchronized String remove(Long id) {
+        IndexedEmail previous = emails.remove(id);
+        if (previous == null) {
+            return null;
+        }
+        grams(previous.normalized()).forEach(gram -> removePosting(gram, id));
+        return previous.email();
+    }
+
+    private Iterable<Long> rarestPosting(String normalized) {
+        NavigableSet<Long> rarest = null;
+        for (String gram : grams(normalized)) {
+            NavigableSet<Long> posting = postings.get(gram);
+            if (posting == null) {
+                return List.of();
+            }
+            if (rarest == null || posting.size() < rarest.size()) {
+                rarest = posting;
+            }
+        }
+        return rarest;
+    }
+
+    private void removePosting(String gram, Long id) {
+        postings.computeIfPresent(gram, (g, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static Set<String> grams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indexed email together with its lowercased form the searches are verified against.
+     */
+    private record IndexedEmail(String email, String normalized) {
+    }
+
+}
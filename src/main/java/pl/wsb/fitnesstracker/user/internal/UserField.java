@@ -0,0 +1,28 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import pl.wsb.fitnesstracker.web.api.SelectableField;
+
+/**
+ * Field of a user that a client may request through the {@code fields} parameter, named as in
+ * {@link pl.wsb.fitnesstracker.user.api.UserDto} and mapped to the attribute of the same name.
+ */
+enum UserField implements SelectableField {
+
+    ID("id"),
+    FIRST_NAME("firstName"),
+    LAST_NAME("lastName"),
+    BIRTHDATE("birthdate"),
+    EMAIL("email");
+
+    private final String fieldName;
+
+    UserField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    @Override
+    public String fieldName() {
+        return fieldName;
+    }
+
+}
@@ -0,0 +1,20 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import jakarta.persistence.Tuple;
+
+import java.util.Collection;
+import java.util.List;
+/**
+ * Fragment of the {@link UserRepository} reading only the requested columns of the users.
+ */
+interface UserFieldsRepository {
+
+    /**
+     * Finds all users, selecting only the columns of the given fields.
+     *
+     * @param fields the fields to select
+     * @return users ordered by ID, with every selected field under its {@link UserField#fieldName() name}
+     */
+    List<Tuple> findFieldsOfAll(Collection<UserField> fields);
+
+}
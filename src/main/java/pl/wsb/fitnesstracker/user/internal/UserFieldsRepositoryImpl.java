@@ -0,0 +1,32 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.Collection;
+import java.util.List;
+/**
+ * Criteria query implementation of the {@link UserFieldsRepository}, with a select list built from the fields.
+ */
+@RequiredArgsConstructor
+class UserFieldsRepositoryImpl implements UserFieldsRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findFieldsOfAll(Collection<UserField> fields) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<User> root = query.from(User.class);
+        query.multiselect(fields.stream().<Selection<?>>map(field -> root.get(field.fieldName()).alias(field.fieldName())).toList());
+        query.orderBy(builder.asc(root.get("id")));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+}
@@ -0,0 +1,74 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the users module.
+ */
+@ConfigurationProperties(prefix = "users")
+@Getter
+class UserProperties {
+
+    /**
+     * Number of users returned on a single page when the client does not ask for a specific size.
+     */
+    private final int defaultPageSize;
+
+    /**
+     * Upper bound of the page size a client may request.
+     */
+    private final int maxPageSize;
+
+    /**
+     * Number of users returned by the email search when the client does not ask for a specific limit.
+     */
+    private final int emailSearchDefaultLimit;
+
+    /**
+     * Upper bound of the limit of the email search a client may request.
+     */
+    private final int emailSearchMaxLimit;
+
+    /**
+     * Number of emails the duplicate email filter is sized for.
+     */
+    private final long emailFilterExpectedEmails;
+
+    /**
+     * False positive rate of the duplicate email filter once it holds the expected number of emails.
+     */
+    private final double emailFilterFalsePositiveRate;
+
+    /**
+     * Maximal number of users held by the cache of the users looked up by ID.
+     */
+    private final int cacheMaxSize;
+
+    /**
+     * Time after which a cached user is read from the database again.
+     */
+    private final Duration cacheTtl;
+
+    UserProperties(@DefaultValue("50") int defaultPageSize,
+                   @DefaultValue("500") int maxPageSize,
+                   @DefaultValue("20") int emailSearchDefaultLimit,
+                   @DefaultValue("100") int emailSearchMaxLimit,
+                   @DefaultValue("1000000") long emailFilterExpectedEmails,
+                   @DefaultValue("0.01") double emailFilterFalsePositiveRate,
+                   @DefaultValue("10000") int cacheMaxSize,
+                   @DefaultValue("10m") Duration cacheTtl) {
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.emailSearchDefaultLimit = emailSearchDefaultLimit;
+        this.emailSearchMaxLimit = emailSearchMaxLimit;
+        this.emailFilterExpectedEmails = emailFilterExpectedEmails;
+        this.emailFilterFalsePositiveRate = emailFilterFalsePositiveRate;
+        this.cacheMaxSize = cacheMaxSize;
+        this.cacheTtl = cacheTtl;
+    }
+
+}
@@ -1,6 +1,12 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import pl.wsb.fitnesstracker.user.api.User;
 
 import java.time.LocalDate;
@@ -11,21 +17,32 @@ import java.util.Optional;
  * Repository interface for accessing {@link User} entities from the database.
  *
  * Extends {@link JpaRepository} to provide basic CRUD operations.
- * Includes several default methods for in-memory filtering of users.
+ * Includes a default method for in-memory filtering of users by name.
+ * The keyset (cursor) queries express the {@code (birthdate, id) > (:birthdate, :id)} position as
+ * {@code birthdate >= :birthdate and (birthdate > :birthdate or id > :id)}, so that the database can start a range
+ * scan of the (birthdate, id) index right at the cursor.
+ * <p>
+ * The results of the derived lookups are kept in the query cache, which drops them on any write of the users.
  */
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserFieldsRepository {
 
     /**
-     * Query searching users by email address. It matches by exact match.
+     * Finds the users that follow the given user ID.
+     *
+     * @param id       the ID after which the users are looked up
+     * @param pageable maximal number of returned users and their ordering by ID
+     * @return the following users
+     */
+    List<User> findByIdGreaterThan(Long id, Pageable pageable);
+
+    /**
+     * Query searching users by email address. It matches by exact match, through the unique index of the emails.
      *
      * @param email email of the user to search
      * @return {@link Optional} containing found user or {@link Optional#empty()} if none matched
      */
-    default Optional<User> findByEmail(String email) {
-        return findAll().stream()
-                .filter(user -> Objects.equals(user.getEmail(), email))
-                .findFirst();
-    }
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Optional<User> findByEmail(String email);
     /**
      * Searches for users with a specific first name and last name.
      *
@@ -40,38 +57,39 @@ public interface UserRepository extends JpaRepository<User, Long> {
                 .toList();
     }
     /**
-     * Searches for users whose email contains the specified string, case-insensitively.
+     * Finds the first page of users born before the specified date.
      *
-     * @param email a partial string to match within email addresses
-     * @return list of users whose email contains the given string
+     * @param before   the exclusive upper bound of the birthdate
+     * @param pageable page size and the (birthdate, id) ordering
+     * @return users on the first page
      */
-    default List<User> findByEmailPartial(String email) {
-        return findAll().stream()
-                .filter(user -> user.getEmail().toLowerCase().contains(email.toLowerCase()))
-                .toList();
-    }
-
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<User> findByBirthdateBefore(LocalDate before, Pageable pageable);
     /**
-     * Retrieves users older than the specified age.
+     * Finds the page of users born before the specified date that follows the given (birthdate, id) position.
      *
-     * @param years the minimum age in years
-     * @return list of users who are older than the given age
+     * @param before    the exclusive upper bound of the birthdate
+     * @param birthdate birthdate of the last user on the previous page
+     * @param id        ID of the last user on the previous page
+     * @param pageable  page size and the (birthdate, id) ordering
+     * @return users on the following page
      */
-    default List<User> findByOlderThanAge(int years) {
-        return findAll().stream()
-                .filter((user -> user.getBirthdate().plusYears(years).isBefore(LocalDate.now())))
-                .toList();
-    }
+    @Query("""
+            select u from User u
+            where u.birthdate < :before
+              and u.birthdate >= :birthdate and (u.birthdate > :birthdate or u.id > :id)
+            """)
+    List<User> findByBirthdateBeforeFromCursor(@Param("before") LocalDate before,
+                                               @Param("birthdate") LocalDate birthdate,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
     /**
-     * Retrieves users born before the specified date.
+     * Counts the users born before the specified date, from the birthdate index alone.
      *
-     * @param birthdate the cutoff birthdate
-     * @return list of users born before the given date
+     * @param before the exclusive upper bound of the birthdate
+     * @return number of users born before the date
      */
-    default List<User> findByOlderThan(LocalDate birthdate) {
-        return findAll().stream()
-                .filter(user -> user.getBirthdate().isBefore(birthdate))
-                .toList();
-    }
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    long countByBirthdateBefore(LocalDate before);
 
 }
@@ -1,13 +1,24 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import jakarta.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
 import pl.wsb.fitnesstracker.user.api.*;
+import pl.wsb.fitnesstracker.web.api.SelectableField;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 /**
  * Implementation of user-related business logic for the FitnessTracker application.
  * <p>
@@ -19,14 +30,27 @@ import java.util.Optional;
 @Slf4j
 class UserServiceImpl implements UserService, UserProvider {
 
+    /**
+     * Ordering used by the keyset pagination of the age queries, oldest first; the (birthdate, id) pair is unique.
+     */
+    private static final Sort BIRTHDATE_ORDER = Sort.by("birthdate", "id");
+
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final UserEmailIndex userEmailIndex;
+    private final UserEmailFilter userEmailFilter;
+    private final UserCache userCache;
+    private final UserVersions userVersions;
+    private final UserProperties userProperties;
     /**
      * Creates a new user.
+     * The email is checked against the {@link UserEmailFilter} first, so that the database is only asked about
+     * emails that may be registered already; the unique index of the emails decides concurrent registrations.
      *
      * @param user the user to be created
      * @return the created user
      * @throws IllegalArgumentException if the user already has an ID
+     * @throws BusinessException if a user with the same email already exists
      */
     @Override
     public User createUser(final User user) {
@@ -34,10 +58,24 @@ class UserServiceImpl implements UserService, UserProvider {
         if (user.getId() != null) {
             throw new IllegalArgumentException("User has already DB ID, update is not permitted!");
         }
-        return userRepository.save(user);
+        if (userEmailFilter.mightContain(user.getEmail())) {
+            boolean registered = userRepository.findByEmail(user.getEmail()).isPresent();
+            userEmailFilter.recordLookup(registered);
+            if (registered) {
+                throw duplicateEmail(user.getEmail());
+            }
+        }
+        try {
+            return userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            if (userRepository.findByEmail(user.getEmail()).isPresent()) {
+                throw duplicateEmail(user.getEmail());
+            }
+            throw e;
+        }
     }
     /**
-     * Deletes the user with the specified ID.
+     * Deletes the user with the specified ID and evicts it from the {@link UserCache}.
      *
      * @param id the ID of the user to delete
      * @throws IllegalArgumentException if the ID is null or the user does not exist
@@ -52,9 +90,10 @@ class UserServiceImpl implements UserService, UserProvider {
             throw new IllegalArgumentException("User with id " + id + " does not exist!");
         }
         userRepository.deleteById(id);
+        userCache.invalidate(id);
     }
     /**
-     * Updates an existing user with the given ID using data from a {@link UserDto}.
+     * Updates an existing user with the given ID using data from a {@link UserDto} and evicts it from the {@link UserCache}.
      *
      * @param id the ID of the user to update
      * @param userDto the data to update the user with
@@ -70,50 +109,115 @@ class UserServiceImpl implements UserService, UserProvider {
         user.setLastName(userDto.lastName());
         user.setBirthdate(userDto.birthdate());
         user.setEmail(userDto.email());
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.invalidate(id);
+        return saved;
     }
     /**
-     * Finds users whose email contains the specified substring (case-insensitive).
+     * Finds users whose email contains the specified substring (case-insensitive),
+     * served from the in-memory {@link UserEmailIndex} without reading the users.
      *
      * @param email the partial email to search for
-     * @return a list of users matching the partial email, as {@link UserDtoEmail}
+     * @param limit maximal number of returned users, or {@code null} for the configured default
+     * @return the first users matching the partial email ordered by ID, as {@link UserDtoEmail}
+     * @throws BusinessException if the limit is not positive
      */
     @Override
-    public List<UserDtoEmail> findUserByEmailPartial(String email) {
-        return userRepository.findByEmailPartial(email)
-                .stream()
-                .map(userMapper::toDtoEmail)
-                .toList();
+    public List<UserDtoEmail> findUserByEmailPartial(String email, @Nullable Integer limit) {
+        return userEmailIndex.search(email, resolveEmailSearchLimit(limit));
     }
     /**
-     * Retrieves all users who are older than the given age in years.
+     * Retrieves a single page of users who are older than the given age in years.
+     * The age is turned into a birthdate threshold once, and the users are read by a range scan of the birthdate index.
+     *
+     * @param years    the minimum age
+     * @param cursor   cursor of the page, or {@code null} for the first page
+     * @param pageSize requested page size, or {@code null} for the configured default
+     * @return the requested {@link UserPage}
+     * @throws BusinessException if the cursor or the page size is invalid
+     */
+    @Override
+    public UserPage getUsersOlderThanAge(int years, @Nullable String cursor, @Nullable Integer pageSize) {
+        return getUsersOlderThan(bornBefore(years, LocalDate.now()), cursor, pageSize);
+    }
+    /**
+     * Counts the users who are older than the given age in years.
      *
      * @param years the minimum age
-     * @return list of users older than the specified age
+     * @return number of users older than the specified age
+     */
+    @Override
+    public long countUsersOlderThanAge(int years) {
+        return userRepository.countByBirthdateBefore(bornBefore(years, LocalDate.now()));
+    }
+    /**
+     * Retrieves a single page of users born before the specified date.
+     *
+     * @param date     the birthdate threshold
+     * @param cursor   cursor of the page, or {@code null} for the first page
+     * @param pageSize requested page size, or {@code null} for the configured default
+     * @return the requested {@link UserPage}
+     * @throws BusinessException if the cursor or the page size is invalid
      */
     @Override
-    public List<User> getUsersOlderThanAge(int years) {
-        return userRepository.findByOlderThanAge(years);
+    public UserPage getUsersOlderThan(LocalDate date, @Nullable String cursor, @Nullable Integer pageSize) {
+        int size = resolvePageSize(pageSize);
+        // one user more than the page size tells whether a following page exists, without a count query
+        Pageable page = PageRequest.of(0, size + 1, BIRTHDATE_ORDER);
+        List<User> users;
+        if (cursor == null) {
+            users = userRepository.findByBirthdateBefore(date, page);
+        } else {
+            UserCursor position = UserCursor.decode(cursor);
+            users = userRepository.findByBirthdateBeforeFromCursor(date, position.birthdate(), position.id(), page);
+        }
+        if (users.size() <= size) {
+            return new UserPage(users.stream().map(userMapper::toDto).toList(), null);
+        }
+        List<User> content = users.subList(0, size);
+        return new UserPage(content.stream().map(userMapper::toDto).toList(), UserCursor.after(content.get(size - 1)).encode());
     }
     /**
-     * Retrieves users born before the specified date.
+     * Counts the users born before the specified date.
      *
      * @param date the birthdate threshold
-     * @return list of users born before the given date
+     * @return number of users born before the given date
      */
     @Override
-    public List<User> getUsersOlderThan(LocalDate date) {
-        return userRepository.findByOlderThan(date);
+    public long countUsersOlderThan(LocalDate date) {
+        return userRepository.countByBirthdateBefore(date);
     }
     /**
-     * Retrieves a user by their unique ID.
+     * Retrieves a user by their unique ID, through the {@link UserCache}.
+     * A user served from the cache is a detached copy.
      *
      * @param userId the user ID
      * @return an {@link Optional} containing the user if found, or empty if not
      */
     @Override
     public Optional<User> getUserById(final Long userId) {
-        return userRepository.findById(userId);
+        return userCache.get(userId, userRepository::findById);
+    }
+    /**
+     * Retrieves all users with the given IDs.
+     *
+     * @param userIds the user IDs
+     * @return list of the users found
+     */
+    @Override
+    public List<User> getUsersByIds(final Collection<Long> userIds) {
+        return userRepository.findAllById(userIds);
+    }
+    /**
+     * Retrieves a chunk of users ordered by ID, following the given user ID.
+     *
+     * @param afterUserId the ID after which the users are retrieved
+     * @param limit       maximal number of users in the chunk
+     * @return list of the users in the chunk
+     */
+    @Override
+    public List<User> getUsersAfter(final long afterUserId, final int limit) {
+        return userRepository.findByIdGreaterThan(afterUserId, PageRequest.of(0, limit, Sort.by("id")));
     }
     /**
      * Retrieves all users in the system.
@@ -124,6 +228,25 @@ class UserServiceImpl implements UserService, UserProvider {
     public List<User> findAllUsers() {
         return userRepository.findAll();
     }
+    /**
+     * Retrieves all users reduced to the requested fields.
+     * Only the columns of the requested fields are selected, without loading the entities.
+     *
+     * @param fields names of the requested fields
+     * @return the users ordered by ID, with the requested fields only
+     * @throws BusinessException if a field is unknown
+     */
+    @Override
+    public List<Map<String, Object>> findAllUserFields(List<String> fields) {
+        Set<UserField> requested = SelectableField.parse(UserField.class, fields);
+        return userRepository.findFieldsOfAll(requested).stream()
+                .map(row -> {
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    requested.forEach(field -> values.put(field.fieldName(), row.get(field.fieldName())));
+                    return values;
+                })
+                .toList();
+    }
     /**
      * Retrieves users with the specified first and last name.
      *
@@ -136,7 +259,48 @@ class UserServiceImpl implements UserService, UserProvider {
         return userRepository.findByName(firstName, lastName);
     }
 
+    /**
+     * Returns the current version of the users, kept by the {@link UserVersions}.
+     *
+     * @return the current version of the users
+     */
+    @Override
+    public long getUsersVersion() {
+        return userVersions.current();
+    }
 
+    private static BusinessException duplicateEmail(String email) {
+        return new BusinessException("User with email %s already exists".formatted(email));
+    }
+
+    /**
+     * Turns an age into the exclusive birthdate bound of the users older than it, so that
+     * {@code birthdate < bornBefore(years, today)} holds exactly when {@code birthdate.plusYears(years).isBefore(today)}.
+     */
+    static LocalDate bornBefore(int years, LocalDate today) {
+        LocalDate threshold = today.minusYears(years);
+        // on February 29 the users born on February 28 of the threshold year are already older than the age
+        return threshold.plusYears(years).isBefore(today) ? threshold.plusDays(1) : threshold;
+    }
+
+    private int resolvePageSize(@Nullable Integer pageSize) {
+        if (pageSize == null) {
+            return userProperties.getDefaultPageSize();
+        }
+        if (pageSize < 1) {
+            throw new BusinessException("Page size must be positive, got " + pageSize);
+        }
+        return Math.min(pageSize, userProperties.getMaxPageSize());
+    }
 
+    private int resolveEmailSearchLimit(@Nullable Integer limit) {
+        if (limit == null) {
+            return userProperties.getEmailSearchDefaultLimit();
+        }
+        if (limit < 1) {
+            throw new BusinessException("Limit must be positive, got " + limit);
+        }
+        return Math.min(limit, userProperties.getEmailSearchMaxLimit());
+    }
 
-}
\ No newline at end of file
+}
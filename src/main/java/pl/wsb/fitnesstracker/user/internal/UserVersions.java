@@ -0,0 +1,28 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change counter of the users table, advanced by the {@link UserWriteListener} once every write of a user commits.
+ * <p>
+ * The counter starts at a random value, so that a version handed out before a restart does not match the versions
+ * handed out after it. A reader has to take the version before it reads the users; a write committed in between
+ * then only makes the version older than the read data, never newer.
+ */
+@Component
+class UserVersions {
+
+    private final AtomicLong version = new AtomicLong(ThreadLocalRandom.current().nextLong() >>> 1);
+
+    long current() {
+        return version.get();
+    }
+
+    void advance() {
+        version.incrementAndGet();
+    }
+
+}
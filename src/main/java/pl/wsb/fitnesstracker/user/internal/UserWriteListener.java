@@ -0,0 +1,61 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import jakarta.annotation.Nullable;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import pl.wsb.fitnesstracker.transaction.api.TransactionCallbacks;
+import pl.wsb.fitnesstracker.user.api.User;
+
+/**
+ * Entity listener applying every write of a {@link User} to the {@link UserEmailIndex}, the {@link UserEmailFilter}
+ * and the {@link UserVersions}.
+ * <p>
+ * The write is applied to the index and the filter as soon as it is flushed, so it is visible to the searches of its
+ * own transaction, and it is reverted in the index if the transaction rolls back. The filter cannot remove emails,
+ * a rolled back email stays in it as a possible false positive. The version is advanced only once the write commits.
+ */
+@Component
+public class UserWriteListener {
+
+    private final UserEmailIndex userEmailIndex;
+    private final UserEmailFilter userEmailFilter;
+    private final UserVersions userVersions;
+
+    /**
+     * The index and the filter are injected lazily, as the listener is created together with the entity manager
+     * factory that they depend on themselves.
+     */
+    UserWriteListener(@Lazy UserEmailIndex userEmailIndex, @Lazy UserEmailFilter userEmailFilter, UserVersions userVersions) {
+        this.userEmailIndex = userEmailIndex;
+        this.userEmailFilter = userEmailFilter;
+        this.userVersions = userVersions;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void onSaved(User user) {
+        Long id = user.getId();
+        userEmailFilter.put(user.getEmail());
+        String previous = userEmailIndex.put(id, user.getEmail());
+        TransactionCallbacks.afterCompletion(userVersions::advance, () -> restore(id, previous));
+    }
+
+    @PostRemove
+    void onRemoved(User user) {
+        Long id = user.getId();
+        String previous = userEmailIndex.remove(id);
+        TransactionCallbacks.afterCompletion(userVersions::advance, () -> restore(id, previous));
+    }
+
+    private void restore(Long id, @Nullable String email) {
+        if (email == null) {
+            userEmailIndex.remove(id);
+        } else {
+            userEmailIndex.put(id, email);
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package pl.wsb.fitnesstracker.web.api;
+
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Base64;
+import java.util.function.BiFunction;
+
+/**
+ * Opaque form of the keyset pagination cursors: the position of the last item on a page, given by its ordering
+ * value and its ID, encoded as URL safe Base64 of {@code <value>:<id>}.
+ */
+public final class KeysetCursors {
+
+    private KeysetCursors() {
+    }
+
+    /**
+     * Encodes a position into an opaque, URL safe string.
+     *
+     * @param value the ordering value of the last item on the page, without a {@code :}
+     * @param id    the ID of the last item on the page
+     * @return the encoded cursor
+     */
+    public static String encode(Object value, Long id) {
+        String raw = value + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode(Object, Long)}.
+     *
+     * @param cursor the opaque cursor received from the client
+     * @param parser creates the cursor from the encoded ordering value and the ID; may throw
+     *               {@link IllegalArgumentException} or {@link DateTimeException} for a malformed value
+     * @return the decoded cursor
+     * @throws BusinessException if the cursor is malformed
+     */
+    public static <T> T decode(String cursor, BiFunction<String, Long, T> parser) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 2) {
+                throw new BusinessException("Invalid cursor: " + cursor);
+            }
+            return parser.apply(parts[0], Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BusinessException("Invalid cursor: " + cursor);
+        }
+    }
+
+}
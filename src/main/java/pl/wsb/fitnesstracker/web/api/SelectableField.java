@@ -0,0 +1,46 @@
+package pl.wsb.fitnesstracker.web.api;
+
+import pl.wsb.fitnesstracker.exception.api.BusinessException;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Field of a resource that a client may request through the {@code fields} parameter, implemented by an enum
+ * of all such fields of the resource.
+ */
+public interface SelectableField {
+
+    /**
+     * @return the name of the field, as requested by the clients and as rendered in the responses
+     */
+    String fieldName();
+
+    /**
+     * Parses the requested field names, keeping their order and dropping duplicates.
+     *
+     * @param type  the enum of the fields of the resource
+     * @param names the requested field names
+     * @return the requested fields, in the requested order
+     * @throws BusinessException if no field is requested or a field is unknown
+     */
+    static <F extends Enum<F> & SelectableField> Set<F> parse(Class<F> type, List<String> names) {
+        F[] known = type.getEnumConstants();
+        Set<F> fields = new LinkedHashSet<>();
+        for (String name : names) {
+            fields.add(Arrays.stream(known)
+                    .filter(field -> field.fieldName().equals(name.strip()))
+                    .findFirst()
+                    .orElseThrow(() -> new BusinessException("Unknown field %s, expected some of %s".formatted(name,
+                            Arrays.stream(known).map(SelectableField::fieldName).collect(Collectors.joining(","))))));
+        }
+        if (fields.isEmpty()) {
+            throw new BusinessException("At least one field is required");
+        }
+        return fields;
+    }
+
+}
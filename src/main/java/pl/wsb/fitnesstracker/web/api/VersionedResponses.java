@@ -0,0 +1,57 @@
+package pl.wsb.fitnesstracker.web.api;
+
+import jakarta.annotation.Nullable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Conditional responses of resources tagged with a version that changes with every write of their data.
+ * <p>
+ * The same version is served as JSON, CBOR or Smile, selected by the {@code Accept} header, so the entity tag
+ * combines the version with a key of that header and the responses carry {@code Vary: Accept}. A client switching
+ * its {@code Accept} header between polls then never gets {@code 304 Not Modified} for a copy in another format.
+ */
+public final class VersionedResponses {
+
+    private VersionedResponses() {
+    }
+
+    /**
+     * Answers with {@code 304 Not Modified} if the {@code If-None-Match} of the request carries the tag of the
+     * version in the requested representation, otherwise with the body tagged with it.
+     *
+     * @param version the current version of the resource
+     * @param request the request, checked for a matching {@code If-None-Match}
+     * @param body    supplier of the body, only called when the client's copy is not current
+     * @return the conditional response
+     */
+    public static <T> ResponseEntity<T> ifModified(String version, WebRequest request, Supplier<T> body) {
+        String eTag = "\"%s-%x\"".formatted(version, representationKey(request.getHeader(HttpHeaders.ACCEPT)));
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(eTag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .cacheControl(CacheControl.noCache())
+                .body(body.get());
+    }
+
+    /**
+     * The representation is negotiated from the {@code Accept} header alone, so equal headers always select
+     * the same representation; differently written headers selecting the same one only cost a full response.
+     */
+    private static int representationKey(@Nullable String accept) {
+        return accept == null ? 0 : accept.replace(" ", "").hashCode();
+    }
+
+}
@@ -0,0 +1,33 @@
+package pl.wsb.fitnesstracker.web.internal;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary representations of the request and response bodies, negotiated through the {@code Accept} and
+ * {@code Content-Type} headers: CBOR as {@code application/cbor} and Smile as {@code application/x-jackson-smile}.
+ * <p>
+ * Both encode the same object model as the JSON representation, with the same Jackson configuration, but without
+ * the field names repeated as text and the numbers printed as decimals, which makes large training lists much
+ * cheaper to write and to transfer. The converters replace the default ones of the same type, which come after
+ * the JSON converter, so JSON stays the representation of the requests that accept any media type.
+ */
+@Configuration
+class BinaryFormatsConfig {
+
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+}
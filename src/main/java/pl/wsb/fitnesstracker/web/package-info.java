@@ -0,0 +1,4 @@
+@NonNullByDefault
+package pl.wsb.fitnesstracker.web;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
\ No newline at end of file
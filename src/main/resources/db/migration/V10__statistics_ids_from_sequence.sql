@@ -0,0 +1,4 @@
+-- every statistics ID is taken from statistics_seq, also for the rows created by the database, so that they never
+-- collide with the IDs allocated by the application; the sequence continues after the existing IDs
+alter table statistics alter column id drop identity;
+alter sequence statistics_seq restart with (select coalesce(max(id), 0) + 1 from statistics);
@@ -0,0 +1,4 @@
+-- A run claims its month before reporting any user, so that the instances scheduled for the same month do not all
+-- report it. The claim expires unless the run renews it, so that a run that stopped without releasing it is resumed.
+alter table monthly_report_runs add column claim varchar(36);
+alter table monthly_report_runs add column lease_until timestamp;
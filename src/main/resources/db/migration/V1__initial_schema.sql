@@ -0,0 +1,35 @@
+create table users
+(
+    id         bigint generated by default as identity,
+    first_name varchar(255) not null,
+    last_name  varchar(255) not null,
+    birthdate  date         not null,
+    email      varchar(255) not null unique,
+    primary key (id)
+);
+
+create sequence trainings_seq start with 1 increment by 50;
+
+create table trainings
+(
+    id            bigint       not null,
+    user_id       bigint,
+    start_time    timestamp(6) not null,
+    end_time      timestamp(6) not null,
+    activity_type tinyint      not null check (activity_type between 0 and 4),
+    distance      float(53),
+    average_speed float(53),
+    primary key (id),
+    constraint trainings_user_fk foreign key (user_id) references users
+);
+
+create table statistics
+(
+    id                    bigint generated by default as identity,
+    user_id               bigint,
+    total_trainings       integer not null,
+    total_distance        float(53),
+    total_calories_burned integer,
+    primary key (id),
+    constraint statistics_user_fk foreign key (user_id) references users
+);
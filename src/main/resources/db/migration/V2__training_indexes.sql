@@ -0,0 +1,11 @@
+-- Composite indexes matching the training access paths. Every index ends with (end_time, id),
+-- so that the filtered lists can be read in the keyset pagination order.
+
+-- findByUser_Id, findByUserIdFromCursor
+create index trainings_user_end_time_idx on trainings (user_id, end_time, id);
+
+-- findAllByActivityType, findAllByActivityTypeFromCursor
+create index trainings_activity_type_end_time_idx on trainings (activity_type, end_time, id);
+
+-- findAllByEndTimeAfter, findAllByEndTimeAfterFromCursor, findAllBy, findAllFromCursor
+create index trainings_end_time_idx on trainings (end_time, id);
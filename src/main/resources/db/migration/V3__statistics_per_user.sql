@@ -0,0 +1,5 @@
+-- every user has at most one statistics row, read by the user ID
+alter table statistics add constraint statistics_user_uk unique (user_id);
+
+-- statistics IDs are allocated in blocks, so that rebuilt statistics can be inserted in JDBC batches
+create sequence statistics_seq start with 1 increment by 50;
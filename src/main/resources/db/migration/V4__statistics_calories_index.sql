@@ -0,0 +1,3 @@
+-- Calorie leaderboard: statistics ordered by the burned calories (highest first) and ID, matching the order of the
+-- threshold and top-N queries, so that both are served by a range scan that stops after the requested rows.
+create index statistics_calories_idx on statistics (total_calories_burned desc, id);
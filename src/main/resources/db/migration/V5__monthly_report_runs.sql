@@ -0,0 +1,8 @@
+-- Progress of the monthly training report runs, used to resume an interrupted run.
+create table monthly_report_runs
+(
+    report_month varchar(7) not null,
+    last_user_id bigint     not null,
+    completed    boolean    not null,
+    primary key (report_month)
+);
@@ -0,0 +1,13 @@
+-- Notifications written in the transaction of the change that triggers them, sent later by the outbox dispatcher.
+create table notification_outbox
+(
+    id         bigint       not null,
+    recipient  varchar(255) not null,
+    subject    varchar(255) not null,
+    content    clob         not null,
+    created_at timestamp    not null,
+    primary key (id)
+);
+
+-- outbox IDs are allocated in blocks, so that notifications of a batch can be inserted in JDBC batches
+create sequence notification_outbox_seq start with 1 increment by 50;
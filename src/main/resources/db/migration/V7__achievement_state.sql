@@ -0,0 +1,14 @@
+-- Running state of the achievement rules, one row per user with any training.
+-- recent_runs holds the end times (epoch seconds) of the latest runs, unlocked is a bit set of the achievements.
+create table achievement_state
+(
+    user_id           bigint       not null,
+    cycling_distance  float(53)    not null,
+    recent_runs       bigint array not null,
+    last_training_day bigint,
+    current_streak    integer      not null,
+    longest_streak    integer      not null,
+    unlocked          integer      not null,
+    primary key (user_id),
+    constraint achievement_state_user_fk foreign key (user_id) references users
+);
@@ -0,0 +1,2 @@
+-- age queries read the users born before a date, in (birthdate, id) order for the keyset pagination
+create index users_birthdate_idx on users (birthdate, id);
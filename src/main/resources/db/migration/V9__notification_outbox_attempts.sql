@@ -0,0 +1,5 @@
+-- A message stays in the outbox until the SMTP server accepted it; a failed send postpones the next attempt.
+alter table notification_outbox add column attempts integer default 0 not null;
+alter table notification_outbox add column next_attempt_at timestamp;
+update notification_outbox set next_attempt_at = created_at;
+alter table notification_outbox alter column next_attempt_at set not null;
@@ -0,0 +1,42 @@
+package pl.wsb.fitnesstracker;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Statement inspector of the test session factory, recording the SQL that Hibernate prepares on a thread
+ * while {@link #capture(Runnable)} runs there. All other statements pass through unrecorded.
+ */
+public class CapturingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    /**
+     * Runs the action and returns the SQL statements Hibernate prepared during it, in the order they were prepared.
+     *
+     * @param action the action issuing the statements, run on the current thread
+     * @return the prepared SQL statements, with their {@code ?} parameters
+     */
+    public static List<String> capture(Runnable action) {
+        List<String> statements = new ArrayList<>();
+        CAPTURED.set(statements);
+        try {
+            action.run();
+        } finally {
+            CAPTURED.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = CAPTURED.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+}
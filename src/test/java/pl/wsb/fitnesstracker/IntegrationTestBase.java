@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
 import pl.wsb.fitnesstracker.training.api.Training;
 import pl.wsb.fitnesstracker.user.api.User;
 
@@ -21,6 +23,12 @@ public abstract class IntegrationTestBase {
     @Autowired
     private JpaRepository<Training, Long> trainingRepository;
 
+    @Autowired
+    private JpaRepository<Statistics, Long> statisticsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @AfterEach
     void cleanUp() {
         cleanDatabase();
@@ -28,6 +36,9 @@ public abstract class IntegrationTestBase {
     }
 
     private void cleanDatabase() {
+        // the achievement state is internal to its module
+        jdbcTemplate.update("delete from achievement_state");
+        statisticsRepository.deleteAll();
         trainingRepository.deleteAll();
         userRepository.deleteAll();
     }
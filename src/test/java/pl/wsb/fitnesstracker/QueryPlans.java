@@ -0,0 +1,60 @@
+package pl.wsb.fitnesstracker;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.*;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Explains the SQL that Hibernate generates for repository methods, as captured by the
+ * {@link CapturingStatementInspector}, so that the query plan tests check the statements the application
+ * actually sends instead of hand-written copies of them.
+ */
+public final class QueryPlans {
+
+    private QueryPlans() {
+    }
+
+    /**
+     * Calls a repository method with empty caches, so that its query reaches the database, and explains the single
+     * statement it issued. The parameters of the statement are bound to sample values of their types, which do not
+     * change the index H2 chooses.
+     *
+     * @param entityManagerFactory the factory whose second-level and query caches are emptied first
+     * @param jdbcTemplate         the template running the {@code explain}
+     * @param repositoryCall       the call of the repository method
+     * @return the plan of the statement issued by the call
+     */
+    public static String explain(EntityManagerFactory entityManagerFactory, JdbcTemplate jdbcTemplate, Runnable repositoryCall) {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAll();
+        List<String> statements = CapturingStatementInspector.capture(repositoryCall);
+        assertThat(statements).as("statements issued by the repository call").hasSize(1);
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement explain = connection.prepareStatement("explain " + statements.get(0))) {
+                ParameterMetaData parameters = explain.getParameterMetaData();
+                for (int i = 1; i <= parameters.getParameterCount(); i++) {
+                    explain.setObject(i, sampleValue(parameters.getParameterType(i)));
+                }
+                try (ResultSet plan = explain.executeQuery()) {
+                    plan.next();
+                    return plan.getString(1);
+                }
+            }
+        });
+    }
+
+    private static Object sampleValue(int type) {
+        return switch (type) {
+            case Types.DATE -> Date.valueOf("2024-01-01");
+            case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> Timestamp.valueOf("2024-01-01 00:00:00");
+            case Types.VARCHAR, Types.CHAR -> "sample";
+            case Types.DOUBLE, Types.FLOAT, Types.REAL, Types.DECIMAL, Types.NUMERIC -> 1.0;
+            default -> 1;
+        };
+    }
+
+}
@@ -0,0 +1,213 @@
+package pl.wsb.fitnesstracker.achievement.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.achievement.api.Achievement;
+import pl.wsb.fitnesstracker.achievement.api.AchievementProvider;
+import pl.wsb.fitnesstracker.achievement.api.AchievementService;
+import pl.wsb.fitnesstracker.achievement.api.AchievementSummary;
+import pl.wsb.fitnesstracker.achievement.api.TrainingEvent;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The achievements are evaluated in the transactions of the training writes, so this test must not run
+ * in a test-managed transaction.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class AchievementIntegrationTest extends IntegrationTestBase {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 4, 1, 10, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AchievementProvider achievementProvider;
+
+    @Autowired
+    private AchievementService achievementService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static User generateClient() {
+        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID() + "@domain.com");
+    }
+
+    private static String trainingJson(Long userId, ActivityType activityType, double distance, LocalDateTime endTime) {
+        return """
+                {
+                    "userId": "%s",
+                    "startTime": "%s",
+                    "endTime": "%s",
+                    "activityType": "%s",
+                    "distance": %s,
+                    "averageSpeed": 8.0
+                }
+                """.formatted(userId, endTime.minusHours(1), endTime, activityType, distance);
+    }
+
+    private static Training generateTraining(User user, ActivityType activityType, double distance, LocalDateTime endTime) {
+        Date end = Date.from(endTime.atZone(ZoneId.systemDefault()).toInstant());
+        return new Training(user, new Date(end.getTime() - 3_600_000), end, activityType, distance, 8.0);
+    }
+
+    @Test
+    void shouldUnlockCyclingAchievement_whenCyclingDistanceReaches100Km() throws Exception {
+
+        User user = existingUser(generateClient());
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                            .content(trainingJson(user.getId(), ActivityType.CYCLING, 40.0, START.plusWeeks(i))))
+                    .andExpect(status().isCreated());
+        }
+        assertThat(achievementProvider.getAchievements(user.getId()).unlocked()).isEmpty();
+
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                        .content(trainingJson(user.getId(), ActivityType.CYCLING, 20.0, START.plusWeeks(2))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/v1/achievements/{userId}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unlocked[0]").value(Achievement.FIRST_100_KM_CYCLING.name()))
+                .andExpect(jsonPath("$.cyclingDistance").value(100.0))
+                .andExpect(jsonPath("$.longestStreak").value(1));
+    }
+
+    @Test
+    void shouldUnlockRunsAndStreakAchievements_whenCreatingTrainingsInBatch() throws Exception {
+
+        User user = existingUser(generateClient());
+        // runs on 5 of 7 consecutive days, walks on the others, in no particular order
+        String trainings = IntStream.of(6, 0, 3, 1, 5, 2, 4)
+                .mapToObj(day -> trainingJson(user.getId(), day == 2 || day == 4 ? ActivityType.WALKING : ActivityType.RUNNING,
+                        5.0, START.plusDays(day)))
+                .collect(Collectors.joining(",", "[", "]"));
+
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(trainings))
+                .andExpect(status().isOk());
+
+        AchievementSummary summary = achievementProvider.getAchievements(user.getId());
+        assertThat(summary.unlocked()).containsExactlyInAnyOrder(Achievement.FIVE_RUNS_IN_7_DAYS, Achievement.WEEK_STREAK);
+        assertThat(summary.currentStreak()).isEqualTo(7);
+        assertThat(summary.longestStreak()).isEqualTo(7);
+    }
+
+    @Test
+    void shouldRevertPreviousValues_whenUpdatingTraining() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                        .content(trainingJson(user1.getId(), ActivityType.CYCLING, 60.0, START)))
+                .andExpect(status().isCreated());
+        Long trainingId = getAllTrainings().get(0).getId();
+
+        mockMvc.perform(put("/v1/trainings/{trainingId}", trainingId).contentType(MediaType.APPLICATION_JSON)
+                        .content(trainingJson(user1.getId(), ActivityType.CYCLING, 45.0, START)))
+                .andExpect(status().isOk());
+        assertThat(achievementProvider.getAchievements(user1.getId()).cyclingDistance()).isCloseTo(45.0, within(1e-9));
+
+        mockMvc.perform(put("/v1/trainings/{trainingId}", trainingId).contentType(MediaType.APPLICATION_JSON)
+                        .content(trainingJson(user2.getId(), ActivityType.CYCLING, 45.0, START)))
+                .andExpect(status().isOk());
+        assertThat(achievementProvider.getAchievements(user1.getId()).cyclingDistance()).isCloseTo(0.0, within(1e-9));
+        assertThat(achievementProvider.getAchievements(user2.getId()).cyclingDistance()).isCloseTo(45.0, within(1e-9));
+    }
+
+    @Test
+    void shouldEvaluateBothTrainings_whenFirstTrainingsOfUserAreRecordedConcurrently() throws Exception {
+
+        User user = existingUser(generateClient());
+        List<TrainingEvent> trainings = List.of(new TrainingEvent(user.getId(), ActivityType.CYCLING, 60.0,
+                START.atZone(ZoneId.systemDefault()).toInstant()));
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            achievementService.recordTrainings(trainings);
+            recorded.countDown();
+            await(release);
+        }));
+        await(recorded);
+        // the second insert of the state waits for the uncommitted first one and is rejected once it commits
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> achievementService.recordTrainings(trainings)));
+        Thread.sleep(200);
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        AchievementSummary summary = achievementProvider.getAchievements(user.getId());
+        assertThat(summary.cyclingDistance()).isCloseTo(120.0, within(1e-9));
+        assertThat(summary.unlocked()).containsExactly(Achievement.FIRST_100_KM_CYCLING);
+    }
+
+    @Test
+    void shouldRebuildAchievementsFromTrainings_whenRebuilding() throws Exception {
+
+        User user = existingUser(generateClient());
+        // written around the service, so not evaluated
+        for (int day = 0; day < 5; day++) {
+            persistTraining(generateTraining(user, ActivityType.RUNNING, 5.0, START.plusDays(day)));
+        }
+        persistTraining(generateTraining(user, ActivityType.CYCLING, 120.0, START.plusDays(10)));
+        assertThat(achievementProvider.getAchievements(user.getId()).unlocked()).isEmpty();
+
+        mockMvc.perform(post("/v1/achievements/{userId}/rebuild", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.longestStreak").value(5))
+                .andExpect(jsonPath("$.currentStreak").value(1))
+                .andExpect(jsonPath("$.cyclingDistance").value(120.0));
+
+        assertThat(achievementProvider.getAchievements(user.getId()).unlocked())
+                .containsExactlyInAnyOrder(Achievement.FIVE_RUNS_IN_7_DAYS, Achievement.FIRST_100_KM_CYCLING);
+    }
+
+    @Test
+    void shouldReturnNotFound_whenRebuildingAchievementsOfMissingUser() throws Exception {
+
+        mockMvc.perform(post("/v1/achievements/{userId}/rebuild", 999_999L))
+                .andExpect(status().isNotFound());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
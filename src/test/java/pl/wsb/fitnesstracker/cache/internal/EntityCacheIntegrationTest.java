@@ -0,0 +1,189 @@
+package pl.wsb.fitnesstracker.cache.internal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.cache.api.CacheRegions;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Date;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class EntityCacheIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private static User generateUser() {
+        return new User(randomUUID().toString(), randomUUID().toString(), LocalDate.of(1980, 1, 1), randomUUID() + "@domain.com");
+    }
+
+    private static Training generateTraining(User user, double distance) {
+        return new Training(user,
+                Date.from(Instant.parse("2024-01-19T08:00:00Z")),
+                Date.from(Instant.parse("2024-01-19T09:30:00Z")),
+                ActivityType.RUNNING, distance, 8.0);
+    }
+
+    private double queryCacheRequests(String result) {
+        return meterRegistry.get("hibernate.cache.query.requests").tag("result", result).functionCounter().count();
+    }
+
+    /**
+     * Reads a training by its ID in a persistence context of its own, through the second-level cache.
+     */
+    private Training findTraining(Long id) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.find(Training.class, id);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private double statements() {
+        return meterRegistry.get("jdbc.statements").functionCounter().count();
+    }
+
+    @Test
+    void shouldServeRepeatedTrainingReadsFromCache() throws Exception {
+        User user = existingUser(generateUser());
+        persistTraining(generateTraining(user, 10));
+        persistTraining(generateTraining(user, 12));
+        mockMvc.perform(get("/v1/trainings/{userId}", user.getId())).andExpect(status().isOk());
+        double queryHits = queryCacheRequests("hit");
+        double statements = statements();
+
+        mockMvc.perform(get("/v1/trainings/{userId}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2));
+
+        assertThat(queryCacheRequests("hit")).isEqualTo(queryHits + 1);
+        assertThat(statements()).isEqualTo(statements);
+    }
+
+    @Test
+    void shouldInvalidateCachedTrainings_whenTrainingIsUpdated() throws Exception {
+        User user = existingUser(generateUser());
+        Training training = persistTraining(generateTraining(user, 10));
+        mockMvc.perform(get("/v1/trainings/{userId}", user.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/v1/trainings/{userId}", user.getId())).andExpect(status().isOk());
+
+        mockMvc.perform(put("/v1/trainings/{trainingId}", training.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                "userId": "%s",
+                                "startTime": "2022-04-01T10:00:00",
+                                "endTime": "2022-04-01T11:00:00",
+                                "activityType": "TENNIS",
+                                "distance": 3.0,
+                                "averageSpeed": 3.0
+                                }
+                                """.formatted(user.getId())))
+                .andExpect(status().isOk());
+        double queryMisses = queryCacheRequests("miss");
+
+        mockMvc.perform(get("/v1/trainings/{userId}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].activityType").value("TENNIS"))
+                .andExpect(jsonPath("$.content[0].distance").value(3.0));
+
+        assertThat(queryCacheRequests("miss")).isEqualTo(queryMisses + 1);
+    }
+
+    @Test
+    void shouldKeepCachedTrainingsOfOtherUsers_whenTrainingIsUpdated() throws Exception {
+        User user = existingUser(generateUser());
+        User otherUser = existingUser(generateUser());
+        Training training = persistTraining(generateTraining(user, 10));
+        Training otherTraining = persistTraining(generateTraining(otherUser, 12));
+        mockMvc.perform(get("/v1/trainings/{userId}", user.getId())).andExpect(status().isOk());
+        mockMvc.perform(get("/v1/trainings/{userId}", otherUser.getId())).andExpect(status().isOk());
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        assertThat(cache.containsEntity(Training.class, training.getId())).isTrue();
+        assertThat(cache.containsEntity(Training.class, otherTraining.getId())).isTrue();
+
+        mockMvc.perform(put("/v1/trainings/{trainingId}", training.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                "userId": "%s",
+                                "startTime": "2022-04-01T10:00:00",
+                                "endTime": "2022-04-01T11:00:00",
+                                "activityType": "TENNIS",
+                                "distance": 3.0,
+                                "averageSpeed": 3.0
+                                }
+                                """.formatted(user.getId())))
+                .andExpect(status().isOk());
+
+        assertThat(cache.containsEntity(Training.class, otherTraining.getId())).isTrue();
+        assertThat(findTraining(training.getId()).getActivityType()).isEqualTo(ActivityType.TENNIS);
+        mockMvc.perform(get("/v1/trainings/{userId}", user.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].activityType").value("TENNIS"));
+    }
+
+    @Test
+    void shouldInvalidateCachedUsers_whenUserIsUpdated() throws Exception {
+        User user = existingUser(generateUser());
+        mockMvc.perform(get("/v1/users/olderThanAge/{age}", 18)).andExpect(status().isOk());
+        double queryHits = queryCacheRequests("hit");
+        mockMvc.perform(get("/v1/users/olderThanAge/{age}", 18)).andExpect(status().isOk());
+        assertThat(queryCacheRequests("hit")).isEqualTo(queryHits + 1);
+
+        mockMvc.perform(put("/v1/users/{userId}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                "firstName": "Mike",
+                                "lastName": "Scott",
+                                "birthdate": "1980-01-01",
+                                "email": "%s"
+                                }
+                                """.formatted(user.getEmail())))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/v1/users/olderThanAge/{age}", 18))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].firstName").value(hasItem("Mike")));
+    }
+
+    @Test
+    void shouldExposeRegionStatisticsThroughActuator() throws Exception {
+        mockMvc.perform(get("/actuator/metrics/hibernate.second.level.cache.requests")
+                        .param("tag", "region:" + CacheRegions.USERS))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableTags[*].tag").value(hasItem("result")));
+    }
+
+}
@@ -0,0 +1,50 @@
+package pl.wsb.fitnesstracker.jdbc.internal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class JdbcMetricsIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private double statements() {
+        return meterRegistry.get("jdbc.statements").functionCounter().count();
+    }
+
+    @Test
+    void shouldCountStatementsRunOverJdbc_onceForEveryBatch() throws Exception {
+        double statements = statements();
+
+        jdbcTemplate.queryForObject("select count(*) from users", Long.class);
+        jdbcTemplate.batchUpdate("update users set first_name = ? where id = ?",
+                List.of(new Object[]{"Mike", -1L}, new Object[]{"John", -2L}));
+
+        assertThat(statements()).isEqualTo(statements + 2);
+        mockMvc.perform(get("/actuator/metrics/jdbc.statements"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").isNumber());
+    }
+
+}
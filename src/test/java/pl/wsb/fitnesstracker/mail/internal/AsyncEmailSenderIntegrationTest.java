@@ -0,0 +1,92 @@
+package pl.wsb.fitnesstracker.mail.internal;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.mail.api.EmailSender;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@IntegrationTest
+@SpringBootTest
+class AsyncEmailSenderIntegrationTest {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private static final int PRODUCERS = 8;
+    private static final int EMAILS_PER_PRODUCER = 250;
+
+    @Autowired
+    private EmailSender emailSender;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static EmailDto email(int producer, int index) {
+        return new EmailDto("user%d-%d@domain.com".formatted(producer, index), "Subject " + index, "Content " + index);
+    }
+
+    @Test
+    void shouldDeliverEveryEmail_whenManyProducersSendConcurrently() throws Exception {
+
+        long sentBefore = meterRegistry.get("mail.send").timer().count();
+        double failuresBefore = meterRegistry.get("mail.send.failures").counter().count();
+        ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+        for (int producer = 0; producer < PRODUCERS; producer++) {
+            int producerIndex = producer;
+            producers.execute(() -> {
+                for (int i = 0; i < EMAILS_PER_PRODUCER; i++) {
+                    emailSender.send(email(producerIndex, i));
+                }
+            });
+        }
+        producers.shutdown();
+        assertThat(producers.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(greenMail.waitForIncomingEmail(60_000, PRODUCERS * EMAILS_PER_PRODUCER)).isTrue();
+        assertThat(greenMail.getReceivedMessages()).hasSize(PRODUCERS * EMAILS_PER_PRODUCER);
+        assertThat(meterRegistry.get("mail.send").timer().count() - sentBefore).isEqualTo(PRODUCERS * EMAILS_PER_PRODUCER);
+        assertThat(meterRegistry.get("mail.send.failures").counter().count()).isEqualTo(failuresBefore);
+        assertThat(meterRegistry.get("mail.queue.size").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldKeepSending_whenEmailsFailUnexpectedly() {
+
+        double failuresBefore = meterRegistry.get("mail.send.failures").counter().count();
+        // more failing emails than sending threads, each failing outside of the SMTP exchange
+        for (int i = 0; i < 10; i++) {
+            emailSender.send(new EmailDto(null, "Subject", "Content"));
+        }
+        emailSender.send(email(0, 0));
+
+        assertThat(greenMail.waitForIncomingEmail(10_000, 1)).isTrue();
+        assertThat(meterRegistry.get("mail.send.failures").counter().count()).isEqualTo(failuresBefore + 10);
+    }
+
+    @Test
+    void shouldRetryWithBackoff_whenSmtpServerIsTemporarilyUnavailable() throws Exception {
+
+        double retriesBefore = meterRegistry.get("mail.send.retries").counter().count();
+        greenMail.stop();
+
+        emailSender.send(email(0, 0));
+        Thread.sleep(300);
+        greenMail.start();
+
+        assertThat(greenMail.waitForIncomingEmail(10_000, 1)).isTrue();
+        assertThat(meterRegistry.get("mail.send.retries").counter().count()).isGreaterThan(retriesBefore);
+    }
+
+}
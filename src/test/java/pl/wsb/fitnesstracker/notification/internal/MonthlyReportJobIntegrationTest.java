@@ -0,0 +1,198 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The report job processes the users in their own threads, so this test must not run in a test-managed transaction.
+ * The reports are sent from the notification outbox, which the tests dispatch explicitly.
+ */
+@IntegrationTest
+class MonthlyReportJobIntegrationTest extends IntegrationTestBase {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private static final YearMonth MONTH = YearMonth.of(2024, 3);
+
+    @Autowired
+    private MonthlyReportJob monthlyReportJob;
+
+    @Autowired
+    private MonthlyReportRunRepository runRepository;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    private static User generateClient() {
+        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID() + "@domain.com");
+    }
+
+    private static Training generateTraining(User user, LocalDateTime endTime, ActivityType activityType, double distance) {
+        Date end = Date.from(endTime.atZone(ZoneId.systemDefault()).toInstant());
+        return new Training(user, new Date(end.getTime() - 3_600_000), end, activityType, distance, 10.0);
+    }
+
+    @BeforeEach
+    void cleanRuns() {
+        runRepository.deleteAll();
+        outboxMessageRepository.deleteAll();
+    }
+
+    @Test
+    void shouldSendSummaryToEveryUserWithTrainingsInMonth_whenReporting() {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        User user4 = existingUser(generateClient());
+        User user5 = existingUser(generateClient());
+        persistTraining(generateTraining(user1, LocalDateTime.of(2024, 3, 1, 8, 0), ActivityType.RUNNING, 10.0));
+        persistTraining(generateTraining(user1, LocalDateTime.of(2024, 3, 15, 8, 0), ActivityType.RUNNING, 5.5));
+        persistTraining(generateTraining(user1, LocalDateTime.of(2024, 3, 31, 20, 0), ActivityType.CYCLING, 30.0));
+        persistTraining(generateTraining(user2, LocalDateTime.of(2024, 3, 10, 8, 0), ActivityType.WALKING, 3.0));
+        persistTraining(generateTraining(user3, LocalDateTime.of(2024, 4, 1, 8, 0), ActivityType.RUNNING, 10.0));
+        persistTraining(generateTraining(user4, LocalDateTime.of(2024, 3, 2, 8, 0), ActivityType.SWIMMING, 1.0));
+        persistTraining(generateTraining(user5, LocalDateTime.of(2024, 3, 3, 8, 0), ActivityType.TENNIS, 2.0));
+
+        monthlyReportJob.report(MONTH);
+
+        assertThat(outboxMessageRepository.count()).isEqualTo(4);
+        assertThat(outboxDispatcher.dispatch()).isEqualTo(4);
+        assertThat(greenMail.waitForIncomingEmail(10_000, 4)).isTrue();
+        assertThat(greenMail.getReceivedMessages())
+                .extracting(message -> message.getAllRecipients()[0].toString())
+                .containsExactlyInAnyOrder(user1.getEmail(), user2.getEmail(), user4.getEmail(), user5.getEmail());
+        String report = Arrays.stream(greenMail.getReceivedMessagesForDomain(user1.getEmail()))
+                .map(GreenMailUtil::getBody)
+                .findFirst()
+                .orElseThrow();
+        assertThat(report)
+                .contains("in March 2024 you completed 3 trainings and covered 45.50 km")
+                .contains("- Running: 2 trainings, 15.50 km")
+                .contains("- Cycling: 1 trainings, 30.00 km");
+        assertThat(runRepository.findById(MONTH.toString())).hasValueSatisfying(run -> assertThat(run.isCompleted()).isTrue());
+
+        monthlyReportJob.report(MONTH);
+
+        assertThat(outboxMessageRepository.count()).isZero();
+    }
+
+    @Test
+    void shouldSkipUsersBeforeCheckpoint_whenResumingInterruptedRun() {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        persistTraining(generateTraining(user1, LocalDateTime.of(2024, 3, 1, 8, 0), ActivityType.RUNNING, 10.0));
+        persistTraining(generateTraining(user2, LocalDateTime.of(2024, 3, 1, 8, 0), ActivityType.RUNNING, 10.0));
+        persistTraining(generateTraining(user3, LocalDateTime.of(2024, 3, 1, 8, 0), ActivityType.RUNNING, 10.0));
+        MonthlyReportRun interrupted = new MonthlyReportRun(MONTH.toString());
+        interrupted.setLastUserId(user2.getId());
+        runRepository.save(interrupted);
+
+        monthlyReportJob.report(MONTH);
+        outboxDispatcher.dispatch();
+
+        assertThat(greenMail.waitForIncomingEmail(10_000, 1)).isTrue();
+        assertThat(greenMail.waitForIncomingEmail(500, 2)).isFalse();
+        assertThat(greenMail.getReceivedMessages())
+                .extracting(message -> message.getAllRecipients()[0].toString())
+                .containsExactly(user3.getEmail());
+    }
+
+    @Test
+    void shouldReportMonthOnce_whenRunsAreStartedConcurrently() throws Exception {
+
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            User user = existingUser(generateClient());
+            persistTraining(generateTraining(user, LocalDateTime.of(2024, 3, 1, 8, 0), ActivityType.RUNNING, 10.0));
+            users.add(user);
+        }
+        CountDownLatch start = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> {
+            await(start);
+            monthlyReportJob.report(MONTH);
+        });
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> {
+            await(start);
+            monthlyReportJob.report(MONTH);
+        });
+        start.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        assertThat(outboxMessageRepository.findAll())
+                .extracting(OutboxMessage::getRecipient)
+                .containsExactlyInAnyOrderElementsOf(users.stream().map(User::getEmail).toList());
+        assertThat(runRepository.findById(MONTH.toString())).hasValueSatisfying(run -> {
+            assertThat(run.isCompleted()).isTrue();
+            assertThat(run.getClaim()).isNull();
+        });
+    }
+
+    @Test
+    void shouldTakeOverRun_whenLeaseOfItsClaimEnded() {
+
+        User user1 = existingUser(generateClient());
+        persistTraining(generateTraining(user1, LocalDateTime.of(2024, 3, 1, 8, 0), ActivityType.RUNNING, 10.0));
+        MonthlyReportRun claimed = new MonthlyReportRun(MONTH.toString());
+        claimed.setClaim(randomUUID().toString());
+        claimed.setLeaseUntil(Instant.now().plusSeconds(60));
+        runRepository.save(claimed);
+
+        monthlyReportJob.report(MONTH);
+
+        assertThat(outboxMessageRepository.count()).isZero();
+
+        claimed.setLeaseUntil(Instant.now().minusSeconds(1));
+        runRepository.save(claimed);
+
+        monthlyReportJob.report(MONTH);
+
+        assertThat(outboxMessageRepository.findAll())
+                .extracting(OutboxMessage::getRecipient)
+                .containsExactly(user1.getEmail());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+package pl.wsb.fitnesstracker.notification.internal;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.mail.api.EmailDto;
+import pl.wsb.fitnesstracker.notification.api.NotificationService;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The outbox is written and drained in transactions of their own, so this test must not run in a test-managed
+ * transaction.
+ */
+@IntegrationTest
+class OutboxDispatcherIntegrationTest extends IntegrationTestBase {
+
+    @RegisterExtension
+    static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static User generateClient() {
+        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID() + "@domain.com");
+    }
+
+    private static String trainingOf(Long userId) {
+        return """
+                {
+                "userId": "%s",
+                "startTime": "2024-04-01T10:00:00",
+                "endTime": "2024-04-01T11:00:00",
+                "activityType": "RUNNING",
+                "distance": 10.52,
+                "averageSpeed": 8.2
+                }
+                """.formatted(userId);
+    }
+
+    @BeforeEach
+    void cleanOutbox() {
+        outboxMessageRepository.deleteAll();
+    }
+
+    @Test
+    void shouldSendNotificationOfCreatedTraining_whenOutboxIsDispatched() throws Exception {
+
+        User user = existingUser(generateClient());
+
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(trainingOf(user.getId())))
+                .andExpect(status().isCreated());
+
+        assertThat(outboxMessageRepository.findAll())
+                .extracting(OutboxMessage::getRecipient)
+                .containsExactly(user.getEmail());
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+
+        assertThat(outboxDispatcher.dispatch()).isEqualTo(1);
+
+        assertThat(outboxMessageRepository.count()).isZero();
+        assertThat(greenMail.waitForIncomingEmail(10_000, 1)).isTrue();
+        assertThat(greenMail.getReceivedMessages()[0].getAllRecipients()[0].toString()).isEqualTo(user.getEmail());
+        assertThat(GreenMailUtil.getBody(greenMail.getReceivedMessages()[0]))
+                .contains("your running training of 10.52 km");
+    }
+
+    @Test
+    void shouldNotStoreNotification_whenTrainingCreationIsRolledBack() throws Exception {
+
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(trainingOf(999_999L)))
+                .andExpect(status().isNotFound());
+
+        assertThat(outboxMessageRepository.count()).isZero();
+    }
+
+    @Test
+    void shouldSendAllNotificationsInBatches_whenOutboxIsDispatched() {
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 5; i++) {
+                notificationService.enqueue(new EmailDto("user" + i + "@domain.com", "Subject " + i, "Content " + i));
+            }
+        });
+
+        assertThat(outboxDispatcher.dispatch()).isEqualTo(5);
+
+        assertThat(outboxMessageRepository.count()).isZero();
+        assertThat(greenMail.waitForIncomingEmail(10_000, 5)).isTrue();
+    }
+
+    @Test
+    void shouldClaimDisjointBatches_whenClaimedConcurrently() throws Exception {
+
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 4; i++) {
+                notificationService.enqueue(new EmailDto("user" + i + "@domain.com", "Subject " + i, "Content " + i));
+            }
+        });
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<List<Long>> first = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            List<Long> ids = outboxMessageRepository.claimBatch(Instant.now(), 2).stream().map(OutboxMessage::getId).toList();
+            claimed.countDown();
+            await(release);
+            return ids;
+        }));
+        await(claimed);
+        List<Long> second = transactionTemplate.execute(status ->
+                outboxMessageRepository.claimBatch(Instant.now(), 2).stream().map(OutboxMessage::getId).toList());
+        release.countDown();
+
+        assertThat(first.get(10, TimeUnit.SECONDS)).hasSize(2).doesNotContainAnyElementsOf(second);
+        assertThat(second).hasSize(2);
+    }
+
+    @Test
+    void shouldKeepAndPostponeNotification_whenSmtpServerDoesNotAcceptIt() {
+
+        transactionTemplate.executeWithoutResult(status ->
+                notificationService.enqueue(new EmailDto("user@domain.com", "Subject", "Content")));
+        greenMail.stop();
+
+        assertThat(outboxDispatcher.dispatch()).isZero();
+
+        assertThat(outboxMessageRepository.findAll()).singleElement().satisfies(message -> {
+            assertThat(message.getAttempts()).isEqualTo(1);
+            assertThat(message.getNextAttemptAt()).isAfter(Instant.now());
+        });
+        greenMail.start();
+        assertThat(outboxDispatcher.dispatch()).isZero();
+        assertThat(outboxMessageRepository.count()).isOne();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
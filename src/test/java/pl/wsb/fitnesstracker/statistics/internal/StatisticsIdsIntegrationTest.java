@@ -0,0 +1,64 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.annotation.DirtiesContext;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsProvider;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsService;
+import pl.wsb.fitnesstracker.statistics.api.TrainingContribution;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.Date;
+import java.util.List;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The statistics created by the database and by the reconciliation take their IDs from the same sequence; a fresh
+ * database starts both at the beginning of the sequence, where their IDs would collide first.
+ */
+@IntegrationTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_CLASS)
+class StatisticsIdsIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private StatisticsProvider statisticsProvider;
+
+    @Autowired
+    private StatisticsReconciliationJob reconciliationJob;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    private static User generateClient() {
+        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString());
+    }
+
+    @Test
+    void shouldCreateStatistics_whenReconcilingAfterAndBeforeStatisticsCreatedByTrainingWrites() {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        statisticsService.recordTrainings(List.of(new TrainingContribution(user1.getId(), ActivityType.RUNNING, 10.0)));
+        // written around the statistics service
+        persistTraining(new Training(user2, new Date(), new Date(), ActivityType.RUNNING, 5.0, 10.0));
+
+        reconciliationJob.reconcile();
+        statisticsService.recordTrainings(List.of(new TrainingContribution(user3.getId(), ActivityType.RUNNING, 1.0)));
+
+        List<Long> ids = List.of(user1, user2, user3).stream()
+                .map(user -> statisticsProvider.getStatisticsByUserId(user.getId()).orElseThrow())
+                .map(Statistics::getId)
+                .toList();
+        assertThat(ids).doesNotHaveDuplicates();
+    }
+
+}
@@ -0,0 +1,199 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.statistics.api.Statistics;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsPage;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsProvider;
+import pl.wsb.fitnesstracker.statistics.api.StatisticsService;
+import pl.wsb.fitnesstracker.statistics.api.TrainingContribution;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The reconciliation rebuilds the statistics in its own transactions and threads,
+ * so this test must not run in a test-managed transaction.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class StatisticsIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StatisticsProvider statisticsProvider;
+
+    @Autowired
+    private StatisticsReconciliationJob reconciliationJob;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static User generateClient() {
+        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString());
+    }
+
+    private static String trainingJson(Long userId, ActivityType activityType, double distance) {
+        return """
+                {
+                    "userId": "%s",
+                    "startTime": "2024-04-01T10:00:00",
+                    "endTime": "2024-04-01T11:00:00",
+                    "activityType": "%s",
+                    "distance": %s,
+                    "averageSpeed": 8.0
+                }
+                """.formatted(userId, activityType, distance);
+    }
+
+    @Test
+    void shouldUpdateStatistics_whenCreatingAndUpdatingTrainings() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                        .content(trainingJson(user1.getId(), ActivityType.RUNNING, 10.0)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[%s, %s]".formatted(trainingJson(user1.getId(), ActivityType.CYCLING, 20.0),
+                                trainingJson(user2.getId(), ActivityType.WALKING, 4.0))))
+                .andExpect(status().isOk());
+
+        assertStatistics(user1, 2, 30.0, ActivityType.RUNNING.caloriesBurned(10.0) + ActivityType.CYCLING.caloriesBurned(20.0));
+        assertStatistics(user2, 1, 4.0, ActivityType.WALKING.caloriesBurned(4.0));
+
+        Long runningId = getAllTrainings().stream()
+                .filter(training -> training.getActivityType() == ActivityType.RUNNING)
+                .findFirst()
+                .map(Training::getId)
+                .orElseThrow();
+        mockMvc.perform(put("/v1/trainings/{trainingId}", runningId).contentType(MediaType.APPLICATION_JSON)
+                        .content(trainingJson(user1.getId(), ActivityType.SWIMMING, 2.0)))
+                .andExpect(status().isOk());
+
+        assertStatistics(user1, 2, 22.0, ActivityType.SWIMMING.caloriesBurned(2.0) + ActivityType.CYCLING.caloriesBurned(20.0));
+
+        mockMvc.perform(put("/v1/trainings/{trainingId}", runningId).contentType(MediaType.APPLICATION_JSON)
+                        .content(trainingJson(user2.getId(), ActivityType.SWIMMING, 2.0)))
+                .andExpect(status().isOk());
+
+        assertStatistics(user1, 1, 20.0, ActivityType.CYCLING.caloriesBurned(20.0));
+        assertStatistics(user2, 2, 6.0, ActivityType.WALKING.caloriesBurned(4.0) + ActivityType.SWIMMING.caloriesBurned(2.0));
+    }
+
+    @Test
+    void shouldAddUpStatistics_whenFirstTrainingsOfUserAreRecordedConcurrently() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        List<TrainingContribution> trainings = List.of(new TrainingContribution(user1.getId(), ActivityType.RUNNING, 10.0));
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            statisticsService.recordTrainings(trainings);
+            recorded.countDown();
+            await(release);
+        }));
+        await(recorded);
+        // the second insert waits for the uncommitted first one and is rejected by the unique user ID once it commits
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() ->
+                transactionTemplate.executeWithoutResult(status -> statisticsService.recordTrainings(trainings)));
+        Thread.sleep(200);
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+
+        assertStatistics(user1, 2, 20.0, 2 * ActivityType.RUNNING.caloriesBurned(10.0));
+    }
+
+    @Test
+    void shouldRebuildStatisticsFromTrainings_whenReconciling() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON)
+                        .content(trainingJson(user1.getId(), ActivityType.RUNNING, 10.0)))
+                .andExpect(status().isCreated());
+        // written around the statistics service
+        persistTraining(new Training(user1, new Date(), new Date(), ActivityType.RUNNING, 5.0, 10.0));
+        persistTraining(new Training(user2, new Date(), new Date(), ActivityType.TENNIS, 1.0, 2.0));
+
+        reconciliationJob.reconcile();
+
+        assertStatistics(user1, 2, 15.0, ActivityType.RUNNING.caloriesBurned(10.0) + ActivityType.RUNNING.caloriesBurned(5.0));
+        assertStatistics(user2, 1, 1.0, ActivityType.TENNIS.caloriesBurned(1.0));
+        assertThat(statisticsProvider.getStatisticsByUserId(user3.getId())).isEmpty();
+    }
+
+    @Test
+    void shouldPageStatisticsByCalories_whenFindingCaloriesAboveThreshold() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        User user3 = existingUser(generateClient());
+        User user4 = existingUser(generateClient());
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[%s, %s, %s, %s]".formatted(trainingJson(user1.getId(), ActivityType.RUNNING, 10.0),
+                                trainingJson(user2.getId(), ActivityType.RUNNING, 30.0),
+                                trainingJson(user3.getId(), ActivityType.RUNNING, 20.0),
+                                trainingJson(user4.getId(), ActivityType.RUNNING, 1.0))))
+                .andExpect(status().isOk());
+        int threshold = ActivityType.RUNNING.caloriesBurned(5.0);
+
+        StatisticsPage firstPage = statisticsProvider.findByCaloriesAbove(threshold, null, 2);
+        StatisticsPage secondPage = statisticsProvider.findByCaloriesAbove(threshold, firstPage.next(), 2);
+
+        assertThat(firstPage.content()).extracting(statistics -> statistics.getUser().getId())
+                .containsExactly(user2.getId(), user3.getId());
+        assertThat(firstPage.next()).isNotNull();
+        assertThat(secondPage.content()).extracting(statistics -> statistics.getUser().getId())
+                .containsExactly(user1.getId());
+        assertThat(secondPage.next()).isNull();
+        assertThat(statisticsProvider.findTopByCalories(3)).extracting(statistics -> statistics.getUser().getId())
+                .containsExactly(user2.getId(), user3.getId(), user1.getId());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void assertStatistics(User user, int totalTrainings, double totalDistance, int totalCaloriesBurned) {
+        Statistics statistics = statisticsProvider.getStatisticsByUserId(user.getId()).orElseThrow();
+        assertThat(statistics.getTotalTrainings()).isEqualTo(totalTrainings);
+        assertThat(statistics.getTotalDistance()).isCloseTo(totalDistance, within(1e-9));
+        assertThat(statistics.getTotalCaloriesBurned()).isEqualTo(totalCaloriesBurned);
+    }
+
+}
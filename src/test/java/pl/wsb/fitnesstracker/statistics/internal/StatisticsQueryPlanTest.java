@@ -0,0 +1,68 @@
+package pl.wsb.fitnesstracker.statistics.internal;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.QueryPlans;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that the calorie queries of the {@link StatisticsRepository} are served by the calorie index
+ * (see the {@code db/migration} scripts) in its order, instead of scanning and sorting the statistics table.
+ * The statements are captured while calling the repository methods and then explained.
+ */
+@IntegrationTest
+class StatisticsQueryPlanTest extends IntegrationTestBase {
+
+    private static final Pageable CALORIES_PAGE =
+            PageRequest.of(0, 51, Sort.by(Sort.Order.desc("totalCaloriesBurned"), Sort.Order.asc("id")));
+
+    @Autowired
+    private StatisticsRepository statisticsRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                query("findByTotalCaloriesBurnedGreaterThan",
+                        repository -> repository.findByTotalCaloriesBurnedGreaterThan(1000, CALORIES_PAGE)),
+                query("findByTotalCaloriesBurnedGreaterThanFromCursor",
+                        repository -> repository.findByTotalCaloriesBurnedGreaterThanFromCursor(1000, 5000, 10L, CALORIES_PAGE)),
+                query("findAllBy",
+                        repository -> repository.findAllBy(CALORIES_PAGE))
+        );
+    }
+
+    private static Arguments query(String name, Consumer<StatisticsRepository> call) {
+        return Arguments.of(name, call);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void shouldReadCalorieIndexInOrder_whenExplainingRepositoryQuery(String query, Consumer<StatisticsRepository> call) {
+        String plan = QueryPlans.explain(entityManagerFactory, jdbcTemplate, () -> call.accept(statisticsRepository));
+
+        assertThat(plan)
+                .as("plan of %s", query)
+                .doesNotContain("tableScan")
+                .contains("STATISTICS_CALORIES_IDX")
+                .contains("index sorted");
+    }
+
+}
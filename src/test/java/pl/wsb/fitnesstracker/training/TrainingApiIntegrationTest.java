@@ -1,10 +1,16 @@
 package pl.wsb.fitnesstracker.training;
 
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 import pl.wsb.fitnesstracker.IntegrationTest;
 import pl.wsb.fitnesstracker.IntegrationTestBase;
@@ -17,6 +23,7 @@ import java.text.SimpleDateFormat;
 
 import static java.time.LocalDate.now;
 import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -30,6 +37,12 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private static User generateClient() {
         return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString());
     }
@@ -79,19 +92,19 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
         mockMvc.perform(get("/v1/trainings").contentType(MediaType.APPLICATION_JSON))
                 .andDo(log())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].user.id").value(user1.getId()))
-                .andExpect(jsonPath("$[0].user.firstName").value(user1.getFirstName()))
-                .andExpect(jsonPath("$[0].user.lastName").value(user1.getLastName()))
-                .andExpect(jsonPath("$[0].user.email").value(user1.getEmail()))
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.content[0].user.id").value(user1.getId()))
+                .andExpect(jsonPath("$.content[0].user.firstName").value(user1.getFirstName()))
+                .andExpect(jsonPath("$.content[0].user.lastName").value(user1.getLastName()))
+                .andExpect(jsonPath("$.content[0].user.email").value(user1.getEmail()))
 
 
-                .andExpect(jsonPath("$[0].startTime").value(sdf.format(training1.getStartTime())))
-                .andExpect(jsonPath("$[0].endTime").value(sdf.format(training1.getEndTime())))
-                .andExpect(jsonPath("$[0].distance").value((training1.getDistance())))
-                .andExpect(jsonPath("$[0].averageSpeed").value(training1.getAverageSpeed()))
+                .andExpect(jsonPath("$.content[0].startTime").value(sdf.format(training1.getStartTime())))
+                .andExpect(jsonPath("$.content[0].endTime").value(sdf.format(training1.getEndTime())))
+                .andExpect(jsonPath("$.content[0].distance").value((training1.getDistance())))
+                .andExpect(jsonPath("$.content[0].averageSpeed").value(training1.getAverageSpeed()))
 
-                .andExpect(jsonPath("$[1]").doesNotExist());
+                .andExpect(jsonPath("$.content[1]").doesNotExist());
     }
 
     @Test
@@ -104,17 +117,17 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
         mockMvc.perform(get("/v1/trainings/{userId}", user1.getId()).contentType(MediaType.APPLICATION_JSON))
                 .andDo(log())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].user.id").value(user1.getId()))
-                .andExpect(jsonPath("$[0].user.firstName").value(user1.getFirstName()))
-                .andExpect(jsonPath("$[0].user.lastName").value(user1.getLastName()))
-                .andExpect(jsonPath("$[0].user.email").value(user1.getEmail()))
-                .andExpect(jsonPath("$[0].startTime").value(sdf.format(training1.getStartTime())))
-                .andExpect(jsonPath("$[0].endTime").value(sdf.format(training1.getEndTime())))
-                .andExpect(jsonPath("$[0].distance").value((training1.getDistance())))
-                .andExpect(jsonPath("$[0].averageSpeed").value(training1.getAverageSpeed()))
-
-                .andExpect(jsonPath("$[1]").doesNotExist());
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.content[0].user.id").value(user1.getId()))
+                .andExpect(jsonPath("$.content[0].user.firstName").value(user1.getFirstName()))
+                .andExpect(jsonPath("$.content[0].user.lastName").value(user1.getLastName()))
+                .andExpect(jsonPath("$.content[0].user.email").value(user1.getEmail()))
+                .andExpect(jsonPath("$.content[0].startTime").value(sdf.format(training1.getStartTime())))
+                .andExpect(jsonPath("$.content[0].endTime").value(sdf.format(training1.getEndTime())))
+                .andExpect(jsonPath("$.content[0].distance").value((training1.getDistance())))
+                .andExpect(jsonPath("$.content[0].averageSpeed").value(training1.getAverageSpeed()))
+
+                .andExpect(jsonPath("$.content[1]").doesNotExist());
     }
 
     @Test
@@ -129,16 +142,16 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
         mockMvc.perform(get("/v1/trainings/finished/{afterTime}", "2024-05-18").contentType(MediaType.APPLICATION_JSON))
                 .andDo(log())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].user.id").value(user1.getId()))
-                .andExpect(jsonPath("$[0].user.firstName").value(user1.getFirstName()))
-                .andExpect(jsonPath("$[0].user.lastName").value(user1.getLastName()))
-                .andExpect(jsonPath("$[0].user.email").value(user1.getEmail()))
-                .andExpect(jsonPath("$[0].startTime").value(sdf.format(training1.getStartTime())))
-                .andExpect(jsonPath("$[0].endTime").value(sdf.format(training1.getEndTime())))
-                .andExpect(jsonPath("$[0].distance").value((training1.getDistance())))
-                .andExpect(jsonPath("$[0].averageSpeed").value(training1.getAverageSpeed()))
-                .andExpect(jsonPath("$[1]").doesNotExist());
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.content[0].user.id").value(user1.getId()))
+                .andExpect(jsonPath("$.content[0].user.firstName").value(user1.getFirstName()))
+                .andExpect(jsonPath("$.content[0].user.lastName").value(user1.getLastName()))
+                .andExpect(jsonPath("$.content[0].user.email").value(user1.getEmail()))
+                .andExpect(jsonPath("$.content[0].startTime").value(sdf.format(training1.getStartTime())))
+                .andExpect(jsonPath("$.content[0].endTime").value(sdf.format(training1.getEndTime())))
+                .andExpect(jsonPath("$.content[0].distance").value((training1.getDistance())))
+                .andExpect(jsonPath("$.content[0].averageSpeed").value(training1.getAverageSpeed()))
+                .andExpect(jsonPath("$.content[1]").doesNotExist());
     }
 
     @Test
@@ -152,19 +165,129 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
         mockMvc.perform(get("/v1/trainings/activityType").param("activityType", "TENNIS").contentType(MediaType.APPLICATION_JSON))
                 .andDo(log())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].user.id").value(user1.getId()))
-                .andExpect(jsonPath("$[0].user.firstName").value(user1.getFirstName()))
-                .andExpect(jsonPath("$[0].user.lastName").value(user1.getLastName()))
-                .andExpect(jsonPath("$[0].user.email").value(user1.getEmail()))
-                .andExpect(jsonPath("$[0].activityType").value(training2.getActivityType().toString()))
-                .andExpect(jsonPath("$[1].user.id").value(user1.getId()))
-                .andExpect(jsonPath("$[1].user.firstName").value(user1.getFirstName()))
-                .andExpect(jsonPath("$[1].user.lastName").value(user1.getLastName()))
-                .andExpect(jsonPath("$[1].user.email").value(user1.getEmail()))
-                .andExpect(jsonPath("$[1].activityType").value(training3.getActivityType().toString()))
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.content[0].user.id").value(user1.getId()))
+                .andExpect(jsonPath("$.content[0].user.firstName").value(user1.getFirstName()))
+                .andExpect(jsonPath("$.content[0].user.lastName").value(user1.getLastName()))
+                .andExpect(jsonPath("$.content[0].user.email").value(user1.getEmail()))
+                .andExpect(jsonPath("$.content[0].activityType").value(training2.getActivityType().toString()))
+                .andExpect(jsonPath("$.content[1].user.id").value(user1.getId()))
+                .andExpect(jsonPath("$.content[1].user.firstName").value(user1.getFirstName()))
+                .andExpect(jsonPath("$.content[1].user.lastName").value(user1.getLastName()))
+                .andExpect(jsonPath("$.content[1].user.email").value(user1.getEmail()))
+                .andExpect(jsonPath("$.content[1].activityType").value(training3.getActivityType().toString()))
+
+                .andExpect(jsonPath("$.content[2]").doesNotExist());
+    }
+
+    @Test
+    void shouldPageThroughTrainingsWithCursor_whenGettingAllTrainingsPaged() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTrainingWithDetails(user1, "2024-05-17 19:00:00", "2024-05-17 20:30:00", ActivityType.RUNNING, 14, 11.5));
+        Training training2 = persistTraining(generateTrainingWithDetails(user1, "2024-05-18 19:00:00", "2024-05-18 20:30:00", ActivityType.RUNNING, 14, 11.5));
+        Training training3 = persistTraining(generateTrainingWithDetails(user1, "2024-05-19 19:00:00", "2024-05-19 20:30:00", ActivityType.RUNNING, 14, 11.5));
+
+        String firstPage = mockMvc.perform(get("/v1/trainings").param("size", "2").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(training1.getId()))
+                .andExpect(jsonPath("$.content[1].id").value(training2.getId()))
+                .andExpect(jsonPath("$.content[2]").doesNotExist())
+                .andExpect(jsonPath("$.next").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(firstPage, "$.next");
+
+        mockMvc.perform(get("/v1/trainings").param("size", "2").param("cursor", cursor).contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(training3.getId()))
+                .andExpect(jsonPath("$.content[1]").doesNotExist())
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void shouldRejectMalformedCursor_whenGettingAllTrainingsPaged() throws Exception {
+
+        mockMvc.perform(get("/v1/trainings").param("cursor", "not-a-cursor").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldRunSingleStatement_whenGettingTrainingListsOfManyUsers() throws Exception {
+
+        for (int i = 0; i < 5; i++) {
+            User user = existingUser(generateClient());
+            persistTraining(generateTrainingWithDetails(user, "2024-05-19 19:00:00", "2024-05-19 20:30:00", ActivityType.RUNNING, 14, 11.5));
+            persistTraining(generateTrainingWithDetails(user, "2024-05-20 19:00:00", "2024-05-20 20:30:00", ActivityType.RUNNING, 14, 11.5));
+        }
+        User user1 = existingUser(generateClient());
+        persistTraining(generateTrainingWithDetails(user1, "2024-05-21 19:00:00", "2024-05-21 20:30:00", ActivityType.RUNNING, 14, 11.5));
+
+        assertThat(countStatements(get("/v1/trainings"))).isEqualTo(1);
+        assertThat(countStatements(get("/v1/trainings").param("size", "3"))).isEqualTo(1);
+        assertThat(countStatements(get("/v1/trainings/activityType").param("activityType", "RUNNING"))).isEqualTo(1);
+        assertThat(countStatements(get("/v1/trainings/finished/{afterTime}", "2024-05-18"))).isEqualTo(1);
+        assertThat(countStatements(get("/v1/trainings/{userId}", user1.getId()))).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnMatchingTrainingsSortedAndLimited_whenSearchingTrainings() throws Exception {
 
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        persistTraining(generateTrainingWithDetails(user1, "2024-02-28 19:00:00", "2024-02-28 20:30:00", ActivityType.RUNNING, 14, 11.5));
+        Training training2 = persistTraining(generateTrainingWithDetails(user1, "2024-03-05 19:00:00", "2024-03-05 20:30:00", ActivityType.RUNNING, 12, 10.0));
+        Training training3 = persistTraining(generateTrainingWithDetails(user1, "2024-03-10 19:00:00", "2024-03-10 20:30:00", ActivityType.RUNNING, 21, 12.0));
+        persistTraining(generateTrainingWithDetails(user1, "2024-03-12 19:00:00", "2024-03-12 20:30:00", ActivityType.RUNNING, 11, 9.0));
+        persistTraining(generateTrainingWithDetails(user1, "2024-03-15 19:00:00", "2024-03-15 20:30:00", ActivityType.RUNNING, 5, 8.0));
+        persistTraining(generateTrainingWithDetails(user1, "2024-03-15 19:00:00", "2024-03-15 20:30:00", ActivityType.CYCLING, 40, 20.0));
+        persistTraining(generateTrainingWithDetails(user2, "2024-03-15 19:00:00", "2024-03-15 20:30:00", ActivityType.RUNNING, 30, 12.0));
+
+        mockMvc.perform(get("/v1/trainings/search")
+                        .param("userId", user1.getId().toString())
+                        .param("activityTypes", "RUNNING", "WALKING")
+                        .param("from", "2024-03-01T00:00:00Z")
+                        .param("to", "2024-04-01T00:00:00Z")
+                        .param("minDistance", "10")
+                        .param("sort", "distance,desc")
+                        .param("limit", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(training3.getId()))
+                .andExpect(jsonPath("$[1].id").value(training2.getId()))
                 .andExpect(jsonPath("$[2]").doesNotExist());
+
+        assertThat(countStatements(get("/v1/trainings/search").param("activityTypes", "RUNNING"))).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectUnsupportedSort_whenSearchingTrainings() throws Exception {
+
+        mockMvc.perform(get("/v1/trainings/search").param("sort", "user.email").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Performs the request against an empty persistence context and returns the number of SQL statements it executed,
+     * counted by the data source, so that the statements run over JDBC are counted as well.
+     */
+    private long countStatements(RequestBuilder request) throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        double statements = executedStatements();
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk());
+
+        return (long) (executedStatements() - statements);
+    }
+
+    private double executedStatements() {
+        return meterRegistry.get("jdbc.statements").functionCounter().count();
     }
 
     @Test
@@ -194,6 +317,53 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
 
     }
 
+    @Test
+    void shouldPersistValidTrainingsAndReportRejected_whenCreatingTrainingsInBatch() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+
+        String requestBody = """
+                [
+                    {
+                        "userId": "%s",
+                        "startTime": "2024-04-01T10:00:00",
+                        "endTime": "2024-04-01T11:00:00",
+                        "activityType": "RUNNING",
+                        "distance": 10.52,
+                        "averageSpeed": 8.2
+                    },
+                    {
+                        "userId": "%s",
+                        "startTime": "2024-04-01T10:00:00",
+                        "endTime": "2024-04-01T11:00:00",
+                        "activityType": "RUNNING",
+                        "distance": 5.0,
+                        "averageSpeed": 5.0
+                    },
+                    {
+                        "userId": "%s",
+                        "startTime": "2024-04-02T10:00:00",
+                        "endTime": "2024-04-02T11:00:00",
+                        "activityType": "CYCLING",
+                        "distance": 30.0,
+                        "averageSpeed": 20.0
+                    }
+                ]
+                """.formatted(user1.getId(), user2.getId() + 1000, user2.getId());
+        mockMvc.perform(post("/v1/trainings/batch").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[0].trainingId").isNumber())
+                .andExpect(jsonPath("$.items[1].trainingId").doesNotExist())
+                .andExpect(jsonPath("$.items[1].error").isNotEmpty())
+                .andExpect(jsonPath("$.items[2].trainingId").isNumber());
+
+        assertThat(getAllTrainings()).hasSize(2);
+    }
+
     @Test
     void shouldUpdateTraining_whenUpdatingTraining() throws Exception {
 
@@ -221,6 +391,240 @@ class TrainingApiIntegrationTest extends IntegrationTestBase {
                 .andExpect(jsonPath("$.averageSpeed").value(0.0));
     }
 
+    @Test
+    void shouldReturnNotFound_whenCreatingTrainingForMissingUser() throws Exception {
 
-}
+        User user1 = existingUser(generateClient());
+
+        String requestBody = """
+                {
+                    "userId": "%s",
+                    "startTime": "2024-04-01T10:00:00",
+                    "endTime": "2024-04-01T11:00:00",
+                    "activityType": "RUNNING",
+                    "distance": 10.52,
+                    "averageSpeed": 8.2
+                }
+                """.formatted(user1.getId() + 1000);
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenCreatingTrainingWithoutActivityType() throws Exception {
+
+        User user1 = existingUser(generateClient());
+
+        String requestBody = """
+                {
+                    "userId": "%s",
+                    "startTime": "2024-04-01T10:00:00",
+                    "endTime": "2024-04-01T11:00:00",
+                    "distance": 10.52,
+                    "averageSpeed": 8.2
+                }
+                """.formatted(user1.getId());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldUpdateTrainingWithoutLoadingIt_whenUserIsUnchanged() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        String createBody = """
+                {
+                "userId": "%s",
+                "startTime": "2022-04-01T10:00:00",
+                "endTime": "2022-04-01T11:00:00",
+                "activityType": "RUNNING",
+                "distance": 5.0,
+                "averageSpeed": 5.0
+                }
+                """.formatted(user1.getId());
+        String created = mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(createBody))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long trainingId = ((Number) JsonPath.read(created, "$.id")).longValue();
+        String requestBody = """
+                {
+                "userId": "%s",
+                "startTime": "2022-04-01T10:00:00",
+                "endTime": "2022-04-01T11:00:00",
+                "activityType": "TENNIS",
+                "distance": 1.0,
+                "averageSpeed": 1.0
+                }
+                """.formatted(user1.getId());
 
+        // the locked read of the previous values, the update itself, the merge of the statistics, the locked read
+        // of the achievement state and the select of the user rendered in the response; the changed achievement
+        // state is flushed with the test transaction
+        assertThat(countStatements(put("/v1/trainings/{trainingId}", trainingId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestBody))).isEqualTo(5);
+        assertThat(entityManager.find(Training.class, trainingId).getActivityType()).isEqualTo(ActivityType.TENNIS);
+    }
+
+    @Test
+    void shouldMoveTrainingToAnotherUser_whenUpdatingTrainingUser() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTrainingWithActivityType(user1, ActivityType.RUNNING));
+        String requestBody = """
+                {
+                "userId": "%s",
+                "startTime": "2022-04-01T10:00:00",
+                "endTime": "2022-04-01T11:00:00",
+                "activityType": "TENNIS",
+                "distance": 0.0,
+                "averageSpeed": 0.0
+                }
+                """.formatted(user2.getId());
+        mockMvc.perform(put("/v1/trainings/{trainingId}", training1.getId()).contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.user.id").value(user2.getId()))
+                .andExpect(jsonPath("$.user.email").value(user2.getEmail()));
+    }
+
+    @Test
+    void shouldReturnNotFound_whenUpdatingMissingTraining() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTrainingWithActivityType(user1, ActivityType.RUNNING));
+        String requestBody = """
+                {
+                "userId": "%s",
+                "startTime": "2022-04-01T10:00:00",
+                "endTime": "2022-04-01T11:00:00",
+                "activityType": "TENNIS",
+                "distance": 0.0,
+                "averageSpeed": 0.0
+                }
+                """.formatted(user1.getId());
+        mockMvc.perform(put("/v1/trainings/{trainingId}", training1.getId() + 1000).contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReturnNotFound_whenUpdatingTrainingOfMissingUser() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTrainingWithActivityType(user1, ActivityType.RUNNING));
+        String requestBody = """
+                {
+                "userId": "%s",
+                "startTime": "2022-04-01T10:00:00",
+                "endTime": "2022-04-01T11:00:00",
+                "activityType": "TENNIS",
+                "distance": 0.0,
+                "averageSpeed": 0.0
+                }
+                """.formatted(user1.getId() + 1000);
+        mockMvc.perform(put("/v1/trainings/{trainingId}", training1.getId()).contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenUpdatingTrainingWithoutEndTime() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTrainingWithActivityType(user1, ActivityType.RUNNING));
+        String requestBody = """
+                {
+                "userId": "%s",
+                "startTime": "2022-04-01T10:00:00",
+                "activityType": "TENNIS",
+                "distance": 0.0,
+                "averageSpeed": 0.0
+                }
+                """.formatted(user1.getId());
+        mockMvc.perform(put("/v1/trainings/{trainingId}", training1.getId()).contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andDo(log())
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldListUserOnce_whenGettingUserTrainingsNormalized() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTraining(user1));
+        persistTraining(generateTraining(user1));
+
+        mockMvc.perform(get("/v1/trainings/{userId}", user1.getId()).param("normalized", "true").contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[0].id").value(training1.getId()))
+                .andExpect(jsonPath("$.content[0].userId").value(user1.getId()))
+                .andExpect(jsonPath("$.content[0].user").doesNotExist())
+                .andExpect(jsonPath("$.users.length()").value(1))
+                .andExpect(jsonPath("$.users[0].id").value(user1.getId()))
+                .andExpect(jsonPath("$.users[0].email").value(user1.getEmail()));
+    }
+
+    @Test
+    void shouldListDistinctUsers_whenSearchingTrainingsNormalized() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        persistTraining(generateTrainingWithActivityType(user1, ActivityType.TENNIS));
+        persistTraining(generateTrainingWithActivityType(user2, ActivityType.TENNIS));
+        persistTraining(generateTrainingWithActivityType(user1, ActivityType.TENNIS));
+
+        mockMvc.perform(get("/v1/trainings/activityType").param("activityType", "TENNIS").param("normalized", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.users.length()").value(2));
+        mockMvc.perform(get("/v1/trainings/search").param("activityTypes", "TENNIS").param("normalized", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.users.length()").value(2))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void shouldReturnRequestedFieldsOnly_whenGettingTrainingFields() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTrainingWithDetails(user1, "2024-05-17 19:00:00", "2024-05-17 20:30:00", ActivityType.RUNNING, 14, 11.5));
+        Training training2 = persistTraining(generateTrainingWithDetails(user1, "2024-05-19 19:00:00", "2024-05-19 20:30:00", ActivityType.CYCLING, 30, 20));
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long entityLoads = statistics.getEntityLoadCount();
+
+        String firstPage = mockMvc.perform(get("/v1/trainings").param("fields", "distance,id").param("size", "1"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].id").value(training1.getId()))
+                .andExpect(jsonPath("$.content[0].distance").value(14.0))
+                .andExpect(jsonPath("$.content[0].length()").value(2))
+                .andExpect(jsonPath("$.next").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(get("/v1/trainings").param("fields", "userId,activityType").param("cursor", JsonPath.<String>read(firstPage, "$.next")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].userId").value(user1.getId()))
+                .andExpect(jsonPath("$.content[0].activityType").value("CYCLING"))
+                .andExpect(jsonPath("$.content[0].id").doesNotExist());
+
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(entityLoads);
+        assertThat(training2.getId()).isGreaterThan(training1.getId());
+    }
+
+    @Test
+    void shouldRejectUnknownField_whenGettingTrainingFields() throws Exception {
+
+        mockMvc.perform(get("/v1/trainings").param("fields", "id,user"))
+                .andExpect(status().isBadRequest());
+    }
+
+}
@@ -0,0 +1,132 @@
+package pl.wsb.fitnesstracker.training;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class TrainingConditionalGetIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static User generateUser() {
+        return new User(randomUUID().toString(), randomUUID().toString(), LocalDate.of(1990, 1, 1), randomUUID() + "@domain.com");
+    }
+
+    private static String trainingJson(Long userId, String activityType) {
+        return """
+                {
+                "userId": "%s",
+                "startTime": "2022-04-01T10:00:00",
+                "endTime": "2022-04-01T11:00:00",
+                "activityType": "%s",
+                "distance": 5.0,
+                "averageSpeed": 5.0
+                }
+                """.formatted(userId, activityType);
+    }
+
+    private String eTagOfTrainings(Long userId) throws Exception {
+        return mockMvc.perform(get("/v1/trainings/{userId}", userId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private double statements() {
+        return meterRegistry.get("jdbc.statements").functionCounter().count();
+    }
+
+    @Test
+    void shouldAnswerNotModifiedWithoutQueries_whenTrainingsDidNotChange() throws Exception {
+        User user = existingUser(generateUser());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(trainingJson(user.getId(), "RUNNING")))
+                .andExpect(status().isCreated());
+        String eTag = eTagOfTrainings(user.getId());
+        double statements = statements();
+
+        mockMvc.perform(get("/v1/trainings/{userId}", user.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        assertThat(statements()).isEqualTo(statements);
+    }
+
+    @Test
+    void shouldAnswerInRequestedFormat_whenAcceptChangedBetweenPolls() throws Exception {
+        User user = existingUser(generateUser());
+        String jsonETag = mockMvc.perform(get("/v1/trainings/{userId}", user.getId()).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String cborETag = mockMvc.perform(get("/v1/trainings/{userId}", user.getId())
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonETag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(cborETag).isNotEqualTo(jsonETag);
+
+        mockMvc.perform(get("/v1/trainings/{userId}", user.getId())
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, cborETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        mockMvc.perform(get("/v1/trainings/{userId}", user.getId())
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, cborETag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void shouldAnswerWithNewVersion_whenTrainingOrUserChanged() throws Exception {
+        User user = existingUser(generateUser());
+        String initial = eTagOfTrainings(user.getId());
+
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content(trainingJson(user.getId(), "RUNNING")))
+                .andExpect(status().isCreated());
+        String afterCreate = mockMvc.perform(get("/v1/trainings/{userId}", user.getId()).header(HttpHeaders.IF_NONE_MATCH, initial))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(put("/v1/users/{userId}", user.getId()).contentType(MediaType.APPLICATION_JSON).content("""
+                        {
+                        "firstName": "Mike",
+                        "lastName": "Scott",
+                        "birthdate": "1990-01-01",
+                        "email": "%s"
+                        }
+                        """.formatted(user.getEmail())))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/v1/trainings/{userId}", user.getId()).header(HttpHeaders.IF_NONE_MATCH, afterCreate))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].user.firstName").value("Mike"));
+    }
+
+}
@@ -0,0 +1,85 @@
+package pl.wsb.fitnesstracker.training;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The export is streamed on a separate thread within its own transaction,
+ * so unlike the other API tests this one must not run in a test-managed transaction.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class TrainingExportIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static User generateClient() {
+        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString());
+    }
+
+    private static Training generateTraining(User user, String endTime, ActivityType activityType) throws ParseException {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+        return new Training(
+                user,
+                sdf.parse("2024-01-01 00:00:00"),
+                sdf.parse(endTime),
+                activityType,
+                10.5,
+                8.2);
+    }
+
+    @Test
+    void shouldStreamFilteredTrainingsAsNdjson_whenExportingTrainings() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        User user2 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTraining(user1, "2024-05-17 20:30:00", ActivityType.RUNNING));
+        Training training2 = persistTraining(generateTraining(user1, "2024-05-19 20:30:00", ActivityType.RUNNING));
+        persistTraining(generateTraining(user1, "2024-05-19 20:30:00", ActivityType.CYCLING));
+        persistTraining(generateTraining(user1, "2024-06-19 20:30:00", ActivityType.RUNNING));
+        persistTraining(generateTraining(user2, "2024-05-19 20:30:00", ActivityType.RUNNING));
+
+        MvcResult result = mockMvc.perform(get("/v1/trainings/export")
+                        .param("userId", user1.getId().toString())
+                        .param("activityType", "RUNNING")
+                        .param("from", "2024-05-01")
+                        .param("to", "2024-06-01"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines())
+                .hasSize(2)
+                .satisfiesExactly(
+                        line -> assertThat(line).contains("\"id\":" + training1.getId()),
+                        line -> assertThat(line).contains("\"id\":" + training2.getId()));
+    }
+
+}
@@ -0,0 +1,118 @@
+package pl.wsb.fitnesstracker.training;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.training.api.Training;
+import pl.wsb.fitnesstracker.training.internal.ActivityType;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.TimeZone;
+
+import static java.time.LocalDate.now;
+import static java.util.UUID.randomUUID;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The training series cache applies writes after their transaction commits,
+ * so unlike the other API tests this one must not run in a test-managed transaction.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class TrainingSeriesCacheIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private static User generateClient() {
+        return new User(randomUUID().toString(), randomUUID().toString(), now(), randomUUID().toString());
+    }
+
+    private static Training generateTraining(User user, String startTime, String endTime) throws ParseException {
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        return new Training(
+                user,
+                sdf.parse(startTime),
+                sdf.parse(endTime),
+                ActivityType.RUNNING,
+                10.5,
+                8.2);
+    }
+
+    @Test
+    void shouldReturnTrainingsStartedInWindow_whenGettingUserTrainingsInWindow() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        persistTraining(generateTraining(user1, "2024-02-28 08:00:00", "2024-02-28 09:00:00"));
+        Training training2 = persistTraining(generateTraining(user1, "2024-03-01 08:00:00", "2024-03-01 09:00:00"));
+        Training training3 = persistTraining(generateTraining(user1, "2024-03-15 08:00:00", "2024-03-15 09:00:00"));
+        persistTraining(generateTraining(user1, "2024-04-01 00:00:00", "2024-04-01 01:00:00"));
+
+        mockMvc.perform(get("/v1/trainings/{userId}/window", user1.getId())
+                        .param("from", "2024-03-01T00:00:00Z")
+                        .param("to", "2024-04-01T00:00:00Z")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(training2.getId()))
+                .andExpect(jsonPath("$[1].id").value(training3.getId()))
+                .andExpect(jsonPath("$[2]").doesNotExist());
+    }
+
+    @Test
+    void shouldReflectWrites_whenGettingUserTrainingsInWindowAfterCreateAndUpdate() throws Exception {
+
+        User user1 = existingUser(generateClient());
+        Training training1 = persistTraining(generateTraining(user1, "2024-03-01 08:00:00", "2024-03-01 09:00:00"));
+
+        mockMvc.perform(get("/v1/trainings/{userId}/window", user1.getId())
+                        .param("from", "2024-03-01T00:00:00Z")
+                        .param("to", "2024-04-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(training1.getId()))
+                .andExpect(jsonPath("$[1]").doesNotExist());
+
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_JSON).content("""
+                        {
+                            "userId": "%s",
+                            "startTime": "2024-03-10T10:00:00Z",
+                            "endTime": "2024-03-10T11:00:00Z",
+                            "activityType": "CYCLING",
+                            "distance": 20.0,
+                            "averageSpeed": 18.0
+                        }
+                        """.formatted(user1.getId())))
+                .andExpect(status().isCreated());
+        mockMvc.perform(put("/v1/trainings/{trainingId}", training1.getId()).contentType(MediaType.APPLICATION_JSON).content("""
+                        {
+                            "userId": "%s",
+                            "startTime": "2024-05-01T10:00:00Z",
+                            "endTime": "2024-05-01T11:00:00Z",
+                            "activityType": "RUNNING",
+                            "distance": 5.0,
+                            "averageSpeed": 10.0
+                        }
+                        """.formatted(user1.getId())))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/v1/trainings/{userId}/window", user1.getId())
+                        .param("from", "2024-03-01T00:00:00Z")
+                        .param("to", "2024-04-01T00:00:00Z"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].activityType").value("CYCLING"))
+                .andExpect(jsonPath("$[1]").doesNotExist());
+    }
+
+}
@@ -0,0 +1,83 @@
+package pl.wsb.fitnesstracker.training.internal;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.QueryPlans;
+
+import java.util.Date;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that the SQL generated for the {@link TrainingRepository} queries is served by an index lookup on the
+ * filtered column (see the {@code db/migration} scripts), instead of falling back to a full scan of the trainings
+ * table. The statements are captured while calling the repository methods and then explained.
+ */
+@IntegrationTest
+class TrainingQueryPlanTest extends IntegrationTestBase {
+
+    private static final Pageable KEYSET_PAGE = PageRequest.of(0, 51, Sort.by("endTime", "id"));
+
+    private static final Date CURSOR_END_TIME = new Date(1_704_067_200_000L);
+
+    @Autowired
+    private TrainingRepository trainingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                query("findByUser_Id", "USER_ID",
+                        repository -> repository.findByUser_Id(1L)),
+                query("findByUser_Id (first page)", "USER_ID",
+                        repository -> repository.findByUser_Id(1L, KEYSET_PAGE)),
+                query("findByUserIdFromCursor", "USER_ID",
+                        repository -> repository.findByUserIdFromCursor(1L, CURSOR_END_TIME, 10L, KEYSET_PAGE)),
+                query("findAllByActivityType", "ACTIVITY_TYPE",
+                        repository -> repository.findAllByActivityType(ActivityType.RUNNING)),
+                query("findAllByActivityType (first page)", "ACTIVITY_TYPE",
+                        repository -> repository.findAllByActivityType(ActivityType.RUNNING, KEYSET_PAGE)),
+                query("findAllByActivityTypeFromCursor", "ACTIVITY_TYPE",
+                        repository -> repository.findAllByActivityTypeFromCursor(ActivityType.RUNNING, CURSOR_END_TIME, 10L, KEYSET_PAGE)),
+                query("findAllByEndTimeAfter", "END_TIME",
+                        repository -> repository.findAllByEndTimeAfter(CURSOR_END_TIME)),
+                query("findAllByEndTimeAfter (first page)", "END_TIME",
+                        repository -> repository.findAllByEndTimeAfter(CURSOR_END_TIME, KEYSET_PAGE)),
+                query("findAllByEndTimeAfterFromCursor", "END_TIME",
+                        repository -> repository.findAllByEndTimeAfterFromCursor(CURSOR_END_TIME, CURSOR_END_TIME, 10L, KEYSET_PAGE)),
+                query("findAllFromCursor", "END_TIME",
+                        repository -> repository.findAllFromCursor(CURSOR_END_TIME, 10L, KEYSET_PAGE))
+        );
+    }
+
+    private static Arguments query(String name, String indexedColumn, Consumer<TrainingRepository> call) {
+        return Arguments.of(name, indexedColumn, call);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void shouldUseIndex_whenExplainingRepositoryQuery(String query, String indexedColumn, Consumer<TrainingRepository> call) {
+        String plan = QueryPlans.explain(entityManagerFactory, jdbcTemplate, () -> call.accept(trainingRepository));
+
+        assertThat(plan)
+                .as("plan of %s", query)
+                .doesNotContain("tableScan")
+                .containsPattern("FROM \"PUBLIC\"\\.\"TRAININGS\" \"\\w+\"\\s+/\\* PUBLIC\\.\\w+: " + indexedColumn + " ");
+    }
+
+}
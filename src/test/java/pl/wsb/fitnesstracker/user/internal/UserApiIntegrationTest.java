@@ -1,5 +1,6 @@
 package pl.wsb.fitnesstracker.user.internal;
 
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -112,12 +113,56 @@ class UserApiIntegrationTest extends IntegrationTestBase {
         mockMvc.perform(get("/v1/users/older/{time}", LocalDate.of(2024, 8, 10)).contentType(MediaType.APPLICATION_JSON))
                 .andDo(log())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].firstName").value(user1.getFirstName()))
-                .andExpect(jsonPath("$[0].lastName").value(user1.getLastName()))
-                .andExpect(jsonPath("$[0].birthdate").value(ISO_DATE.format(user1.getBirthdate())))
+                .andExpect(jsonPath("$.content").isArray())
+                .andExpect(jsonPath("$.content[0].firstName").value(user1.getFirstName()))
+                .andExpect(jsonPath("$.content[0].lastName").value(user1.getLastName()))
+                .andExpect(jsonPath("$.content[0].birthdate").value(ISO_DATE.format(user1.getBirthdate())))
 
-                .andExpect(jsonPath("$[1]").doesNotExist());
+                .andExpect(jsonPath("$.content[1]").doesNotExist())
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    void shouldPageThroughUsersOlderThanAge_whenGettingUsersOlderThanAge() throws Exception {
+        LocalDate today = LocalDate.now();
+        User user1 = existingUser(generateUserWithDate(today.minusYears(40)));
+        User user2 = existingUser(generateUserWithDate(today.minusYears(30).minusDays(1)));
+        User user3 = existingUser(generateUserWithDate(today.minusYears(30).minusDays(1)));
+        existingUser(generateUserWithDate(today.minusYears(30)));
+        existingUser(generateUserWithDate(today.minusYears(20)));
+
+        String firstPage = mockMvc.perform(get("/v1/users/olderThanAge/{age}", 30).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].id").value(user1.getId()))
+                .andExpect(jsonPath("$.content[1].id").value(user2.getId()))
+                .andReturn().getResponse().getContentAsString();
+        String next = JsonPath.read(firstPage, "$.next");
+
+        mockMvc.perform(get("/v1/users/olderThanAge/{age}", 30).param("size", "2").param("cursor", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id").value(user3.getId()))
+                .andExpect(jsonPath("$.next").doesNotExist());
+
+        mockMvc.perform(get("/v1/users/olderThanAge/{age}/count", 30))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(3));
+        mockMvc.perform(get("/v1/users/older/{time}/count", today.minusYears(20)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(4));
+    }
+
+    @Test
+    void shouldMatchAgeOfEveryBirthdate_whenComputingBirthdateBound() {
+        LocalDate today = LocalDate.of(2024, 2, 29);
+        for (LocalDate birthdate = LocalDate.of(2020, 1, 1); birthdate.isBefore(today); birthdate = birthdate.plusDays(1)) {
+            for (int years = 0; years <= 4; years++) {
+                assertThat(birthdate.isBefore(UserServiceImpl.bornBefore(years, today)))
+                        .as("%s older than %d on %s", birthdate, years, today)
+                        .isEqualTo(birthdate.plusYears(years).isBefore(today));
+            }
+        }
     }
 
     @Test
@@ -211,5 +256,22 @@ class UserApiIntegrationTest extends IntegrationTestBase {
         assertThat(user.getEmail()).isEqualTo(USER_EMAIL);
     }
 
+    @Test
+    void shouldReturnRequestedFieldsOnly_whenGettingUserFields() throws Exception {
+        User user1 = existingUser(generateUser());
+        User user2 = existingUser(generateUser());
+
+        mockMvc.perform(get("/v1/users").param("fields", "email,id"))
+                .andDo(log())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].length()").value(2))
+                .andExpect(jsonPath("$[0].email").value(user1.getEmail()))
+                .andExpect(jsonPath("$[0].id").value(user1.getId()))
+                .andExpect(jsonPath("$[1].email").value(user2.getEmail()))
+                .andExpect(jsonPath("$[1].firstName").doesNotExist());
+        mockMvc.perform(get("/v1/users").param("fields", "password"))
+                .andExpect(status().isBadRequest());
+    }
 
 }
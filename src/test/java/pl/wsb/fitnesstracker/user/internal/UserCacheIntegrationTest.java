@@ -0,0 +1,125 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserProvider;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class UserCacheIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserProvider userProvider;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static User generateUser() {
+        return new User(randomUUID().toString(), randomUUID().toString(), LocalDate.of(1990, 1, 1), randomUUID() + "@domain.com");
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("users.cache.gets").tag("result", result).counter().count();
+    }
+
+    private void renameBehindTheCache(Long id, String firstName) {
+        jdbcTemplate.update("update users set first_name = ? where id = ?", firstName, id);
+    }
+
+    @Test
+    void shouldServeRepeatedLookupsFromCache() {
+        User user = existingUser(generateUser());
+        double hits = gets("hit");
+        double misses = gets("miss");
+
+        userProvider.getUserById(user.getId());
+        renameBehindTheCache(user.getId(), "Changed");
+        User cached = userProvider.getUserById(user.getId()).orElseThrow();
+
+        assertThat(cached.getFirstName()).isEqualTo(user.getFirstName());
+        assertThat(gets("miss")).isEqualTo(misses + 1);
+        assertThat(gets("hit")).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void shouldNotExposeCachedUser_whenCallerChangesReturnedUser() {
+        User user = existingUser(generateUser());
+        userProvider.getUserById(user.getId());
+
+        userProvider.getUserById(user.getId()).orElseThrow().setFirstName("Changed");
+
+        assertThat(userProvider.getUserById(user.getId()).orElseThrow().getFirstName()).isEqualTo(user.getFirstName());
+    }
+
+    @Test
+    void shouldInvalidateUser_whenUserIsUpdated() throws Exception {
+        User user = existingUser(generateUser());
+        User other = existingUser(generateUser());
+        userProvider.getUserById(user.getId());
+        userProvider.getUserById(other.getId());
+        renameBehindTheCache(other.getId(), "Changed");
+
+        mockMvc.perform(put("/v1/users/{userId}", user.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                "firstName": "Mike",
+                                "lastName": "Scott",
+                                "birthdate": "1999-09-29",
+                                "email": "%s"
+                                }
+                                """.formatted(user.getEmail())))
+                .andExpect(status().isOk());
+
+        assertThat(userProvider.getUserById(user.getId()).orElseThrow().getFirstName()).isEqualTo("Mike");
+        assertThat(userProvider.getUserById(other.getId()).orElseThrow().getFirstName()).isEqualTo(other.getFirstName());
+    }
+
+    @Test
+    void shouldInvalidateUser_whenUserIsDeleted() throws Exception {
+        User user = existingUser(generateUser());
+        userProvider.getUserById(user.getId());
+
+        mockMvc.perform(delete("/v1/users/{userId}", user.getId()))
+                .andExpect(status().isNoContent());
+
+        assertThat(userProvider.getUserById(user.getId())).isEmpty();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedUsers_whenCacheIsFull() {
+        List<User> users = IntStream.range(0, 8).mapToObj(i -> existingUser(generateUser())).toList();
+        double evictions = meterRegistry.get("users.cache.evictions").tag("cause", "size").counter().count();
+
+        users.forEach(user -> userProvider.getUserById(user.getId()));
+
+        assertThat(meterRegistry.get("users.cache.evictions").tag("cause", "size").counter().count())
+                .isGreaterThanOrEqualTo(evictions + 4);
+        assertThat(meterRegistry.get("users.cache.size").gauge().value()).isEqualTo(4);
+    }
+
+}
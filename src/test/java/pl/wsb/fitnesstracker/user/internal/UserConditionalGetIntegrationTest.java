@@ -0,0 +1,94 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+
+import static java.util.UUID.randomUUID;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class UserConditionalGetIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private String eTagOfSimpleUsers() throws Exception {
+        return mockMvc.perform(get("/v1/users/simple"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void shouldAnswerNotModified_whenUsersDidNotChange() throws Exception {
+        existingUser(new User("John", "Doe", LocalDate.of(1990, 1, 1), randomUUID() + "@domain.com"));
+        String eTag = eTagOfSimpleUsers();
+
+        mockMvc.perform(get("/v1/users/simple").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+    }
+
+    @Test
+    void shouldAnswerInRequestedFormat_whenAcceptChangedBetweenPolls() throws Exception {
+        existingUser(new User("John", "Doe", LocalDate.of(1990, 1, 1), randomUUID() + "@domain.com"));
+        String jsonETag = mockMvc.perform(get("/v1/users/simple").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String smileETag = mockMvc.perform(get("/v1/users/simple")
+                        .accept(MediaType.valueOf("application/x-jackson-smile"))
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonETag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/v1/users/simple")
+                        .accept(MediaType.valueOf("application/x-jackson-smile"))
+                        .header(HttpHeaders.IF_NONE_MATCH, smileETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        mockMvc.perform(get("/v1/users/simple")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, smileETag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void shouldAnswerWithUsers_whenUserWasCreated() throws Exception {
+        String eTag = eTagOfSimpleUsers();
+
+        mockMvc.perform(post("/v1/users").contentType(MediaType.APPLICATION_JSON).content("""
+                        {
+                        "firstName": "Mike",
+                        "lastName": "Scott",
+                        "birthdate": "1999-09-29",
+                        "email": "%s"
+                        }
+                        """.formatted(randomUUID() + "@domain.com")))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/v1/users/simple").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].firstName").value(hasItem("Mike")));
+    }
+
+}
@@ -0,0 +1,116 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+import pl.wsb.fitnesstracker.user.api.UserDtoEmail;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The email index follows the committed and rolled back user writes, so this test must not run in a test-managed
+ * transaction.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class UserEmailSearchIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserEmailIndex userEmailIndex;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static User generateUser(String email) {
+        return new User("John", "Doe", LocalDate.of(1990, 1, 1), email);
+    }
+
+    @Test
+    void shouldReturnFirstMatchesCaseInsensitively_whenSearchingByPartialEmail() throws Exception {
+        User user1 = existingUser(generateUser("Anna.Smith@example.com"));
+        User user2 = existingUser(generateUser("bob@other.org"));
+        User user3 = existingUser(generateUser("hannah@EXAMPLE.com"));
+        User user4 = existingUser(generateUser("johanna@example.com"));
+
+        mockMvc.perform(get("/v1/users/email").param("email", "ANNA").contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].id").value(user1.getId()))
+                .andExpect(jsonPath("$[0].email").value(user1.getEmail()))
+                .andExpect(jsonPath("$[1].id").value(user3.getId()))
+                .andExpect(jsonPath("$[2].id").value(user4.getId()));
+
+        mockMvc.perform(get("/v1/users/email").param("email", "example.com").param("limit", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id").value(user1.getId()))
+                .andExpect(jsonPath("$[1].id").value(user3.getId()));
+
+        assertThat(userEmailIndex.search("B@", 10)).extracting(UserDtoEmail::id).containsExactly(user2.getId());
+        assertThat(userEmailIndex.search("h@", 10)).extracting(UserDtoEmail::id).containsExactly(user1.getId(), user3.getId());
+        assertThat(userEmailIndex.search("xyz", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldFollowUserWrites_whenSearchingByPartialEmail() throws Exception {
+        User user = existingUser(generateUser("first@example.com"));
+
+        mockMvc.perform(put("/v1/users/{id}", user.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                "firstName": "John",
+                                "lastName": "Doe",
+                                "birthdate": "1990-01-01",
+                                "email": "second@example.com"
+                                }
+                                """))
+                .andExpect(status().isOk());
+
+        assertThat(userEmailIndex.search("first", 10)).isEmpty();
+        assertThat(userEmailIndex.search("second", 10)).extracting(UserDtoEmail::email).containsExactly("second@example.com");
+
+        mockMvc.perform(delete("/v1/users/{id}", user.getId()))
+                .andExpect(status().is2xxSuccessful());
+
+        assertThat(userEmailIndex.search("second", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldRevertIndexedEmail_whenUserWriteIsRolledBack() {
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.save(generateUser("rolled.back@example.com"));
+            assertThat(userEmailIndex.search("rolled", 10)).hasSize(1);
+            status.setRollbackOnly();
+        });
+
+        assertThat(userEmailIndex.search("rolled", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldReturnBadRequest_whenLimitIsNotPositive() throws Exception {
+        mockMvc.perform(get("/v1/users/email").param("email", "anna").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+}
@@ -0,0 +1,69 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.QueryPlans;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Verifies that the age queries of the {@link UserRepository} are served by the birthdate index
+ * (see the {@code db/migration} scripts) instead of scanning the users table.
+ * The statements are captured while calling the repository methods and then explained.
+ */
+@IntegrationTest
+class UserQueryPlanTest extends IntegrationTestBase {
+
+    private static final Pageable BIRTHDATE_PAGE = PageRequest.of(0, 51, Sort.by("birthdate", "id"));
+
+    private static final LocalDate BEFORE = LocalDate.of(1994, 5, 1);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    static Stream<Arguments> repositoryQueries() {
+        return Stream.of(
+                query("findByBirthdateBefore",
+                        repository -> repository.findByBirthdateBefore(BEFORE, BIRTHDATE_PAGE)),
+                query("findByBirthdateBeforeFromCursor",
+                        repository -> repository.findByBirthdateBeforeFromCursor(BEFORE, LocalDate.of(1980, 1, 1), 10L, BIRTHDATE_PAGE)),
+                query("countByBirthdateBefore",
+                        repository -> repository.countByBirthdateBefore(BEFORE))
+        );
+    }
+
+    private static Arguments query(String name, Consumer<UserRepository> call) {
+        return Arguments.of(name, call);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void shouldUseBirthdateIndex_whenExplainingRepositoryQuery(String query, Consumer<UserRepository> call) {
+        String plan = QueryPlans.explain(entityManagerFactory, jdbcTemplate, () -> call.accept(userRepository));
+
+        assertThat(plan)
+                .as("plan of %s", query)
+                .doesNotContain("tableScan")
+                .contains("USERS_BIRTHDATE_IDX");
+    }
+
+}
@@ -0,0 +1,87 @@
+package pl.wsb.fitnesstracker.user.internal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+import java.util.stream.IntStream;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class UserRegistrationIntegrationTest extends IntegrationTestBase {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserEmailFilter userEmailFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static String userJson(String email) {
+        return """
+                {
+                "firstName": "Mike",
+                "lastName": "Scott",
+                "birthdate": "1999-09-29",
+                "email": "%s"
+                }
+                """.formatted(email);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("users.email.filter.lookups").tag("result", result).counter().count();
+    }
+
+    @Test
+    void shouldRejectDuplicateEmail_whenCreatingUser() throws Exception {
+        User existing = existingUser(new User("John", "Doe", LocalDate.of(1990, 1, 1), randomUUID() + "@domain.com"));
+        double duplicates = lookups("duplicate");
+
+        mockMvc.perform(post("/v1/users").contentType(MediaType.APPLICATION_JSON).content(userJson(existing.getEmail())))
+                .andExpect(status().isBadRequest());
+
+        assertThat(lookups("duplicate")).isEqualTo(duplicates + 1);
+        assertThat(getAllUsers()).hasSize(1);
+    }
+
+    @Test
+    void shouldCountFilterCheck_whenCreatingUserWithNewEmail() throws Exception {
+        double negatives = lookups("negative");
+        double falsePositives = lookups("false-positive");
+
+        mockMvc.perform(post("/v1/users").contentType(MediaType.APPLICATION_JSON).content(userJson(randomUUID() + "@domain.com")))
+                .andExpect(status().isCreated());
+
+        assertThat(lookups("negative") + lookups("false-positive")).isEqualTo(negatives + falsePositives + 1);
+        assertThat(getAllUsers()).hasSize(1);
+    }
+
+    @Test
+    void shouldKeepFalsePositiveRateLow_whenFilterHoldsManyEmails() {
+        IntStream.range(0, 10_000).forEach(i -> userEmailFilter.put("filled." + i + "@domain.com"));
+
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> userEmailFilter.mightContain("unknown." + i + "@domain.com"))
+                .count();
+
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> userEmailFilter.mightContain("filled." + i + "@domain.com"))).isTrue();
+        assertThat(falsePositives / 10_000.0).isCloseTo(0.0, within(0.01));
+        assertThat(meterRegistry.get("users.email.filter.expected-false-positive-rate").gauge().value()).isLessThan(0.01);
+    }
+
+}
@@ -0,0 +1,89 @@
+package pl.wsb.fitnesstracker.web.internal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.wsb.fitnesstracker.IntegrationTest;
+import pl.wsb.fitnesstracker.IntegrationTestBase;
+import pl.wsb.fitnesstracker.user.api.User;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static java.util.UUID.randomUUID;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@IntegrationTest
+@AutoConfigureMockMvc(addFilters = false)
+class BinaryFormatsIntegrationTest extends IntegrationTestBase {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final CBORMapper cborMapper = new CBORMapper();
+    private final SmileMapper smileMapper = new SmileMapper();
+
+    private static User generateUser() {
+        return new User(randomUUID().toString(), randomUUID().toString(), LocalDate.of(1990, 1, 1), randomUUID() + "@domain.com");
+    }
+
+    private static Map<String, Object> training(Long userId) {
+        return Map.of("userId", userId,
+                "startTime", "2022-04-01T10:00:00",
+                "endTime", "2022-04-01T11:00:00",
+                "activityType", "RUNNING",
+                "distance", 5.5,
+                "averageSpeed", 5.5);
+    }
+
+    private byte[] getTrainings(Long userId, MediaType mediaType) throws Exception {
+        return mockMvc.perform(get("/v1/trainings/{userId}", userId).accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(mediaType))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+
+    @Test
+    void shouldEncodeSameTrainings_whenClientAcceptsCborOrSmile() throws Exception {
+        User user = existingUser(generateUser());
+        mockMvc.perform(post("/v1/trainings").contentType(MediaType.APPLICATION_CBOR).content(cborMapper.writeValueAsBytes(training(user.getId()))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+
+        JsonNode json = objectMapper.readTree(getTrainings(user.getId(), MediaType.APPLICATION_JSON));
+        JsonNode cbor = cborMapper.readTree(getTrainings(user.getId(), MediaType.APPLICATION_CBOR));
+        JsonNode smile = smileMapper.readTree(getTrainings(user.getId(), SMILE));
+
+        assertThat(json.at("/content/0/distance").asDouble()).isEqualTo(5.5);
+        assertThat(cbor).isEqualTo(json);
+        assertThat(smile).isEqualTo(json);
+    }
+
+    @Test
+    void shouldAnswerWithJson_whenClientAcceptsAnyMediaType() throws Exception {
+        existingUser(generateUser());
+
+        mockMvc.perform(get("/v1/users/simple").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/v1/users/simple"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+
+}